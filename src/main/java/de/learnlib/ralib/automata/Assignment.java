@@ -18,8 +18,12 @@ package de.learnlib.ralib.automata;
 
 import java.util.Map.Entry;
 
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
 import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataValue;
 import de.learnlib.ralib.data.ParValuation;
+import de.learnlib.ralib.data.RegisterSlots;
 import de.learnlib.ralib.data.SymbolicDataValue;
 import de.learnlib.ralib.data.SymbolicDataValue.Constant;
 import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
@@ -36,6 +40,8 @@ public class Assignment {
 
     private final VarMapping<Register, ? extends SymbolicDataValue> assignment;
 
+    private volatile Compiled compiled;
+
     public Assignment(VarMapping<Register, ? extends SymbolicDataValue> assignment) {
         this.assignment = assignment;
     }
@@ -62,6 +68,41 @@ public class Assignment {
         return val;
     }
 
+    /**
+     * Computes the assignment on array valuations. The registers are
+     * copied once and updated in place; if nothing is assigned, the
+     * given valuation is returned.
+     *
+     * @param registers
+     * @param parameters
+     * @param consts
+     * @return
+     */
+    public ArrayVarValuation compute(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+        Compiled c = compiled;
+        if (c == null || c.slots != registers.getSlots()) {
+            c = new Compiled(registers.getSlots());
+            compiled = c;
+        }
+        if (c.targets.length == 0) {
+            return registers;
+        }
+        DataValue<?>[] values = registers.copyValues();
+        for (int i = 0; i < c.targets.length; i++) {
+            SymbolicDataValue valp = c.sources[i];
+            if (c.sourceSlots[i] >= 0) {
+                values[c.targets[i]] = registers.get(c.sourceSlots[i]);
+            }
+            else if (valp.isParameter()) {
+                values[c.targets[i]] = parameters.get( (Parameter) valp);
+            }
+            else {
+                values[c.targets[i]] = consts.get( (Constant) valp);
+            }
+        }
+        return new ArrayVarValuation(c.slots, values);
+    }
+
     @Override
     public String toString() {
         return assignment.toString(":=");
@@ -71,4 +112,36 @@ public class Assignment {
         return assignment;
     }
 
+    /**
+     * The assignment resolved to register slots.
+     */
+    private final class Compiled {
+
+        private final RegisterSlots slots;
+
+        private final int[] targets;
+
+        private final SymbolicDataValue[] sources;
+
+        private final int[] sourceSlots;
+
+        Compiled(RegisterSlots slots) {
+            this.slots = slots;
+            this.targets = new int[assignment.size()];
+            this.sources = new SymbolicDataValue[assignment.size()];
+            this.sourceSlots = new int[assignment.size()];
+            int i = 0;
+            for (Entry<Register, ? extends SymbolicDataValue> e : assignment) {
+                SymbolicDataValue valp = e.getValue();
+                if (!valp.isRegister() && !valp.isParameter() && !valp.isConstant()) {
+                    throw new IllegalStateException("Illegal assignment: " +
+                            e.getKey() + " := " + valp);
+                }
+                targets[i] = slots.slotOf(e.getKey());
+                sources[i] = valp;
+                sourceSlots[i] = valp.isRegister() ? slots.slotOf((Register) valp) : -1;
+                i++;
+            }
+        }
+    }
 }
@@ -24,8 +24,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import de.learnlib.ralib.data.ArrayVarValuation;
 import de.learnlib.ralib.data.Constants;
-import de.learnlib.ralib.data.ParValuation;
 import de.learnlib.ralib.data.VarValuation;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
@@ -89,67 +89,27 @@ public class MutableRegisterAutomaton extends RegisterAutomaton
     }
 
     protected List<Transition> getTransitions(Word<PSymbolInstance> dw) {
-        VarValuation vars = new VarValuation(getInitialRegisters());
-        RALocation current = initial;
+        RACursor cursor = cursor();
         List<Transition> tseq = new ArrayList<>();
         for (PSymbolInstance psi : dw) {
-
-            ParValuation pars = new ParValuation(psi);
-
-            Collection<Transition> candidates =
-                    current.getOut(psi.getBaseSymbol());
-
-            if (candidates == null) {
-                return null;
-            }
-
-            boolean found = false;
-            for (Transition t : candidates) {
-                if (t.isEnabled(vars, pars, this.constants)) {
-                    vars = t.execute(vars, pars, this.constants);
-                    current = t.getDestination();
-                    tseq.add(t);
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found) {
+            Transition t = cursor.step(psi);
+            if (t == null) {
                 return null;
             }
+            tseq.add(t);
         }
         return tseq;
     }
 
     protected List<Pair<Transition,VarValuation>> getTransitionsAndValuations(Word<PSymbolInstance> dw) {
-        VarValuation vars = new VarValuation(getInitialRegisters());
-        RALocation current = initial;
+        RACursor cursor = cursor();
         List<Pair<Transition,VarValuation>> tvseq = new ArrayList<>();
         for (PSymbolInstance psi : dw) {
-
-            ParValuation pars = new ParValuation(psi);
-
-            Collection<Transition> candidates =
-                    current.getOut(psi.getBaseSymbol());
-
-            if (candidates == null) {
-                return null;
-            }
-
-            boolean found = false;
-            for (Transition t : candidates) {
-                if (t.isEnabled(vars, pars, constants)) {
-                    vars = t.execute(vars, pars, constants);
-                    current = t.getDestination();
-                    tvseq.add(Pair.of(t, new VarValuation(vars)));
-                    found = true;
-                    break;
-                }
-            }
-
-            if (!found) {
+            Transition t = cursor.step(psi);
+            if (t == null) {
                 return null;
             }
+            tvseq.add(Pair.of(t, cursor.getRegisters()));
         }
         return tvseq;
     }
@@ -168,6 +128,12 @@ public class MutableRegisterAutomaton extends RegisterAutomaton
         }
     }
 
+    @Override
+    public RACursor cursor() {
+        return new RACursor(initial,
+                new ArrayVarValuation(getRegisterSlots(), getInitialRegisters()), constants);
+    }
+
     @Override
     public boolean accepts(Word<PSymbolInstance> dw) {
         RALocation dest = getLocation(dw);
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.automata;
+
+import java.util.Collection;
+
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.VarValuation;
+import de.learnlib.ralib.words.PSymbolInstance;
+
+/**
+ * Simulates a run of a register automaton one symbol at a time.
+ *
+ * The cursor holds the current location and register valuation. After a
+ * symbol for which no transition is enabled, the run is rejected and stays
+ * rejected.
+ */
+public class RACursor {
+
+    private final Constants constants;
+
+    private RALocation location;
+
+    private ArrayVarValuation registers;
+
+    public RACursor(RALocation initial, ArrayVarValuation registers, Constants constants) {
+        this.location = initial;
+        this.registers = registers;
+        this.constants = constants;
+    }
+
+    /**
+     * Advances the run by one symbol.
+     *
+     * @param psi the next symbol
+     * @return the transition that was taken or null if the run is rejected
+     */
+    public Transition step(PSymbolInstance psi) {
+        if (location == null) {
+            return null;
+        }
+        ArrayParValuation pars = new ArrayParValuation(psi);
+        Collection<Transition> candidates = location.getOut(psi.getBaseSymbol());
+        if (candidates != null) {
+            for (Transition t : candidates) {
+                if (t.isEnabled(registers, pars, constants)) {
+                    registers = t.execute(registers, pars, constants);
+                    location = t.getDestination();
+                    return t;
+                }
+            }
+        }
+        location = null;
+        return null;
+    }
+
+    /**
+     * @return true if the run so far is accepted
+     */
+    public boolean isAccepting() {
+        return location != null && location.isAccepting();
+    }
+
+    /**
+     * @return the current location or null if the run is rejected
+     */
+    public RALocation getLocation() {
+        return location;
+    }
+
+    /**
+     * @return a copy of the current register valuation
+     */
+    public VarValuation getRegisters() {
+        return registers.toVarValuation();
+    }
+}
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import de.learnlib.ralib.automata.output.OutputTransition;
+import de.learnlib.ralib.data.RegisterSlots;
 import de.learnlib.ralib.data.SymbolicDataValue.Register;
 import de.learnlib.ralib.data.VarValuation;
 import de.learnlib.ralib.words.PSymbolInstance;
@@ -42,6 +43,8 @@ public abstract class RegisterAutomaton
 
     private final VarValuation initialRegisters;
 
+    private final RegisterSlots registerSlots = new RegisterSlots();
+
     public RegisterAutomaton(VarValuation initialRegisters) {
         this.initialRegisters = initialRegisters;
     }
@@ -61,6 +64,14 @@ public abstract class RegisterAutomaton
 
     public abstract RALocation getLocation(Word<PSymbolInstance> dw);
 
+    /**
+     * Creates a cursor for simulating a run step by step, starting in
+     * the initial location.
+     *
+     * @return a new cursor
+     */
+    public abstract RACursor cursor();
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -82,6 +93,13 @@ public abstract class RegisterAutomaton
         return initialRegisters;
     }
 
+    /**
+     * @return the slots of registers used for simulating runs
+     */
+    public RegisterSlots getRegisterSlots() {
+        return registerSlots;
+    }
+
     public List<Transition> getTransitions() {
         List<Transition> tList = new ArrayList<>();
         for (RALocation loc : getStates()) {
@@ -16,6 +16,8 @@
  */
 package de.learnlib.ralib.automata;
 
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.ParValuation;
 import de.learnlib.ralib.data.VarValuation;
@@ -55,6 +57,14 @@ public class Transition {
         return this.getAssignment().compute(registers, parameters, consts);
     }
 
+    public boolean isEnabled(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+        return guard.isSatisfied(registers, parameters, consts);
+    }
+
+    public ArrayVarValuation execute(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+        return this.getAssignment().compute(registers, parameters, consts);
+    }
+
     /**
      * @return the label
      */
@@ -16,12 +16,16 @@
  */
 package de.learnlib.ralib.automata;
 
+import de.learnlib.ralib.automata.guards.CompiledGuard;
 import de.learnlib.ralib.automata.guards.GuardExpression;
 import de.learnlib.ralib.automata.guards.TrueGuardExpression;
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.ParValuation;
-import de.learnlib.ralib.data.VarMapping;
+import de.learnlib.ralib.data.RegisterSlots;
 import de.learnlib.ralib.data.VarValuation;
+import net.automatalib.common.util.Pair;
 
 /**
  * Transition Guard.
@@ -32,6 +36,10 @@ public class TransitionGuard {
 
     private final GuardExpression condition;
 
+    private volatile CompiledGuard compiled;
+
+    private volatile Pair<RegisterSlots, CompiledGuard> slotted;
+
     public TransitionGuard() {
         this.condition = TrueGuardExpression.TRUE;
     }
@@ -51,12 +59,30 @@ public class TransitionGuard {
      * @return
      */
     public boolean isSatisfied(VarValuation registers, ParValuation parameters, Constants consts) {
-        VarMapping val = new VarMapping();
-        val.putAll(registers);
-        val.putAll(parameters);
-        val.putAll(consts);
+        CompiledGuard c = compiled;
+        if (c == null) {
+            c = CompiledGuard.compile(condition);
+            compiled = c;
+        }
+        return c.isSatisfied(registers, parameters, consts);
+    }
 
-        return condition.isSatisfied(val);
+    /**
+     * Checks if the guard is satisfied for array valuations of
+     * registers and parameters.
+     *
+     * @param registers
+     * @param parameters
+     * @param consts
+     * @return
+     */
+    public boolean isSatisfied(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+        Pair<RegisterSlots, CompiledGuard> c = slotted;
+        if (c == null || c.getFirst() != registers.getSlots()) {
+            c = Pair.of(registers.getSlots(), CompiledGuard.compile(condition, registers.getSlots()));
+            slotted = c;
+        }
+        return c.getSecond().isSatisfied(registers, parameters, consts);
     }
 
     @Override
@@ -54,6 +54,10 @@ public class AtomicGuardExpression<Left extends SymbolicDataValue, Right extends
 
         assert lv != null && rv != null;
 
+        return isSatisfied(lv, relation, rv);
+    }
+
+    static boolean isSatisfied(DataValue lv, Relation relation, DataValue rv) {
         switch (relation) {
             case EQUALS:
                 return lv.equals(rv);
@@ -106,7 +110,7 @@ public class AtomicGuardExpression<Left extends SymbolicDataValue, Right extends
         return relation;
     }
 
-    private boolean numCompare(DataValue l, DataValue r, Relation relation) {
+    private static boolean numCompare(DataValue l, DataValue r, Relation relation) {
         if (!l.getType().equals(r.getType())) {
             return false;
         }
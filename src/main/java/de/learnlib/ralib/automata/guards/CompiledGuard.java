@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.automata.guards;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.ParValuation;
+import de.learnlib.ralib.data.RegisterSlots;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Constant;
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.VarValuation;
+
+/**
+ * A guard expression compiled for repeated evaluation during simulation.
+ *
+ * Operands are resolved once to the valuation they are read from, nested
+ * conjunctions and disjunctions are flattened, and constant sub-expressions
+ * are folded. Evaluation does not have to merge registers, parameters, and
+ * constants into one mapping. Guards compiled for {@link RegisterSlots}
+ * can also be evaluated on array valuations, reading registers and
+ * parameters by slot.
+ */
+public abstract class CompiledGuard {
+
+    public static final CompiledGuard TRUE = new CompiledGuard() {
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            return true;
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            return true;
+        }
+    };
+
+    public static final CompiledGuard FALSE = new CompiledGuard() {
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            return false;
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            return false;
+        }
+    };
+
+    private CompiledGuard() {
+    }
+
+    /**
+     * Evaluates the guard. Has the same result as
+     * {@link GuardExpression#isSatisfied(de.learnlib.ralib.data.Mapping)}
+     * on the union of the three valuations.
+     *
+     * @param registers
+     * @param parameters
+     * @param consts
+     * @return
+     */
+    public final boolean isSatisfied(VarValuation registers, ParValuation parameters, Constants consts) {
+        return eval(registers, parameters, consts);
+    }
+
+    /**
+     * Evaluates the guard on array valuations. Registers are read from
+     * the slots the guard was compiled for.
+     *
+     * @param registers
+     * @param parameters
+     * @param consts
+     * @return
+     */
+    public final boolean isSatisfied(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+        return eval(registers, parameters, consts);
+    }
+
+    abstract boolean eval(VarValuation registers, ParValuation parameters, Constants consts);
+
+    abstract boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts);
+
+    public static CompiledGuard compile(GuardExpression expr) {
+        return compile(expr, null);
+    }
+
+    /**
+     * Compiles a guard expression, resolving registers to the given slots.
+     *
+     * @param expr
+     * @param slots the register slots or null
+     * @return
+     */
+    public static CompiledGuard compile(GuardExpression expr, RegisterSlots slots) {
+        if (expr instanceof TrueGuardExpression) {
+            return TRUE;
+        }
+        if (expr instanceof FalseGuardExpression) {
+            return FALSE;
+        }
+        if (expr instanceof Negation) {
+            CompiledGuard negated = compile(((Negation) expr).getNegated(), slots);
+            if (negated == TRUE) {
+                return FALSE;
+            }
+            if (negated == FALSE) {
+                return TRUE;
+            }
+            if (negated instanceof Not) {
+                return ((Not) negated).negated;
+            }
+            return new Not(negated);
+        }
+        if (expr instanceof Conjunction) {
+            List<CompiledGuard> conjuncts = new ArrayList<>();
+            for (GuardExpression ge : ((Conjunction) expr).getConjuncts()) {
+                CompiledGuard c = compile(ge, slots);
+                if (c == FALSE) {
+                    return FALSE;
+                }
+                if (c instanceof And) {
+                    for (CompiledGuard cc : ((And) c).conjuncts) {
+                        conjuncts.add(cc);
+                    }
+                } else if (c != TRUE) {
+                    conjuncts.add(c);
+                }
+            }
+            if (conjuncts.isEmpty()) {
+                return TRUE;
+            }
+            return conjuncts.size() == 1 ? conjuncts.get(0) :
+                    new And(conjuncts.toArray(new CompiledGuard[0]));
+        }
+        if (expr instanceof Disjunction) {
+            List<CompiledGuard> disjuncts = new ArrayList<>();
+            for (GuardExpression ge : ((Disjunction) expr).getDisjuncts()) {
+                CompiledGuard d = compile(ge, slots);
+                if (d == TRUE) {
+                    return TRUE;
+                }
+                if (d instanceof Or) {
+                    for (CompiledGuard dd : ((Or) d).disjuncts) {
+                        disjuncts.add(dd);
+                    }
+                } else if (d != FALSE) {
+                    disjuncts.add(d);
+                }
+            }
+            if (disjuncts.isEmpty()) {
+                return FALSE;
+            }
+            return disjuncts.size() == 1 ? disjuncts.get(0) :
+                    new Or(disjuncts.toArray(new CompiledGuard[0]));
+        }
+        if (expr instanceof AtomicGuardExpression) {
+            AtomicGuardExpression<?, ?> atom = (AtomicGuardExpression<?, ?>) expr;
+            Operand left = new Operand(atom.getLeft(), slots);
+            Operand right = new Operand(atom.getRight(), slots);
+            switch (atom.getRelation()) {
+                case EQUALS:
+                    return new Equals(left, right);
+                case NOT_EQUALS:
+                    return new Not(new Equals(left, right));
+                default:
+                    return new Atom(left, atom.getRelation(), right);
+            }
+        }
+        throw new IllegalArgumentException("Cannot compile guard " + expr);
+    }
+
+    private static final class Operand {
+
+        private final SymbolicDataValue sv;
+
+        private final int slot;
+
+        Operand(SymbolicDataValue sv, RegisterSlots slots) {
+            this.sv = sv;
+            this.slot = (slots != null && sv.isRegister()) ? slots.slotOf((Register) sv) : -1;
+        }
+
+        DataValue<?> get(VarValuation registers, ParValuation parameters, Constants consts) {
+            if (sv.isRegister()) {
+                return registers.get(sv);
+            }
+            if (sv.isParameter()) {
+                return parameters.get(sv);
+            }
+            if (sv.isConstant()) {
+                return consts.get(sv);
+            }
+            // not part of any of the valuations
+            return null;
+        }
+
+        DataValue<?> get(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            if (slot >= 0) {
+                return registers.get(slot);
+            }
+            if (sv.isRegister()) {
+                return registers.get((Register) sv);
+            }
+            if (sv.isParameter()) {
+                return parameters.get((Parameter) sv);
+            }
+            if (sv.isConstant()) {
+                return consts.get((Constant) sv);
+            }
+            return null;
+        }
+    }
+
+    private static final class Equals extends CompiledGuard {
+
+        private final Operand left;
+
+        private final Operand right;
+
+        Equals(Operand left, Operand right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            return equals(left.get(registers, parameters, consts), right.get(registers, parameters, consts));
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            return equals(left.get(registers, parameters, consts), right.get(registers, parameters, consts));
+        }
+
+        private static boolean equals(DataValue<?> lv, DataValue<?> rv) {
+            assert lv != null && rv != null;
+            return lv.equals(rv);
+        }
+    }
+
+    private static final class Atom extends CompiledGuard {
+
+        private final Operand left;
+
+        private final Relation relation;
+
+        private final Operand right;
+
+        Atom(Operand left, Relation relation, Operand right) {
+            this.left = left;
+            this.relation = relation;
+            this.right = right;
+        }
+
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            return compare(left.get(registers, parameters, consts), right.get(registers, parameters, consts));
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            return compare(left.get(registers, parameters, consts), right.get(registers, parameters, consts));
+        }
+
+        private boolean compare(DataValue<?> lv, DataValue<?> rv) {
+            assert lv != null && rv != null;
+            return AtomicGuardExpression.isSatisfied(lv, relation, rv);
+        }
+    }
+
+    private static final class Not extends CompiledGuard {
+
+        private final CompiledGuard negated;
+
+        Not(CompiledGuard negated) {
+            this.negated = negated;
+        }
+
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            return !negated.eval(registers, parameters, consts);
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            return !negated.eval(registers, parameters, consts);
+        }
+    }
+
+    private static final class And extends CompiledGuard {
+
+        private final CompiledGuard[] conjuncts;
+
+        And(CompiledGuard[] conjuncts) {
+            this.conjuncts = conjuncts;
+        }
+
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            for (CompiledGuard c : conjuncts) {
+                if (!c.eval(registers, parameters, consts)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            for (CompiledGuard c : conjuncts) {
+                if (!c.eval(registers, parameters, consts)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Or extends CompiledGuard {
+
+        private final CompiledGuard[] disjuncts;
+
+        Or(CompiledGuard[] disjuncts) {
+            this.disjuncts = disjuncts;
+        }
+
+        @Override
+        boolean eval(VarValuation registers, ParValuation parameters, Constants consts) {
+            for (CompiledGuard d : disjuncts) {
+                if (d.eval(registers, parameters, consts)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean eval(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+            for (CompiledGuard d : disjuncts) {
+                if (d.eval(registers, parameters, consts)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
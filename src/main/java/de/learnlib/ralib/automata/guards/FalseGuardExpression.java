@@ -38,7 +38,7 @@ public class FalseGuardExpression extends GuardExpression {
 
     @Override
     public boolean isSatisfied(Mapping<SymbolicDataValue, DataValue<?>> val) {
-        return true;
+        return false;
     }
 
     @Override
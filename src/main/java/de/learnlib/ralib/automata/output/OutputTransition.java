@@ -22,6 +22,8 @@ import de.learnlib.ralib.automata.Assignment;
 import de.learnlib.ralib.automata.RALocation;
 import de.learnlib.ralib.automata.Transition;
 import de.learnlib.ralib.automata.TransitionGuard;
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.DataValue;
 import de.learnlib.ralib.data.ParValuation;
@@ -94,6 +96,42 @@ public class OutputTransition extends Transition {
         return true;
     }
 
+    @Override
+    public boolean isEnabled(ArrayVarValuation registers, ArrayParValuation parameters, Constants consts) {
+
+        // check freshness of parameters ...
+        for (Parameter p : output.getFreshParameters()) {
+            DataValue pval = parameters.get(p);
+            if (registers.containsValue(pval) || consts.containsValue(pval)) {
+                return false;
+            }
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i != p.getId() - 1 && pval.equals(parameters.get(i))) {
+                    return false;
+                }
+            }
+        }
+
+        // check other parameters
+        for (Entry<Parameter, SymbolicDataValue> e : output.getOutput()) {
+            if (e.getValue() instanceof Register) {
+                if (!parameters.get(e.getKey()).equals(
+                        registers.get( (Register) e.getValue()))) {
+                    return false;
+                }
+            } else if (e.getValue() instanceof Constant) {
+                if (!parameters.get(e.getKey()).equals(
+                        consts.get( (Constant) e.getValue()))) {
+                    return false;
+                }
+            } else {
+                throw new IllegalStateException("Source for parameter has to be register or constant.");
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public String toString() {
         return "(" + source + ", " + label + ", " + guard + ", " + output +
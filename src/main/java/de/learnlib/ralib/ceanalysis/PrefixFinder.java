@@ -1,5 +1,6 @@
 package de.learnlib.ralib.ceanalysis;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -30,6 +31,7 @@ import de.learnlib.ralib.learning.rastar.CEAnalysisResult;
 import de.learnlib.ralib.oracles.SDTLogicOracle;
 import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeQueryResult;
+import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
@@ -127,8 +129,10 @@ public class PrefixFinder {
 
 					// remapping
 					//
-					PIVRemappingIterator iterator = new PIVRemappingIterator(
-							uAlphaResult.getPiv(), uPrimeResult.getPiv());
+					PIVRemappingIterator iterator = PIVRemappingIterator.withSignatures(
+							uAlphaResult.getPiv(), uPrimeResult.getPiv(),
+							SDT.getRegisterSignatures(Collections.singletonMap(symSuffix, uAlphaResult.getSdt())),
+							SDT.getRegisterSignatures(Collections.singletonMap(symSuffix, uPrimeResult.getSdt())));
 
 					for (VarMapping m : iterator) {
 						if (uAlphaResult.getSdt().isEquivalent(uPrimeResult.getSdt(), m)) {
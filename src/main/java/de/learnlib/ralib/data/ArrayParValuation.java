@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.data;
+
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.words.PSymbolInstance;
+
+/**
+ * A valuation of the parameters of a symbol instance. Parameter pi is
+ * stored in slot i-1, as in {@link ParValuation#ParValuation(PSymbolInstance)}.
+ */
+public final class ArrayParValuation {
+
+    private final DataValue<?>[] values;
+
+    public ArrayParValuation(PSymbolInstance psi) {
+        this.values = psi.getParameterValues();
+    }
+
+    public DataValue<?> get(int slot) {
+        return values[slot];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public DataValue<?> get(Parameter p) {
+        int slot = p.getId() - 1;
+        if (slot < 0 || slot >= values.length) {
+            return null;
+        }
+        DataValue<?> dv = values[slot];
+        return dv.getType().equals(p.getType()) ? dv : null;
+    }
+
+    public ParValuation toParValuation() {
+        ParValuation ret = new ParValuation();
+        int id = 1;
+        for (DataValue<?> dv : values) {
+            ret.put(new Parameter(dv.getType(), id++), dv);
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return toParValuation().toString();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.data;
+
+import java.util.Map;
+
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+
+/**
+ * An immutable valuation of registers, backed by an array indexed by
+ * {@link RegisterSlots}. Updates create a copy of the array (see
+ * {@code Assignment.compute}) and valuations that are not changed by
+ * a transition are shared.
+ */
+public final class ArrayVarValuation {
+
+    private final RegisterSlots slots;
+
+    private final DataValue<?>[] values;
+
+    public ArrayVarValuation(RegisterSlots slots, VarValuation registers) {
+        for (Register r : registers.keySet()) {
+            slots.slotOf(r);
+        }
+        this.slots = slots;
+        this.values = new DataValue<?>[slots.size()];
+        for (Map.Entry<Register, DataValue<?>> e : registers.entrySet()) {
+            values[slots.lookup(e.getKey())] = e.getValue();
+        }
+    }
+
+    /**
+     * Wraps an array of values without copying it.
+     *
+     * @param slots
+     * @param values
+     */
+    public ArrayVarValuation(RegisterSlots slots, DataValue<?>[] values) {
+        this.slots = slots;
+        this.values = values;
+    }
+
+    public DataValue<?> get(int slot) {
+        return slot < values.length ? values[slot] : null;
+    }
+
+    public DataValue<?> get(Register r) {
+        int slot = slots.lookup(r);
+        return slot < 0 ? null : get(slot);
+    }
+
+    public boolean containsValue(DataValue<?> dv) {
+        for (DataValue<?> v : values) {
+            if (v != null && v.equals(dv)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public RegisterSlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return a copy of the values, large enough for all current slots
+     */
+    public DataValue<?>[] copyValues() {
+        DataValue<?>[] copy = new DataValue<?>[Math.max(values.length, slots.size())];
+        System.arraycopy(values, 0, copy, 0, values.length);
+        return copy;
+    }
+
+    public VarValuation toVarValuation() {
+        VarValuation ret = new VarValuation();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                ret.put(slots.getRegister(i), values[i]);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return toVarValuation().toString();
+    }
+}
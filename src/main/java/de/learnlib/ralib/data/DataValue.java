@@ -37,14 +37,14 @@ public class DataValue<T> {
 
     @Override
     public String toString() {
-        return id.toString() + "[" + this.type.getName() + "]";
+        return getId().toString() + "[" + this.type.getName() + "]";
     }
 
     @Override
     public int hashCode() {
         int hash = 7;
         hash = 97 * hash + Objects.hashCode(this.type);
-        hash = 97 * hash + Objects.hashCode(this.id);
+        hash = 97 * hash + Objects.hashCode(this.getId());
         return hash;
     }
 
@@ -60,7 +60,7 @@ public class DataValue<T> {
         if (!Objects.equals(this.type, other.type)) {
             return false;
         }
-        if (!Objects.equals(this.id, other.id)) {
+        if (!Objects.equals(this.getId(), other.getId())) {
             return false;
         }
         return true;
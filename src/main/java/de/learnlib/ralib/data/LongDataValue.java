@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.data;
+
+/**
+ * Data value that stores its long id only as a primitive, so that
+ * comparisons and arithmetic in theories over longs do not unbox.
+ * The boxed id is created on demand by {@link #getId()}.
+ */
+public class LongDataValue extends DataValue<Long> {
+
+    private final long value;
+
+    public LongDataValue(DataType type, long value) {
+        super(type, null);
+        this.value = value;
+    }
+
+    @Override
+    public Long getId() {
+        return value;
+    }
+
+    public long longValue() {
+        return value;
+    }
+
+    public static long longValue(DataValue<Long> dv) {
+        return (dv instanceof LongDataValue) ? ((LongDataValue) dv).value : dv.getId();
+    }
+
+}
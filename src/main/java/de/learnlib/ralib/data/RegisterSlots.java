@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+
+/**
+ * Dense integer slots for the registers of an automaton. Slots are
+ * assigned on first use and never change, so code compiled against
+ * the slots stays valid when new registers are added.
+ */
+public final class RegisterSlots {
+
+    private final Map<Register, Integer> slots = new ConcurrentHashMap<>();
+
+    private volatile Register[] registers = new Register[0];
+
+    /**
+     * Returns the slot of a register, assigning the next free slot
+     * if the register does not have one yet.
+     *
+     * @param r
+     * @return
+     */
+    public int slotOf(Register r) {
+        Integer slot = slots.get(r);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (this) {
+            slot = slots.get(r);
+            if (slot == null) {
+                slot = registers.length;
+                Register[] grown = Arrays.copyOf(registers, slot + 1);
+                grown[slot] = r;
+                registers = grown;
+                slots.put(r, slot);
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * @param r
+     * @return the slot of r or -1 if r does not have a slot
+     */
+    public int lookup(Register r) {
+        Integer slot = slots.get(r);
+        return slot == null ? -1 : slot;
+    }
+
+    public Register getRegister(int slot) {
+        return registers[slot];
+    }
+
+    public int size() {
+        return registers.length;
+    }
+}
@@ -16,12 +16,20 @@
  */
 package de.learnlib.ralib.data.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import de.learnlib.ralib.data.DataType;
 import de.learnlib.ralib.data.PIV;
 import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
 import de.learnlib.ralib.data.VarMapping;
 
 /**
@@ -43,6 +51,8 @@ public class PIVRemappingIterator implements Iterable<VarMapping>, Iterator<VarM
 
     private boolean init = false;
 
+    private boolean empty = false;
+
     public PIVRemappingIterator(PIV replace, PIV by) {
         assert replace.typedSize().equals(by.typedSize());
 
@@ -66,6 +76,94 @@ public class PIVRemappingIterator implements Iterable<VarMapping>, Iterator<VarM
         }
     }
 
+    /**
+     * Iterates only re-mappings that map parameters onto parameters of the
+     * same color. Colors are invariants that any admissible re-mapping has
+     * to preserve, e.g., the type of a parameter and how its register is
+     * used in SDTs. With fine colors, the enumeration of all permutations
+     * shrinks to few (typically one) candidate re-mappings.
+     *
+     * @param replace
+     * @param by
+     * @param replaceColors colors of the parameters of replace
+     * @param byColors colors of the parameters of by
+     */
+    public PIVRemappingIterator(PIV replace, PIV by,
+            Map<Parameter, ?> replaceColors, Map<Parameter, ?> byColors) {
+        assert replace.size() == by.size();
+
+        this.replace = replace;
+        this.by = by;
+
+        Map<Object, List<Parameter>> repColored = groupByColor(replace, replaceColors);
+        Map<Object, List<Parameter>> byColored = groupByColor(by, byColors);
+
+        List<Parameter[]> repGroups = new ArrayList<>();
+        List<Parameter[]> byGroups = new ArrayList<>();
+        for (Map.Entry<Object, List<Parameter>> group : repColored.entrySet()) {
+            List<Parameter> byGroup = byColored.get(group.getKey());
+            if (byGroup == null || byGroup.size() != group.getValue().size()) {
+                empty = true;
+                break;
+            }
+            repGroups.add(group.getValue().toArray(new Parameter[0]));
+            byGroups.add(byGroup.toArray(new Parameter[0]));
+        }
+
+        iterators = new PermutationIterator[repGroups.size()];
+        replaceParams = repGroups.toArray(new Parameter[0][]);
+        byParams = byGroups.toArray(new Parameter[0][]);
+        for (int idx = 0; idx < iterators.length; idx++) {
+            iterators[idx] = new PermutationIterator(replaceParams[idx].length);
+            iterators[idx].next();
+        }
+    }
+
+    /**
+     * Iterates the re-mappings for checks that relabel the SDTs of by
+     * with a re-mapping and compare the result to the SDTs of replace. Only
+     * re-mappings that preserve types and register signatures (see
+     * {@code SDT.getRegisterSignatures()}) are returned. If the registers of
+     * both sides differ, renamed registers could clash with the other
+     * registers of by and all type-preserving re-mappings are returned.
+     *
+     * @param replace
+     * @param by
+     * @param replaceSignatures signatures of the registers in the SDTs of replace
+     * @param bySignatures signatures of the registers in the SDTs of by
+     * @return
+     */
+    public static PIVRemappingIterator withSignatures(PIV replace, PIV by,
+            Map<Register, ?> replaceSignatures, Map<Register, ?> bySignatures) {
+        Set<Register> registers = new HashSet<>(replace.values());
+        if (!registers.equals(new HashSet<>(by.values())) ||
+                !registers.containsAll(bySignatures.keySet())) {
+            return new PIVRemappingIterator(replace, by);
+        }
+        // a register y of replace is mapped to m(y): after relabeling,
+        // the register m(y) in the SDTs of by is the former register y
+        return new PIVRemappingIterator(replace, by,
+                colorsOf(replace, bySignatures), colorsOf(by, replaceSignatures));
+    }
+
+    private static Map<Parameter, Object> colorsOf(PIV piv, Map<Register, ?> signatures) {
+        Map<Parameter, Object> ret = new LinkedHashMap<>();
+        for (Map.Entry<Parameter, Register> e : piv.entrySet()) {
+            ret.put(e.getKey(), Arrays.asList(e.getKey().getType(), signatures.get(e.getValue())));
+        }
+        return ret;
+    }
+
+    private static Map<Object, List<Parameter>> groupByColor(PIV piv, Map<Parameter, ?> colors) {
+        Map<Object, List<Parameter>> ret = new LinkedHashMap<>();
+        for (Parameter[] params : piv.asTypedArrays().values()) {
+            for (Parameter p : params) {
+                ret.computeIfAbsent(colors.get(p), k -> new ArrayList<>()).add(p);
+            }
+        }
+        return ret;
+    }
+
     @Override
     public Iterator<VarMapping> iterator() {
         return this;
@@ -73,6 +171,9 @@ public class PIVRemappingIterator implements Iterable<VarMapping>, Iterator<VarM
 
     @Override
     public boolean hasNext() {
+        if (empty) {
+            return false;
+        }
         if (!init) {
             return true;
         }
@@ -87,6 +188,9 @@ public class PIVRemappingIterator implements Iterable<VarMapping>, Iterator<VarM
 
     @Override
     public VarMapping next() {
+        if (empty) {
+            throw new NoSuchElementException();
+        }
         if (!init) {
             init = true;
         } else {
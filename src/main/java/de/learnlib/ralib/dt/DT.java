@@ -12,7 +12,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.tuple.Pair;
 
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.DataType;
@@ -41,6 +40,13 @@ import net.automatalib.word.Word;
  * @author fredrik
  */
 public class DT implements DiscriminationTree {
+
+    /**
+     * System property that enables {@link #setCheckIndex(boolean)} for
+     * every new tree.
+     */
+    public static final String CHECK_INDEX_PROPERTY = "ralib.dt.checkIndex";
+
     private DTInnerNode root;
 
     private final ParameterizedSymbol[] inputs;
@@ -49,6 +55,9 @@ public class DT implements DiscriminationTree {
     private final Constants consts;
     private DTLeaf sink = null;
 
+    private final PrefixIndex index = new PrefixIndex();
+    private boolean checkIndex = Boolean.getBoolean(CHECK_INDEX_PROPERTY);
+
     public DT(TreeOracle oracle, boolean ioMode, Constants consts, ParameterizedSymbol... inputs) {
         this.oracle = oracle;
         this.ioMode = ioMode;
@@ -67,6 +76,10 @@ public class DT implements DiscriminationTree {
         this.ioMode = ioMode;
         this.inputs = inputs;
         this.consts = consts;
+
+        for (DTLeaf leaf : getLeaves()) {
+            leaf.attach(index);
+        }
     }
 
     public DT(DT dt) {
@@ -74,8 +87,23 @@ public class DT implements DiscriminationTree {
         this.oracle = dt.oracle;
         this.ioMode = dt.ioMode;
         this.consts = dt.consts;
+        this.checkIndex = dt.checkIndex;
 
         root = new DTInnerNode(dt.root);
+        for (DTLeaf leaf : getLeaves()) {
+            leaf.attach(index);
+        }
+    }
+
+    /**
+     * Enables checking every leaf lookup through the prefix index against
+     * a search of the whole tree. Meant for tests only. New trees take
+     * the default from the {@value #CHECK_INDEX_PROPERTY} system property.
+     *
+     * @param checkIndex
+     */
+    public void setCheckIndex(boolean checkIndex) {
+        this.checkIndex = checkIndex;
     }
 
     @Override
@@ -122,7 +150,7 @@ public class DT implements DiscriminationTree {
             SuffixValue s = sgen.next(param);
             LinkedHashMap<SDTGuard, SDT> map = new LinkedHashMap<SDTGuard, SDT>();
             map.put(new SDTTrueGuard(s), makeRejectingSDT(symbol, sgen, paramIndex + 1));
-            return new SDT(map);
+            return SDT.create(map);
         }
     }
 
@@ -130,19 +158,22 @@ public class DT implements DiscriminationTree {
         DTLeaf leaf = null;
         DTInnerNode inner = from;
 
+        // results for the suffixes above from are reused from mp,
+        // below from only the suffix of each visited node is added
+        PathResult r = PathResult.computePathResult(oracle, mp, from.getSuffixes(), ioMode);
+
         // traverse tree from root to leaf
         do {
             SymbolicSuffix suffix = inner.getSuffix();
-            Pair<DTNode, PathResult> siftRes = inner.sift(mp, oracle, ioMode);
+            DTNode child = inner.sift(r);
 
-            if (siftRes == null) {
+            if (child == null) {
                 // discovered new location
                 leaf = new DTLeaf(oracle);
-                //tqr = mp.computeTQR(suffix, oracle);
-                PathResult r = PathResult.computePathResult(oracle, mp, inner.getSuffixes(), ioMode);
                 assert !mp.getTQRs().keySet().contains(suffix);
                 mp.addTQR(suffix, r.getTQRforSuffix(suffix));
                 leaf.setAccessSequence(mp);
+                leaf.attach(index);
                 DTBranch branch = new DTBranch(leaf, r);
                 inner.addBranch(branch);
                 leaf.setParent(inner);
@@ -150,12 +181,13 @@ public class DT implements DiscriminationTree {
                 leaf.updateBranching(this);
                 return leaf;
             }
-            TreeQueryResult tqr = siftRes.getValue().getTQRforSuffix(suffix);
+            TreeQueryResult tqr = r.getTQRforSuffix(suffix);
             mp.addTQR(suffix, tqr);
-            if (!siftRes.getKey().isLeaf()) {
-                inner = (DTInnerNode) siftRes.getKey();
+            if (!child.isLeaf()) {
+                inner = (DTInnerNode) child;
+                r = r.extend(oracle, mp, inner.getSuffix());
             } else {
-                leaf = (DTLeaf) siftRes.getKey();
+                leaf = (DTLeaf) child;
             }
         } while (leaf == null);
 
@@ -183,6 +215,7 @@ public class DT implements DiscriminationTree {
         MappedPrefix mp = leaf.getMappedPrefix(prefix);
         //TreeQueryResult tqr = mp.computeTQR(suffix, oracle);
         DTLeaf newLeaf = new DTLeaf(mp, oracle);
+        newLeaf.attach(index);
         newLeaf.setParent(node);
         PathResult r = PathResult.computePathResult(oracle, mp, node.getSuffixes(), ioMode);
         TreeQueryResult tqr = r.getTQRforSuffix(suffix);
@@ -268,8 +301,8 @@ public class DT implements DiscriminationTree {
      * @param leaf
      */
     private void resift(DTLeaf leaf) {
-        // Potential optimization:
-        // can keep TQRs up to the parent, as they should still be the same
+        // TQRs up to the parent are kept in the mapped prefixes,
+        // so sifting from the parent only queries the new suffixes
 
         Set<MappedPrefix> prefixes = new LinkedHashSet<MappedPrefix>();
         leaf.getMappedExtendedPrefixes(prefixes);
@@ -326,36 +359,66 @@ public class DT implements DiscriminationTree {
     	return ret;
     }
 
+    /**
+     * @return stamp of the latest change to a leaf or prefix, to be
+     *         passed to the incremental consistency checks
+     */
+    public long currentChange() {
+        return MappedPrefix.currentChange();
+    }
+
     public boolean checkVariableConsistency(OptimizedSymbolicSuffixBuilder suffixBuilder) {
-        return checkConsistency(this.root, suffixBuilder);
+        return checkVariableConsistency(suffixBuilder, Long.MIN_VALUE);
+    }
+
+    /**
+     * check variable consistency of all prefixes that changed after since
+     *
+     * @param suffixBuilder
+     * @param since stamp of the last successful check
+     * @return true if no suffix had to be added
+     */
+    public boolean checkVariableConsistency(OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
+        return checkConsistency(this.root, suffixBuilder, since);
     }
 
-    private boolean checkConsistency(DTNode node, OptimizedSymbolicSuffixBuilder suffixBuilder) {
+    private boolean checkConsistency(DTNode node, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
         if (node.isLeaf()) {
             DTLeaf leaf = (DTLeaf) node;
-            return leaf.checkVariableConsistency(this, this.consts, suffixBuilder);
+            return leaf.checkVariableConsistency(this, this.consts, suffixBuilder, since);
         }
         boolean ret = true;
         DTInnerNode inner = (DTInnerNode) node;
         for (DTBranch b : Collections.unmodifiableCollection(new LinkedHashSet<DTBranch>(inner.getBranches()))) {
-            ret = ret && checkConsistency(b.getChild(), suffixBuilder);
+            ret = ret && checkConsistency(b.getChild(), suffixBuilder, since);
         }
         return ret;
     }
 
     public boolean checkRegisterConsistency(OptimizedSymbolicSuffixBuilder suffixBuilder) {
-    	return checkRegisterConsistency(root, suffixBuilder);
+    	return checkRegisterConsistency(suffixBuilder, Long.MIN_VALUE);
     }
 
-    private boolean checkRegisterConsistency(DTNode node, OptimizedSymbolicSuffixBuilder suffixBuilder) {
+    /**
+     * check register consistency of all prefixes that changed after since
+     *
+     * @param suffixBuilder
+     * @param since stamp of the last successful check
+     * @return true if no suffix had to be added
+     */
+    public boolean checkRegisterConsistency(OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
+    	return checkRegisterConsistency(root, suffixBuilder, since);
+    }
+
+    private boolean checkRegisterConsistency(DTNode node, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
         if (node.isLeaf()) {
             DTLeaf leaf = (DTLeaf) node;
-            return leaf.checkRegisterConsistency(this, this.consts, suffixBuilder);
+            return leaf.checkRegisterConsistency(this, this.consts, suffixBuilder, since);
         }
         boolean ret = true;
         DTInnerNode inner = (DTInnerNode) node;
         for (DTBranch b : Collections.unmodifiableCollection(new LinkedHashSet<DTBranch>(inner.getBranches()))) {
-            ret = ret && checkRegisterConsistency(b.getChild(), suffixBuilder);
+            ret = ret && checkRegisterConsistency(b.getChild(), suffixBuilder, since);
         }
         return ret;
     }
@@ -383,7 +446,14 @@ public class DT implements DiscriminationTree {
      * @return leaf containing as, or null
      */
     public DTLeaf getLeaf(Word<PSymbolInstance> as) {
-        return getLeaf(as, root);
+        DTLeaf leaf = index.get(as);
+        if (checkIndex) {
+            DTLeaf expected = getLeaf(as, root);
+            if (leaf != expected) {
+                throw new IllegalStateException("Prefix index maps " + as + " to " + leaf + " instead of " + expected);
+            }
+        }
+        return leaf;
     }
 
     DTLeaf getLeaf(Word<PSymbolInstance> as, DTNode node) {
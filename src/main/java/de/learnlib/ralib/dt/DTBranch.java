@@ -36,8 +36,9 @@ public class DTBranch {
             return false;
         }
 
-        PIVRemappingIterator iterator = new PIVRemappingIterator(
-                r.getParsInVars(), urap.getParsInVars());
+        PIVRemappingIterator iterator = PIVRemappingIterator.withSignatures(
+                r.getParsInVars(), urap.getParsInVars(),
+                r.getRegisterSignatures(), urap.getRegisterSignatures());
 
         for (VarMapping m : iterator) {
             if (r.isEquivalentTo(urap, m)) {
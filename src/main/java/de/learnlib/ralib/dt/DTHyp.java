@@ -25,15 +25,6 @@ public class DTHyp extends Hypothesis {
 		this.dt = dt;
 	}
 
-	@Override
-	public boolean accepts(Word<PSymbolInstance> word) {
-		Word<PSymbolInstance> as = transformAccessSequence(word);
-		DTLeaf l = dt.getLeaf(as);
-		assert l != null;
-
-		return l.isAccepting();
-	}
-
 	@Override
 	public boolean isAccessSequence(Word<PSymbolInstance> word) {
 		if (super.isAccessSequence(word))
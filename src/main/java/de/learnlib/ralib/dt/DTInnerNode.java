@@ -2,11 +2,7 @@ package de.learnlib.ralib.dt;
 
 import java.util.*;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
-
 import de.learnlib.ralib.learning.SymbolicSuffix;
-import de.learnlib.ralib.oracles.TreeOracle;
 
 public class DTInnerNode extends DTNode {
 
@@ -36,14 +32,16 @@ public class DTInnerNode extends DTNode {
 		}
 	}
 
-	protected Pair<DTNode, PathResult> sift(MappedPrefix prefix, TreeOracle oracle, boolean ioMode) {
-		PathResult r = PathResult.computePathResult(oracle, prefix, getSuffixes(), ioMode);
+	/**
+	 * @param r path result for all suffixes from the root to this node
+	 * @return the child whose branch matches r, or null
+	 */
+	DTNode sift(PathResult r) {
 		for (DTBranch b : branches) {
 			if (b.matches(r)) {
-				return new ImmutablePair<DTNode, PathResult>(b.getChild(), r);
+				return b.getChild();
 			}
 		}
-
 		return null;
 	}
 
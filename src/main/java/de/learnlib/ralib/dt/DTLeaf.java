@@ -55,6 +55,10 @@ public class DTLeaf extends DTNode implements LocationComponent {
     private final Map<ParameterizedSymbol, Branching> branching = new LinkedHashMap<ParameterizedSymbol, Branching>();
     private final TreeOracle oracle;
 
+    private PrefixIndex index = null;
+
+    private long lastChange = MappedPrefix.nextChange();
+
     public DTLeaf(TreeOracle oracle) {
         super();
         access = null;
@@ -79,22 +83,70 @@ public class DTLeaf extends DTNode implements LocationComponent {
         oracle = l.oracle;
     }
 
+    /**
+     * Registers this leaf and all its prefixes with a prefix index.
+     * The index is updated by all subsequent changes to the prefixes.
+     *
+     * @param index
+     */
+    void attach(PrefixIndex index) {
+        this.index = index;
+        for (Word<PSymbolInstance> p : getAllPrefixes()) {
+            index.put(p, this);
+        }
+    }
+
+    private void indexPrefix(Word<PSymbolInstance> p) {
+        touch();
+        if (index != null) {
+            index.put(p, this);
+        }
+    }
+
+    private boolean unindexPrefix(Word<PSymbolInstance> p, boolean removed) {
+        if (removed) {
+            touch();
+        }
+        if (removed && index != null) {
+            index.remove(p, this);
+        }
+        return removed;
+    }
+
+    private void touch() {
+        lastChange = MappedPrefix.nextChange();
+    }
+
+    /**
+     * @param stamp a value of {@link DT#currentChange()}
+     * @return true if the prefixes or the branching of this leaf changed after stamp
+     */
+    public boolean changedSince(long stamp) {
+        return lastChange > stamp;
+    }
+
     public void addPrefix(Word<PSymbolInstance> p) {
         otherPrefixes.add(new MappedPrefix(p));
+        indexPrefix(p);
     }
 
     public void addPrefix(MappedPrefix p) {
         assert p.getParsInVars().size() == access.getParsInVars().size();
         otherPrefixes.add(p);
+        indexPrefix(p.getPrefix());
     }
 
     void setAccessSequence(MappedPrefix mp) {
+        if (access != null) {
+            unindexPrefix(access.getPrefix(), true);
+        }
         access = mp;
+        indexPrefix(mp.getPrefix());
     }
 
     public void addShortPrefix(Word<PSymbolInstance> prefix, PIV registers) {
         if (access == null)
-            access = new MappedPrefix(prefix, registers);
+            setAccessSequence(new MappedPrefix(prefix, registers));
         else
             addShortPrefix(new ShortPrefix(prefix, registers));
     }
@@ -104,20 +156,19 @@ public class DTLeaf extends DTNode implements LocationComponent {
             otherPrefixes.remove(prefix.getPrefix());
         assert access != null;
         shortPrefixes.add(prefix);
+        indexPrefix(prefix.getPrefix());
     }
 
     public boolean removeShortPrefix(MappedPrefix p) {
-        return shortPrefixes.removeIf((e) -> {
-            return e.getPrefix().equals(p.getPrefix());
-        });
+        return removeShortPrefix(p.getPrefix());
     }
 
     public boolean removeShortPrefix(Word<PSymbolInstance> p) {
-        return shortPrefixes.remove(p);
+        return unindexPrefix(p, shortPrefixes.remove(p));
     }
 
     public boolean removePrefix(Word<PSymbolInstance> p) {
-        return shortPrefixes.removeIf((e) -> e.getPrefix().equals(p)) || otherPrefixes.removeIf((e) -> e.getPrefix().equals(p));
+        return unindexPrefix(p, shortPrefixes.removeIf((e) -> e.getPrefix().equals(p)) || otherPrefixes.removeIf((e) -> e.getPrefix().equals(p)));
     }
 
     /**
@@ -125,8 +176,17 @@ public class DTLeaf extends DTNode implements LocationComponent {
      * The only prefix remaining will be the leaf's access sequence.
      */
     public void clear() {
+        if (index != null) {
+            for (Word<PSymbolInstance> p : shortPrefixes.getWords()) {
+                index.remove(p, this);
+            }
+            for (Word<PSymbolInstance> p : otherPrefixes.getWords()) {
+                index.remove(p, this);
+            }
+        }
         shortPrefixes = new PrefixSet();
         otherPrefixes = new PrefixSet();
+        touch();
     }
 
     public PrefixSet getShortPrefixes() {
@@ -363,6 +423,7 @@ public class DTLeaf extends DTNode implements LocationComponent {
             SymbolicDecisionTree[] sdts = this.getSDTsForInitialSymbol(ps);
             Branching b = oracle.getInitialBranching(getAccessSequence(), ps, access.getParsInVars(), sdts);
             branching.put(ps, b);
+            touch();
             for (Word<PSymbolInstance> prefix : b.getBranches().keySet()) {
                 if (ioMode && (dt.getSink() != null) && (input ^ isInput(ps)))
                     dt.getSink().addPrefix(prefix);
@@ -374,6 +435,7 @@ public class DTLeaf extends DTNode implements LocationComponent {
 
     void start(DT dt, Map<ParameterizedSymbol, Branching> branching) {
         this.branching.putAll(branching);
+        touch();
     }
 
     boolean updateBranching(DT dt) {
@@ -403,6 +465,7 @@ public class DTLeaf extends DTNode implements LocationComponent {
         }
 
         branching.put(ps, newB);
+        touch();
         return ret;
     }
 
@@ -447,25 +510,48 @@ public class DTLeaf extends DTNode implements LocationComponent {
     }
 
     public boolean checkVariableConsistency(DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder) {
-        if (!checkVariableConsistency(access, dt, consts, suffixBuilder)) {
+        return checkVariableConsistency(dt, consts, suffixBuilder, Long.MIN_VALUE);
+    }
+
+    /**
+     * Checks variable consistency only for prefixes that changed, or whose
+     * one symbol shorter prefix changed, after since.
+     */
+    public boolean checkVariableConsistency(DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
+        if (!checkVariableConsistency(access, dt, consts, suffixBuilder, since)) {
             return false;
         }
 
         Iterator<MappedPrefix> it = otherPrefixes.iterator();
         while (it.hasNext()) {
-            if (!checkVariableConsistency(it.next(), dt, consts, suffixBuilder))
+            if (!checkVariableConsistency(it.next(), dt, consts, suffixBuilder, since))
                 return false;
         }
         it = shortPrefixes.iterator();
         while (it.hasNext()) {
-            if (!checkVariableConsistency(it.next(), dt, consts, suffixBuilder))
+            if (!checkVariableConsistency(it.next(), dt, consts, suffixBuilder, since))
                 return false;
         }
         return true;
     }
 
-    private boolean checkVariableConsistency(MappedPrefix mp, DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder) {
+    /**
+     * @param mp a prefix in this leaf
+     * @param dt
+     * @param since stamp of the last successful check
+     * @return true if mp or its one symbol shorter prefix changed after since,
+     *         i.e., if variable consistency of mp has to be checked again
+     */
+    boolean needsVariableCheck(MappedPrefix mp, DT dt, long since) {
         if (mp.getPrefix().length() < 2)
+            return false;
+
+        Word<PSymbolInstance> prefix = mp.getPrefix().prefix(mp.getPrefix().length() - 1);
+        return mp.changedSince(since) || dt.getLeaf(prefix).getMappedPrefix(prefix).changedSince(since);
+    }
+
+    private boolean checkVariableConsistency(MappedPrefix mp, DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
+        if (!needsVariableCheck(mp, dt, since))
             return true;
 
         Word<PSymbolInstance> prefix = mp.getPrefix().prefix(mp.getPrefix().length() - 1);
@@ -496,40 +582,60 @@ public class DTLeaf extends DTNode implements LocationComponent {
 
             		if (tqr.getPiv().keySet().contains(p)) {
             			dt.addSuffix(newSuffix, prefixLeaf);
-            			mp.missingParameter.remove(p);
+            			if (mp.missingParameter.remove(p))
+            				mp.touch();
             			return false;
             		}
             	}
             	if (!prefixMapped.missingParameter.contains(p)) {
-            		mp.missingParameter.add(p);
+            		if (mp.missingParameter.add(p))
+            			mp.touch();
             	}
             } else {
-            	mp.missingParameter.remove(p);
+            	if (mp.missingParameter.remove(p))
+            		mp.touch();
             }
         }
 
         return true;
     }
     public boolean checkRegisterConsistency(DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder) {
+    	return checkRegisterConsistency(dt, consts, suffixBuilder, Long.MIN_VALUE);
+    }
+
+    /**
+     * Checks register consistency only for prefixes that changed, or whose
+     * one symbol shorter prefix or access sequence changed, after since.
+     */
+    public boolean checkRegisterConsistency(DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
     	if (access.getParsInVars().isEmpty())
     		return true;
 
-    	if (!checkRegisterConsistency(access, dt, consts, suffixBuilder))
+    	if (!checkRegisterConsistency(access, dt, consts, suffixBuilder, since))
     		return false;
 
     	Iterator<MappedPrefix> it = otherPrefixes.iterator();
     	while (it.hasNext()) {
-    		if (!checkRegisterConsistency(it.next(), dt, consts, suffixBuilder))
+    		if (!checkRegisterConsistency(it.next(), dt, consts, suffixBuilder, since))
     			return false;
     	}
     	it = shortPrefixes.iterator();
     	while (it.hasNext()) {
-    		if (!checkRegisterConsistency(it.next(), dt, consts, suffixBuilder))
+    		if (!checkRegisterConsistency(it.next(), dt, consts, suffixBuilder, since))
     			return false;
     	}
     	return true;
     }
 
+    private boolean checkRegisterConsistency(MappedPrefix mp, DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder, long since) {
+    	if (!mp.changedSince(since) && !access.changedSince(since) && mp.getPrefix().length() >= 2) {
+    		Word<PSymbolInstance> prefix = mp.getPrefix().prefix(mp.getPrefix().length() - 1);
+    		if (!dt.getLeaf(prefix).getMappedPrefix(prefix).changedSince(since))
+    			return true;
+    	}
+    	return checkRegisterConsistency(mp, dt, consts, suffixBuilder);
+    }
+
     public boolean checkRegisterConsistency(MappedPrefix mp, DT dt, Constants consts, OptimizedSymbolicSuffixBuilder suffixBuilder) {
     	if (mp.getPrefix().length() < 2)
     		return true;
@@ -5,17 +5,21 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import de.learnlib.ralib.data.PIV;
+import de.learnlib.ralib.data.SymbolicDataValue;
 import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
 import de.learnlib.ralib.data.SymbolicDataValue.Register;
 import de.learnlib.ralib.data.VarMapping;
-import de.learnlib.ralib.data.util.PermutationIterator;
+import de.learnlib.ralib.data.util.PIVRemappingIterator;
 import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.RegisterGenerator;
 import de.learnlib.ralib.learning.PrefixContainer;
+import de.learnlib.ralib.learning.SymbolicDecisionTree;
 import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeQueryResult;
+import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.words.PSymbolInstance;
 import net.automatalib.word.Word;
 
@@ -26,6 +30,11 @@ public class MappedPrefix implements PrefixContainer {
 	private final Map<SymbolicSuffix, TreeQueryResult> tqrs = new LinkedHashMap<SymbolicSuffix, TreeQueryResult>();
 	public final Set<Parameter> missingParameter = new LinkedHashSet<>();
 
+	// global clock for change tracking, see changedSince
+	private static final AtomicLong CHANGES = new AtomicLong();
+
+	private long lastChange = nextChange();
+
 	public MappedPrefix(Word<PSymbolInstance> prefix) {
 		this.prefix = prefix;
 	}
@@ -45,20 +54,29 @@ public class MappedPrefix implements PrefixContainer {
 
 		assert memorable.keySet().containsAll(params);
 
-		Parameter[] params_arr = new Parameter[params.size()];
-		params_arr = params.toArray(params_arr);
-		PermutationIterator permutations = new PermutationIterator(params_arr.length);
-		Set<VarMapping<Parameter, Parameter>> renamings = new LinkedHashSet<>();
+		// only renamings that preserve the register signatures can be equivalent
+		Map<SymbolicSuffix, SymbolicDecisionTree> sdts = new LinkedHashMap<>();
+		for (Entry<SymbolicSuffix, TreeQueryResult> e : tqrs.entrySet()) {
+			sdts.put(e.getKey(), e.getValue().getSdt());
+		}
+		Map<Register, Set<String>> signatures = SDT.getRegisterSignatures(sdts);
+		PIV piv = new PIV();
+		Map<Parameter, Object> colors = new LinkedHashMap<>();
+		for (Parameter p : params) {
+			piv.put(p, memorable.get(p));
+			colors.put(p, signatures.get(memorable.get(p)));
+		}
 
-		LOC: while (permutations.hasNext()) {
-			int[] perm = permutations.next();
+		Set<VarMapping<Parameter, Parameter>> renamings = new LinkedHashSet<>();
+		LOC: for (VarMapping<SymbolicDataValue, SymbolicDataValue> m : new PIVRemappingIterator(piv, piv, colors, colors)) {
 			VarMapping<Parameter, Parameter> paramRenaming = new VarMapping<>();
 			VarMapping<Register, Register> registerRenaming = new VarMapping<>();
-			for (int i = 0; i < params_arr.length; i++) {
-				Parameter po = params_arr[i];
-				Parameter pr = params_arr[perm[i]];
-				paramRenaming.put(params_arr[i], params_arr[perm[i]]);
-				registerRenaming.put(memorable.get(po), memorable.get(pr));
+			for (Entry<SymbolicDataValue, SymbolicDataValue> e : m.entrySet()) {
+				if (e.getKey().isParameter()) {
+					paramRenaming.put((Parameter) e.getKey(), (Parameter) e.getValue());
+				} else {
+					registerRenaming.put((Register) e.getKey(), (Register) e.getValue());
+				}
 			}
 			for (TreeQueryResult tqr : tqrs.values()) {
 				if (!tqr.getSdt().isEquivalent(tqr.getSdt(), registerRenaming))
@@ -74,10 +92,35 @@ public class MappedPrefix implements PrefixContainer {
 			if (r == null) {
 				r = regGen.next(e.getKey().getType());
 				memorable.put(e.getKey(), r);
+				touch();
 			}
 		}
 	}
 
+	static long nextChange() {
+		return CHANGES.incrementAndGet();
+	}
+
+	static long currentChange() {
+		return CHANGES.get();
+	}
+
+	/*
+	 * Marks this prefix as changed, e.g., when its TQRs, memorable parameters
+	 * or missing parameters change.
+	 */
+	void touch() {
+		lastChange = nextChange();
+	}
+
+	/**
+	 * @param stamp a value of {@link DT#currentChange()}
+	 * @return true if this prefix was created or changed after stamp
+	 */
+	public boolean changedSince(long stamp) {
+		return lastChange > stamp;
+	}
+
 	/*
 	 * Performs a tree query for the (new) suffix and stores it in its internal map.
 	 * Returns the result.
@@ -91,6 +134,7 @@ public class MappedPrefix implements PrefixContainer {
 	void addTQR(SymbolicSuffix s, TreeQueryResult tqr) {
 	    if (tqrs.containsKey(s) || tqr == null) return;
 		tqrs.put(s, tqr);
+		touch();
 		updateMemorable(tqr.getPiv());
 	}
 
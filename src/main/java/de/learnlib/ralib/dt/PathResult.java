@@ -7,10 +7,12 @@ import de.learnlib.ralib.data.PIV;
 import de.learnlib.ralib.data.SymbolicDataValue;
 import de.learnlib.ralib.data.VarMapping;
 import de.learnlib.ralib.data.util.SymbolicDataValueGenerator;
+import de.learnlib.ralib.learning.SymbolicDecisionTree;
 import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.learning.rastar.RaStar;
 import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeQueryResult;
+import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.words.InputSymbol;
 import de.learnlib.ralib.words.OutputSymbol;
 
@@ -127,6 +129,19 @@ public class PathResult {
         return c1.getPiv().typedSize().equals(c2.getPiv().typedSize());
     }
 
+    /**
+     * @return register signatures of the SDTs of all suffixes
+     */
+    Map<SymbolicDataValue.Register, Set<String>> getRegisterSignatures() {
+        Map<SymbolicSuffix, SymbolicDecisionTree> sdts = new LinkedHashMap<>();
+        for (Map.Entry<SymbolicSuffix, TreeQueryResult> e : this.results.entrySet()) {
+            if (e.getValue() != null) {
+                sdts.put(e.getKey(), e.getValue().getSdt());
+            }
+        }
+        return SDT.getRegisterSignatures(sdts);
+    }
+
     /**
      * computes a new row object from a prefix and a set of symbolic suffixes.
      *
@@ -138,33 +153,80 @@ public class PathResult {
     public static PathResult computePathResult(TreeOracle oracle,
                                  MappedPrefix prefix, List<SymbolicSuffix> suffixes, boolean ioMode) {
 
-        PathResult r = new PathResult(ioMode);
+        // the empty suffix decides if this is an error row,
+        // so it is answered before all other suffixes
+        Map<SymbolicSuffix, TreeQueryResult> tqrs = new LinkedHashMap<>();
         for (SymbolicSuffix s : suffixes) {
-            //todo: potential for optimization
-            if (ioMode && s.getActions().length() > 0) {
-                // error row
-                if (prefix.getPrefix().length() > 0 && !r.isAccepting()) {
-                    //log.log(Level.INFO, "Not adding suffix " + s + " to error row " + r.getPrefix());
-                    continue;
-                }
-                // unmatching suffix
-                if ((prefix.getPrefix().length() < 1 && (s.getActions().firstSymbol() instanceof OutputSymbol))
-                        || (prefix.getPrefix().length() > 0 && !(prefix.getPrefix().lastSymbol().getBaseSymbol() instanceof InputSymbol
-                        ^ s.getActions().firstSymbol() instanceof InputSymbol))) {
-                    //log.log(Level.INFO, "Not adding suffix " + s + " to unmatching row " + r.getPrefix());
-                    continue;
-                }
+            if (s.getActions().length() == 0) {
+                TreeQueryResult tqr = prefix.getTQRs().get(s);
+                tqrs.put(s, tqr != null ? tqr : oracle.treeQuery(prefix.getPrefix(), s));
+            }
+        }
+
+        List<SymbolicSuffix> missing = new ArrayList<>();
+        for (SymbolicSuffix s : suffixes) {
+            if (s.getActions().length() == 0) {
+                continue;
+            }
+            if (ioMode && isSkipped(prefix, s, tqrs.get(RaStar.EMPTY_SUFFIX))) {
+                continue;
             }
             TreeQueryResult tqr = prefix.getTQRs().get(s);
             if (tqr == null) {
-                tqr = oracle.treeQuery(prefix.getPrefix(), s);
+                missing.add(s);
+            }
+            tqrs.put(s, tqr);
+        }
+
+        // independent queries, may be answered concurrently by the oracle
+        if (!missing.isEmpty()) {
+            tqrs.putAll(oracle.treeQueries(prefix.getPrefix(), missing));
+        }
+
+        PathResult r = new PathResult(ioMode);
+        for (SymbolicSuffix s : suffixes) {
+            TreeQueryResult tqr = tqrs.get(s);
+            if (tqr != null) {
+                //System.out.println("TQ: " + prefix + " : " + s + " : " + tqr);
+                r.addResult(s, tqr);
             }
-            //System.out.println("TQ: " + prefix + " : " + s + " : " + tqr);
-            r.addResult(s, tqr);
         }
         return r;
     }
 
+    /**
+     * extends this path result in place by the result for a suffix of an
+     * inner node directly below the current path. Only the new suffix
+     * may have to be queried, results for the suffixes above are kept.
+     *
+     * @param oracle
+     * @param prefix the prefix this path result was computed for
+     * @param suffix
+     * @return this path result
+     */
+    PathResult extend(TreeOracle oracle, MappedPrefix prefix, SymbolicSuffix suffix) {
+        assert !results.containsKey(suffix);
+        if (suffix.getActions().length() > 0 && ioMode
+                && isSkipped(prefix, suffix, results.get(RaStar.EMPTY_SUFFIX))) {
+            return this;
+        }
+        TreeQueryResult tqr = prefix.getTQRs().get(suffix);
+        addResult(suffix, tqr != null ? tqr : oracle.treeQuery(prefix.getPrefix(), suffix));
+        return this;
+    }
+
+    private static boolean isSkipped(MappedPrefix prefix, SymbolicSuffix s, TreeQueryResult emptyTqr) {
+        // error row
+        if (prefix.getPrefix().length() > 0 && !emptyTqr.getSdt().isAccepting()) {
+            //log.log(Level.INFO, "Not adding suffix " + s + " to error row " + r.getPrefix());
+            return true;
+        }
+        // unmatching suffix
+        return (prefix.getPrefix().length() < 1 && (s.getActions().firstSymbol() instanceof OutputSymbol))
+                || (prefix.getPrefix().length() > 0 && !(prefix.getPrefix().lastSymbol().getBaseSymbol() instanceof InputSymbol
+                ^ s.getActions().firstSymbol() instanceof InputSymbol));
+    }
+
     public boolean isAccepting() {
         TreeQueryResult c = this.results.get(RaStar.EMPTY_SUFFIX);
         return c.getSdt().isAccepting();
@@ -0,0 +1,34 @@
+package de.learnlib.ralib.dt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+/**
+ * Index from access sequences, short prefixes and other prefixes to the
+ * leaf containing them. Leaves attached to an index keep it up to date
+ * whenever prefixes are added or removed.
+ */
+final class PrefixIndex {
+
+    private final Map<Word<PSymbolInstance>, DTLeaf> leaves = new HashMap<>();
+
+    DTLeaf get(Word<PSymbolInstance> prefix) {
+        return leaves.get(prefix);
+    }
+
+    void put(Word<PSymbolInstance> prefix, DTLeaf leaf) {
+        leaves.put(prefix, leaf);
+    }
+
+    void remove(Word<PSymbolInstance> prefix, DTLeaf leaf) {
+        // the prefix may already have moved to another leaf
+        leaves.remove(prefix, leaf);
+    }
+
+    int size() {
+        return leaves.size();
+    }
+}
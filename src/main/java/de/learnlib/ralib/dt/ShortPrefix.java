@@ -35,5 +35,6 @@ public class ShortPrefix extends MappedPrefix {
 
 	void putBranching(ParameterizedSymbol ps, Branching b) {
 		branching.put(ps, b);
+		touch();
 	}
 }
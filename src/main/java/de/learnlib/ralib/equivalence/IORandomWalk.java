@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import de.learnlib.logging.Category;
 import de.learnlib.query.DefaultQuery;
+import de.learnlib.ralib.automata.RACursor;
 import de.learnlib.ralib.automata.RegisterAutomaton;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.DataType;
@@ -148,6 +149,10 @@ public class IORandomWalk implements IOEquivalenceOracle {
             int trans = rand.nextInt(seeds.size());
             run.concat(seeds.get(trans));
         }
+        RACursor cursor = hyp.cursor();
+        for (PSymbolInstance psi : run) {
+            cursor.step(psi);
+        }
         PSymbolInstance out;
         do {
             PSymbolInstance next = nextInput(run);
@@ -155,8 +160,10 @@ public class IORandomWalk implements IOEquivalenceOracle {
             out = target.step(next);
 
             run = run.append(next).append(out);
+            cursor.step(next);
+            cursor.step(out);
 
-            if (!hyp.accepts(run)) {
+            if (!cursor.isAccepting()) {
                 LOGGER.debug(Category.COUNTEREXAMPLE, "Run with CE: {0}", run);
                 target.post();
                 return run;
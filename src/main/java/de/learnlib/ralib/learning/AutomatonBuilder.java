@@ -80,7 +80,11 @@ public class AutomatonBuilder {
         return this.automaton;
     }
 
-    private void computeLocations() {
+    Hypothesis getAutomaton() {
+        return this.automaton;
+    }
+
+    void computeLocations() {
     	LocationComponent c = components.get(RaStar.EMPTY_PREFIX);
         LOGGER.debug(Category.EVENT, "{0}", c);
         RALocation loc = this.automaton.addInitialState(c.isAccepting());
@@ -89,14 +93,18 @@ public class AutomatonBuilder {
 
         for (Entry<Word<PSymbolInstance>, LocationComponent> e : this.components.entrySet()) {
             if (!e.getKey().equals(RaStar.EMPTY_PREFIX)) {
-                LOGGER.debug(Category.EVENT, "{0}", e.getValue());
-                loc = this.automaton.addState(e.getValue().isAccepting());
-                this.locations.put(e.getKey(), loc);
-                this.automaton.setAccessSequence(loc, e.getKey());
+                computeLocation(e.getKey(), e.getValue());
             }
         }
     }
 
+    void computeLocation(Word<PSymbolInstance> as, LocationComponent c) {
+        LOGGER.debug(Category.EVENT, "{0}", c);
+        RALocation loc = this.automaton.addState(c.isAccepting());
+        this.locations.put(as, loc);
+        this.automaton.setAccessSequence(loc, as);
+    }
+
     private void computeTransitions() {
         for (LocationComponent c : components.values()) {
             computeTransition(c, c.getPrimePrefix());
@@ -107,9 +115,9 @@ public class AutomatonBuilder {
     }
 
 
-    private void computeTransition(LocationComponent dest_c, PrefixContainer r) {
+    Transition computeTransition(LocationComponent dest_c, PrefixContainer r) {
         if (r.getPrefix().length() < 1) {
-            return;
+            return null;
         }
 
         LOGGER.debug(Category.EVENT, "computing transition: {1} to {0}", new Object[]{dest_c, r});
@@ -140,7 +148,7 @@ public class AutomatonBuilder {
         // TODO: better solution
         // guard is null because r is transition from a short prefix
         if (automaton instanceof DTHyp && guard == null)
-        	return;
+        	return null;
 
         if (guard == null) {
         	assert true;
@@ -181,6 +189,12 @@ public class AutomatonBuilder {
             this.automaton.addTransition(src_loc, new PSymbolInstance(action), t);
             this.automaton.setTransitionSequence(t, r.getPrefix());
         }
+        return t;
+    }
+
+    void removeTransition(Transition t) {
+        this.automaton.removeTransition(t.getSource(), new PSymbolInstance(t.getLabel()), t);
+        this.automaton.getTransitionSequences().remove(t);
     }
 
     protected Transition createTransition(ParameterizedSymbol action, TransitionGuard guard,
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.learning;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.ralib.automata.RegisterAutomaton;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.words.DataWordCodec;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+/**
+ * Saves the state of a learner to a file after every round, so that a long
+ * running experiment can be resumed after a crash or a timeout.
+ *
+ * The checkpoint stores the counterexamples the learner processed and the
+ * query statistics. It does not store the tree query results or the
+ * hypothesis. If the file exists when learning starts, a fresh learner is
+ * brought back into the saved state by processing the stored
+ * counterexamples again. The learners do not use randomness, so for the
+ * same queries and answers they reach the same state. This replay is not
+ * free: it repeats every tree query, every consistency check and every
+ * hypothesis construction of the saved rounds, so resuming costs about as
+ * much computation as the saved run without its SUL queries. Those queries
+ * have to be answered by a
+ * {@link de.learnlib.ralib.oracles.io.PersistentIOCache} of the saved run,
+ * so a checkpoint should only be used together with such a cache. The
+ * statistics of the restored learner are those of the saved run.
+ *
+ * The file starts with a format version and a header with the learner, the
+ * alphabet, the theories, the constants, and the settings of the run (e.g.,
+ * optimizations and the random seed). A file with a different header is
+ * discarded. If the end of the file cannot be decoded, the counterexamples
+ * before it are restored.
+ */
+public class CheckpointingLearner implements RaLearningAlgorithm {
+
+    private static final int MAGIC = 0x52414c4b;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointingLearner.class);
+
+    private final RaLearningAlgorithm learner;
+
+    private final File file;
+
+    private final String header;
+
+    private final DataWordCodec codec;
+
+    private final List<DefaultQuery<PSymbolInstance, Boolean>> counterexamples = new ArrayList<>();
+
+    private static final class Checkpoint {
+
+        private final List<DefaultQuery<PSymbolInstance, Boolean>> counterexamples = new ArrayList<>();
+
+        // null if no statistics were saved or if they could not be decoded
+        private Measurements[] phases = null;
+
+        private List<Word<PSymbolInstance>> ces = null;
+    }
+
+    /**
+     * @param learner
+     * @param file
+     * @param alphabet
+     * @param teachers
+     * @param consts
+     * @param settings the settings of the run that influence the learner,
+     *        a checkpoint is only resumed with the same settings
+     */
+    public CheckpointingLearner(RaLearningAlgorithm learner, File file,
+            Collection<ParameterizedSymbol> alphabet, Map<DataType, Theory> teachers,
+            Constants consts, String settings) {
+        this.learner = learner;
+        this.file = file;
+        this.codec = new DataWordCodec(alphabet);
+        this.header = header(learner.getName(), alphabet, teachers, consts, settings);
+    }
+
+    private static String header(RaLearningAlgorithmName name, Collection<ParameterizedSymbol> alphabet,
+            Map<DataType, Theory> teachers, Constants consts, String settings) {
+        StringBuilder sb = new StringBuilder(name.toString()).append(';');
+        sb.append(settings).append(';');
+        sb.append(DataWordCodec.describe(alphabet));
+        for (Entry<DataType, Theory> e : teachers.entrySet()) {
+            sb.append(e.getKey().getName()).append('=')
+                    .append(e.getValue().getClass().getName()).append(';');
+        }
+        for (Entry<SymbolicDataValue.Constant, DataValue<?>> e : consts.entrySet()) {
+            sb.append(e.getKey()).append('=').append(e.getValue()).append(';');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void startLearning() {
+        Checkpoint saved;
+        try {
+            saved = file.exists() ? load() : null;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        learner.startLearning();
+        if (saved != null) {
+            for (DefaultQuery<PSymbolInstance, Boolean> ce : saved.counterexamples) {
+                learner.refineHypothesis(ce);
+                counterexamples.add(ce);
+            }
+            restoreStatistics(saved);
+            LOGGER.info(Category.EVENT, "Resumed from {} after {} counterexamples", file, counterexamples.size());
+        }
+        save();
+    }
+
+    @Override
+    public boolean refineHypothesis(DefaultQuery<PSymbolInstance, Boolean> ce) {
+        boolean refined = learner.refineHypothesis(ce);
+        counterexamples.add(ce);
+        save();
+        return refined;
+    }
+
+    @Override
+    public RegisterAutomaton getHypothesisModel() {
+        return learner.getHypothesisModel();
+    }
+
+    @Override
+    public void setStatisticCounter(QueryStatistics queryStats) {
+        learner.setStatisticCounter(queryStats);
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics() {
+        return learner.getQueryStatistics();
+    }
+
+    @Override
+    public RaLearningAlgorithmName getName() {
+        return learner.getName();
+    }
+
+    public RaLearningAlgorithm getLearner() {
+        return learner;
+    }
+
+    public List<DefaultQuery<PSymbolInstance, Boolean>> getCounterexamples() {
+        return counterexamples;
+    }
+
+    // the queries of the replay are not counted
+    private void restoreStatistics(Checkpoint saved) {
+        QueryStatistics queryStats = learner.getQueryStatistics();
+        if (queryStats == null || saved.phases == null) {
+            return;
+        }
+        queryStats.updateMeasurements();
+        for (int i = 0; i < saved.phases.length; i++) {
+            Measurements m = queryStats.getMeasurements(i);
+            m.treeQueries = saved.phases[i].treeQueries;
+            m.resets = saved.phases[i].resets;
+            m.inputs = saved.phases[i].inputs;
+        }
+        queryStats.treeQueryWords.clear();
+        queryStats.ces.clear();
+        queryStats.ces.addAll(saved.ces);
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file that replaces the old one,
+     * so that a crash while saving does not destroy the last checkpoint.
+     */
+    private void save() {
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(tmp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(header);
+                out.writeInt(counterexamples.size());
+                for (DefaultQuery<PSymbolInstance, Boolean> ce : counterexamples) {
+                    codec.write(out, ce.getInput());
+                    out.writeBoolean(ce.getOutput());
+                }
+                QueryStatistics queryStats = learner.getQueryStatistics();
+                out.writeBoolean(queryStats != null);
+                if (queryStats != null) {
+                    queryStats.updateMeasurements();
+                    for (int i = 0; i < QueryStatistics.PHASES.length; i++) {
+                        Measurements m = queryStats.getMeasurements(i);
+                        out.writeInt(m.treeQueries);
+                        out.writeLong(m.resets);
+                        out.writeLong(m.inputs);
+                    }
+                    out.writeInt(queryStats.getCEs().size());
+                    for (Word<PSymbolInstance> ce : queryStats.getCEs()) {
+                        codec.write(out, ce);
+                    }
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * @return the saved state or null if the checkpoint is stale or unreadable
+     * @throws IOException
+     */
+    private Checkpoint load() throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                        || !in.readUTF().equals(header)) {
+                    LOGGER.info(Category.EVENT, "Discarding stale checkpoint {}", file);
+                    return null;
+                }
+            } catch (IOException ex) {
+                LOGGER.info(Category.EVENT, "Discarding unreadable checkpoint {}", file);
+                return null;
+            }
+            Checkpoint saved = new Checkpoint();
+            try {
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    Word<PSymbolInstance> input = codec.read(in);
+                    saved.counterexamples.add(new DefaultQuery<>(input, in.readBoolean()));
+                }
+                if (in.readBoolean()) {
+                    Measurements[] phases = new Measurements[QueryStatistics.PHASES.length];
+                    for (int i = 0; i < phases.length; i++) {
+                        Measurements m = new Measurements();
+                        m.treeQueries = in.readInt();
+                        m.resets = in.readLong();
+                        m.inputs = in.readLong();
+                        phases[i] = m;
+                    }
+                    List<Word<PSymbolInstance>> ces = new ArrayList<>();
+                    n = in.readInt();
+                    for (int i = 0; i < n; i++) {
+                        ces.add(codec.read(in));
+                    }
+                    saved.phases = phases;
+                    saved.ces = ces;
+                }
+            } catch (IOException ex) {
+                // e.g., a file that was cut off or overwritten at the end
+                LOGGER.warn(Category.EVENT, "Truncating checkpoint {} after {} counterexamples: {}",
+                        file, saved.counterexamples.size(), ex.getMessage());
+            }
+            return saved;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.learning;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
+import de.learnlib.ralib.automata.Transition;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.PIV;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.dt.DT;
+import de.learnlib.ralib.dt.DTHyp;
+import de.learnlib.ralib.oracles.Branching;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+/**
+ * Keeps the hypothesis of a discrimination tree up to date.
+ *
+ * Instead of building a new automaton in every round, the automaton of the
+ * last build is patched: locations of components that are still in the tree
+ * are kept and new components get new locations. For every prefix, the inputs
+ * of its transition (branching of the source and the memorable parameters
+ * involved) are recorded, and the transition is only computed again if the
+ * prefix moved to another component or one of the inputs changed. Unchanged
+ * transitions keep their guards, so compiled guards are reused. If a location
+ * disappeared, the automaton is built from scratch.
+ *
+ * Note that the returned automaton is changed by later builds.
+ */
+public class IncrementalAutomatonBuilder {
+
+    private final DT dt;
+
+    private final Constants consts;
+
+    private final Map<Word<PSymbolInstance>, LocationComponent> components = new LinkedHashMap<>();
+
+    // by access sequence of the target and prefix
+    private final Map<Word<PSymbolInstance>, Map<Word<PSymbolInstance>, TransitionInputs>> transitions =
+            new LinkedHashMap<>();
+
+    private AutomatonBuilder builder = null;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalAutomatonBuilder.class);
+
+    /**
+     * the inputs that AutomatonBuilder uses for computing the transition
+     * of a prefix and the result (null if there is no transition)
+     */
+    private static final class TransitionInputs {
+
+        private final Branching branching;
+        private final List<SymbolicDataValue> piv;
+        private final List<SymbolicDataValue> srcPiv;
+        private final List<SymbolicDataValue> destPiv;
+        private final Transition transition;
+
+        private TransitionInputs(LocationComponent dest, LocationComponent src, PrefixContainer r,
+                Transition transition) {
+            this.branching = src.getBranching(r.getPrefix().lastSymbol().getBaseSymbol());
+            this.piv = snapshot(r.getParsInVars());
+            this.srcPiv = snapshot(src.getPrimePrefix().getParsInVars());
+            this.destPiv = snapshot(dest.getPrimePrefix().getParsInVars());
+            this.transition = transition;
+        }
+
+        private boolean isValid(LocationComponent dest, LocationComponent src, PrefixContainer r) {
+            return this.branching == src.getBranching(r.getPrefix().lastSymbol().getBaseSymbol()) &&
+                    this.piv.equals(snapshot(r.getParsInVars())) &&
+                    this.srcPiv.equals(snapshot(src.getPrimePrefix().getParsInVars())) &&
+                    this.destPiv.equals(snapshot(dest.getPrimePrefix().getParsInVars()));
+        }
+
+        // the order of entries matters for remappings
+        private static List<SymbolicDataValue> snapshot(PIV piv) {
+            List<SymbolicDataValue> ret = new ArrayList<>();
+            for (Entry<Parameter, Register> e : piv) {
+                ret.add(e.getKey());
+                ret.add(e.getValue());
+            }
+            return ret;
+        }
+    }
+
+    public IncrementalAutomatonBuilder(DT dt, Constants consts) {
+        this.dt = dt;
+        this.consts = consts;
+    }
+
+    public DTHyp toRegisterAutomaton() {
+        Map<Word<PSymbolInstance>, LocationComponent> current = dt.getComponents();
+        if (builder == null || !isExtension(current)) {
+            LOGGER.debug(Category.EVENT, "computing hypothesis");
+            components.clear();
+            transitions.clear();
+            components.putAll(current);
+            builder = new AutomatonBuilder(components, consts, dt);
+            builder.computeLocations();
+        } else {
+            LOGGER.debug(Category.EVENT, "updating hypothesis");
+            for (Entry<Word<PSymbolInstance>, LocationComponent> e : current.entrySet()) {
+                if (!components.containsKey(e.getKey())) {
+                    components.put(e.getKey(), e.getValue());
+                    builder.computeLocation(e.getKey(), e.getValue());
+                }
+            }
+        }
+        updateTransitions();
+        return (DTHyp) builder.getAutomaton();
+    }
+
+    private boolean isExtension(Map<Word<PSymbolInstance>, LocationComponent> current) {
+        for (Entry<Word<PSymbolInstance>, LocationComponent> e : components.entrySet()) {
+            if (current.get(e.getKey()) != e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateTransitions() {
+        for (Entry<Word<PSymbolInstance>, LocationComponent> e : components.entrySet()) {
+            Map<Word<PSymbolInstance>, TransitionInputs> old = transitions.get(e.getKey());
+            Map<Word<PSymbolInstance>, TransitionInputs> updated = new LinkedHashMap<>();
+            LocationComponent c = e.getValue();
+            updateTransition(c, c.getPrimePrefix(), old, updated);
+            for (PrefixContainer r : c.getOtherPrefixes()) {
+                updateTransition(c, r, old, updated);
+            }
+            // prefixes that moved to other locations
+            if (old != null) {
+                for (TransitionInputs inputs : old.values()) {
+                    removeTransition(inputs);
+                }
+            }
+            transitions.put(e.getKey(), updated);
+        }
+    }
+
+    private void updateTransition(LocationComponent dest_c, PrefixContainer r,
+            Map<Word<PSymbolInstance>, TransitionInputs> old, Map<Word<PSymbolInstance>, TransitionInputs> updated) {
+        Word<PSymbolInstance> prefix = r.getPrefix();
+        if (prefix.length() < 1) {
+            return;
+        }
+        LocationComponent src_c = components.get(prefix.prefix(prefix.length() - 1));
+        TransitionInputs inputs = (old == null) ? null : old.remove(prefix);
+        if (inputs == null || !inputs.isValid(dest_c, src_c, r)) {
+            removeTransition(inputs);
+            inputs = new TransitionInputs(dest_c, src_c, r, builder.computeTransition(dest_c, r));
+        }
+        updated.put(prefix, inputs);
+    }
+
+    private void removeTransition(TransitionInputs inputs) {
+        if (inputs != null && inputs.transition != null) {
+            builder.removeTransition(inputs.transition);
+        }
+    }
+}
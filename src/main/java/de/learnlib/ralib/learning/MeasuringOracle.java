@@ -1,5 +1,6 @@
 package de.learnlib.ralib.learning;
 
+import java.util.Collection;
 import java.util.Map;
 
 import de.learnlib.ralib.data.PIV;
@@ -23,13 +24,26 @@ public class MeasuringOracle implements TreeOracle {
 
 	@Override
 	public TreeQueryResult treeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix) {
+		count(prefix, suffix);
+		return oracle.treeQuery(prefix, suffix);
+	}
+
+	@Override
+	public Map<SymbolicSuffix, TreeQueryResult> treeQueries(Word<PSymbolInstance> prefix,
+			Collection<SymbolicSuffix> suffixes) {
+		for (SymbolicSuffix suffix : suffixes) {
+			count(prefix, suffix);
+		}
+		return oracle.treeQueries(prefix, suffixes);
+	}
+
+	private void count(Word<PSymbolInstance> prefix, SymbolicSuffix suffix) {
 		result.treeQueries++;
 		SymbolicWord key = new SymbolicWord(prefix, suffix);
 		if (result.treeQueryWords.containsKey(key))
 			result.treeQueryWords.put(key, result.treeQueryWords.get(key) + 1);
 		else
 			result.treeQueryWords.put(key, 1);
-		return oracle.treeQuery(prefix, suffix);
 	}
 
 	@Override
@@ -19,6 +19,7 @@ import de.learnlib.ralib.learning.AutomatonBuilder;
 import de.learnlib.ralib.learning.CounterexampleAnalysis;
 import de.learnlib.ralib.learning.Hypothesis;
 import de.learnlib.ralib.learning.IOAutomatonBuilder;
+import de.learnlib.ralib.learning.IncrementalAutomatonBuilder;
 import de.learnlib.ralib.learning.LocationComponent;
 import de.learnlib.ralib.learning.QueryStatistics;
 import de.learnlib.ralib.learning.RaLearningAlgorithm;
@@ -41,6 +42,8 @@ public class RaDT implements RaLearningAlgorithm {
 
     private DTHyp hyp = null;
 
+    private final IncrementalAutomatonBuilder hypBuilder;
+
     private final TreeOracle sulOracle;
 
     private final SDTLogicOracle sdtLogicOracle;
@@ -61,15 +64,12 @@ public class RaDT implements RaLearningAlgorithm {
     	this.consts = consts;
     	this.ioMode = ioMode;
         this.dt = new DT(oracle, ioMode, consts, inputs);
+        this.hypBuilder = new IncrementalAutomatonBuilder(dt, consts);
         this.dt.initialize();
     }
 
     private void buildHypothesis() {
-        Map<Word<PSymbolInstance>, LocationComponent> components = new LinkedHashMap<Word<PSymbolInstance>, LocationComponent>();
-        components.putAll(dt.getComponents());
-
-        AutomatonBuilder ab = new AutomatonBuilder(components, consts, dt);
-        hyp = (DTHyp) ab.toRegisterAutomaton();
+        hyp = hypBuilder.toRegisterAutomaton();
     }
 
     private boolean analyzeCounterExample() {
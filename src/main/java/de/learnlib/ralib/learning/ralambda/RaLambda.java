@@ -1,6 +1,7 @@
 package de.learnlib.ralib.learning.ralambda;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -28,6 +29,7 @@ import de.learnlib.ralib.dt.ShortPrefix;
 import de.learnlib.ralib.learning.AutomatonBuilder;
 import de.learnlib.ralib.learning.CounterexampleAnalysis;
 import de.learnlib.ralib.learning.IOAutomatonBuilder;
+import de.learnlib.ralib.learning.IncrementalAutomatonBuilder;
 import de.learnlib.ralib.learning.LocationComponent;
 import de.learnlib.ralib.learning.QueryStatistics;
 import de.learnlib.ralib.learning.RaLearningAlgorithm;
@@ -63,6 +65,8 @@ public class RaLambda implements RaLearningAlgorithm {
 
     private DTHyp hyp = null;
 
+    private final IncrementalAutomatonBuilder hypBuilder;
+
     private final TreeOracle sulOracle;
 
     private final SDTLogicOracle sdtLogicOracle;
@@ -84,6 +88,14 @@ public class RaLambda implements RaLearningAlgorithm {
 
     private PrefixFinder prefixFinder = null;
 
+    // stamps of the last successful consistency checks, only leaves and
+    // prefixes that changed since then have to be checked again
+    private long locationsChecked = Long.MIN_VALUE;
+    private long closednessChecked = Long.MIN_VALUE;
+    private long registersChecked = Long.MIN_VALUE;
+
+    private boolean incrementalChecks = true;
+
     public RaLambda(TreeOracle oracle, TreeOracleFactory hypOracleFactory, SDTLogicOracle sdtLogicOracle, Constants consts,
             boolean ioMode, ParameterizedSymbol... inputs) {
 
@@ -101,6 +113,7 @@ public class RaLambda implements RaLearningAlgorithm {
 
         this.ioMode = ioMode;
         this.dt = new DT(oracle, ioMode, consts, inputs);
+        this.hypBuilder = new IncrementalAutomatonBuilder(dt, consts);
         this.consts = consts;
         this.sulOracle = oracle;
         this.sdtLogicOracle = sdtLogicOracle;
@@ -118,11 +131,7 @@ public class RaLambda implements RaLearningAlgorithm {
 
     private void buildNewHypothesis() {
 
-        Map<Word<PSymbolInstance>, LocationComponent> components = new LinkedHashMap<Word<PSymbolInstance>, LocationComponent>();
-        components.putAll(dt.getComponents());
-        AutomatonBuilder ab = new AutomatonBuilder(components, consts, dt);
-
-        hyp = (DTHyp) ab.toRegisterAutomaton();
+        hyp = hypBuilder.toRegisterAutomaton();
         if (prefixFinder != null) {
         	prefixFinder.setHypothesis(hyp);
                 //prefixFinder.setComponents(components);
@@ -280,11 +289,15 @@ public class RaLambda implements RaLearningAlgorithm {
 
     private boolean checkLocationConsistency() {
 
+    	long pass = dt.currentChange();
     	for (DTLeaf l : dt.getLeaves()) {
     		MappedPrefix mp = l.getPrimePrefix();
     		Iterator<MappedPrefix> it = l.getShortPrefixes().iterator();
     		while (it.hasNext()) {
     			ShortPrefix sp = (ShortPrefix)it.next();
+    			if (!isLocationDirty(l, sp, since(locationsChecked))) {
+    				continue;
+    			}
     			SymbolicSuffix suffix = null;
     			for (ParameterizedSymbol psi : dt.getInputs()) {
     				Branching access_b = l.getBranching(psi);
@@ -308,15 +321,51 @@ public class RaLambda implements RaLearningAlgorithm {
     			}
     		}
     	}
+    	locationsChecked = pass;
     	return true;
     }
 
+    /*
+     * The location consistency of a short prefix depends on the prefix, the
+     * access sequence and the leaves reached by their one symbol extensions.
+     */
+    private boolean isLocationDirty(DTLeaf l, ShortPrefix sp, long since) {
+    	if (l.changedSince(since) || sp.changedSince(since) || l.getPrimePrefix().changedSince(since)) {
+    		return true;
+    	}
+    	for (ParameterizedSymbol psi : dt.getInputs()) {
+    		for (Branching b : Arrays.asList(l.getBranching(psi), sp.getBranching(psi))) {
+    			for (Word<PSymbolInstance> w : b.getBranches().keySet()) {
+    				DTLeaf target = dt.getLeaf(w);
+    				if (target == null || target.changedSince(since)) {
+    					return true;
+    				}
+    			}
+    		}
+    	}
+    	return false;
+    }
+
+    private long since(long checked) {
+    	return incrementalChecks ? checked : Long.MIN_VALUE;
+    }
+
     private boolean checkRegisterClosedness() {
-    	return dt.checkVariableConsistency(suffixBuilder);
+    	long pass = dt.currentChange();
+    	if (!dt.checkVariableConsistency(suffixBuilder, since(closednessChecked))) {
+    		return false;
+    	}
+    	closednessChecked = pass;
+    	return true;
     }
 
     private boolean checkRegisterConsistency() {
-    	return dt.checkRegisterConsistency(suffixBuilder);
+    	long pass = dt.currentChange();
+    	if (!dt.checkRegisterConsistency(suffixBuilder, since(registersChecked))) {
+    		return false;
+    	}
+    	registersChecked = pass;
+    	return true;
     }
 
     private boolean checkGuardConsistency() {
@@ -439,6 +488,16 @@ public class RaLambda implements RaLearningAlgorithm {
         this.useOldAnalyzer = useOldAnalyzer;
     }
 
+    /**
+     * Consistency checks only visit leaves and prefixes that changed since
+     * the last successful check, unless this is disabled. Enabled by default.
+     *
+     * @param incrementalChecks
+     */
+    public void setIncrementalChecks(boolean incrementalChecks) {
+        this.incrementalChecks = incrementalChecks;
+    }
+
     private Word<PSymbolInstance> branchWithSameGuard(MappedPrefix mp, Branching branching) {
     	Word<PSymbolInstance> dw = mp.getPrefix();
 
@@ -93,8 +93,9 @@ public class Component implements LocationComponent {
             return false;
         }
 
-        PIVRemappingIterator iterator = new PIVRemappingIterator(
-                r.getParsInVars(), primeRow.getParsInVars());
+        PIVRemappingIterator iterator = PIVRemappingIterator.withSignatures(
+                r.getParsInVars(), primeRow.getParsInVars(),
+                r.getRegisterSignatures(), primeRow.getRegisterSignatures());
 
         for (VarMapping m : iterator) {
             if (r.isEquivalentTo(primeRow, m)) {
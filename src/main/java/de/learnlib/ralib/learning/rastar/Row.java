@@ -21,6 +21,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,7 @@ import de.learnlib.ralib.learning.PrefixContainer;
 import de.learnlib.ralib.learning.SymbolicDecisionTree;
 import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.oracles.TreeOracle;
+import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.words.InputSymbol;
 import de.learnlib.ralib.words.OutputSymbol;
 import de.learnlib.ralib.words.PSymbolInstance;
@@ -215,6 +217,19 @@ public class Row implements PrefixContainer {
         return true;
     }
 
+    /**
+     * @return register signatures of the SDTs in all cells
+     */
+    Map<Register, Set<String>> getRegisterSignatures() {
+        Map<SymbolicSuffix, SymbolicDecisionTree> sdts = new LinkedHashMap<>();
+        for (Map.Entry<SymbolicSuffix, Cell> e : this.cells.entrySet()) {
+            if (e.getValue() != null) {
+                sdts.put(e.getKey(), e.getValue().getSDT());
+            }
+        }
+        return SDT.getRegisterSignatures(sdts);
+    }
+
     /**
      * computes a new row object from a prefix and a set of symbolic suffixes.
      *
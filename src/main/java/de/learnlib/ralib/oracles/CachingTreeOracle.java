@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.oracles;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.PIV;
+import de.learnlib.ralib.learning.SymbolicDecisionTree;
+import de.learnlib.ralib.learning.SymbolicSuffix;
+import de.learnlib.ralib.learning.SymbolicWord;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.theory.equality.EqualityTheory;
+import de.learnlib.ralib.theory.equality.UniqueEqualityTheory;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+/**
+ * Caches results of tree queries.
+ *
+ * Prefixes are stored in a canonical form: data values of types with an
+ * equality theory are renamed in the order of their first occurrence
+ * (constants are kept). Prefixes that only differ by a bijective renaming
+ * of such data values thus share one entry. Values of all other types are
+ * kept as they are, since their theories may depend on the concrete values.
+ *
+ * The renaming preserves positions in the prefix, i.e., the parameters in
+ * the stored PIV are the same for all prefixes of one entry and the stored
+ * SDT does not contain concrete values. A hit is remapped by copying the
+ * stored PIV and SDT for the caller.
+ */
+public class CachingTreeOracle implements TreeOracle {
+
+    private static final class CanonicalId {
+
+        private final int id;
+
+        CanonicalId(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof CanonicalId) && ((CanonicalId) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + id;
+        }
+    }
+
+    private final TreeOracle oracle;
+
+    private final Map<DataType, Theory> teachers;
+
+    private final Constants constants;
+
+    private final Map<SymbolicWord, TreeQueryResult> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingTreeOracle.class);
+
+    public CachingTreeOracle(TreeOracle oracle, Map<DataType, Theory> teachers, Constants constants) {
+        this.oracle = oracle;
+        this.teachers = teachers;
+        this.constants = constants;
+    }
+
+    @Override
+    public TreeQueryResult treeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix) {
+        SymbolicWord key = new SymbolicWord(canonicalPrefix(prefix), suffix);
+        TreeQueryResult tqr = cache.get(key);
+        if (tqr != null) {
+            hits.incrementAndGet();
+            LOGGER.trace(Category.QUERY, "TQ cache hit: {} . {}", prefix, suffix);
+            return copy(tqr);
+        }
+        misses.incrementAndGet();
+        tqr = oracle.treeQuery(prefix, suffix);
+        cache.put(key, copy(tqr));
+        return tqr;
+    }
+
+    /**
+     * Answers the cached suffixes directly and forwards all misses
+     * to the wrapped oracle as one batch.
+     */
+    @Override
+    public Map<SymbolicSuffix, TreeQueryResult> treeQueries(
+            Word<PSymbolInstance> prefix, Collection<SymbolicSuffix> suffixes) {
+
+        Word<PSymbolInstance> canonical = canonicalPrefix(prefix);
+        Map<SymbolicSuffix, TreeQueryResult> results = new LinkedHashMap<>();
+        List<SymbolicSuffix> missed = new ArrayList<>();
+        for (SymbolicSuffix s : suffixes) {
+            TreeQueryResult tqr = cache.get(new SymbolicWord(canonical, s));
+            if (tqr != null) {
+                hits.incrementAndGet();
+                results.put(s, copy(tqr));
+            } else {
+                // keeps the position of the suffix in the result
+                results.put(s, null);
+                missed.add(s);
+            }
+        }
+
+        if (!missed.isEmpty()) {
+            misses.addAndGet(missed.size());
+            LOGGER.trace(Category.QUERY, "TQ cache misses: {} . {}", prefix, missed);
+            for (Map.Entry<SymbolicSuffix, TreeQueryResult> e :
+                    oracle.treeQueries(prefix, missed).entrySet()) {
+                cache.put(new SymbolicWord(canonical, e.getKey()), copy(e.getValue()));
+                results.put(e.getKey(), e.getValue());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Branching getInitialBranching(Word<PSymbolInstance> prefix,
+            ParameterizedSymbol ps, PIV piv, SymbolicDecisionTree... sdts) {
+        return oracle.getInitialBranching(prefix, ps, piv, sdts);
+    }
+
+    @Override
+    public Branching updateBranching(Word<PSymbolInstance> prefix,
+            ParameterizedSymbol ps, Branching current, PIV piv, SymbolicDecisionTree... sdts) {
+        return oracle.updateBranching(prefix, ps, current, piv, sdts);
+    }
+
+    @Override
+    public Map<Word<PSymbolInstance>, Boolean> instantiate(Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix, SymbolicDecisionTree sdt, PIV piv) {
+        return oracle.instantiate(prefix, suffix, sdt, piv);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Word<PSymbolInstance> canonicalPrefix(Word<PSymbolInstance> prefix) {
+        Map<DataValue, DataValue> renaming = new HashMap<>();
+        List<PSymbolInstance> symbols = new ArrayList<>(prefix.length());
+        for (PSymbolInstance psi : prefix) {
+            DataValue[] vals = psi.getParameterValues();
+            DataValue[] canonical = new DataValue[vals.length];
+            for (int i = 0; i < vals.length; i++) {
+                canonical[i] = canonicalValue(vals[i], renaming);
+            }
+            symbols.add(new PSymbolInstance(psi.getBaseSymbol(), canonical));
+        }
+        return Word.fromList(symbols);
+    }
+
+    private DataValue canonicalValue(DataValue d, Map<DataValue, DataValue> renaming) {
+        if (!isSymmetric(d.getType()) || constants.containsValue(d)) {
+            return d;
+        }
+        DataValue r = renaming.get(d);
+        if (r == null) {
+            r = new DataValue<>(d.getType(), new CanonicalId(renaming.size()));
+            renaming.put(d, r);
+        }
+        return r;
+    }
+
+    private boolean isSymmetric(DataType type) {
+        Theory teach = teachers.get(type);
+        return (teach instanceof EqualityTheory) || (teach instanceof UniqueEqualityTheory);
+    }
+
+    private static TreeQueryResult copy(TreeQueryResult tqr) {
+        PIV piv = new PIV();
+        piv.putAll(tqr.getPiv());
+        return new TreeQueryResult(piv, tqr.getSdt().copy());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.oracles;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import de.learnlib.ralib.data.PIV;
+import de.learnlib.ralib.learning.SymbolicDecisionTree;
+import de.learnlib.ralib.learning.SymbolicSuffix;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+/**
+ * Tree oracle that answers independent tree queries of one prefix
+ * concurrently on a pool of workers.
+ *
+ * Every worker owns a tree oracle created by the supplier. The supplier
+ * has to create a complete, independent chain for every call (SUL, caches,
+ * theories), since the tree oracles are used from different threads.
+ * Results are identical to sequential execution as long as the SUL
+ * is deterministic.
+ */
+public class ParallelTreeOracle implements TreeOracle {
+
+    private final BlockingQueue<TreeOracle> oracles;
+
+    private final ExecutorService executor;
+
+    public ParallelTreeOracle(Supplier<TreeOracle> factory, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("at least one worker needed, got " + workers);
+        }
+        this.oracles = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            oracles.add(factory.get());
+        }
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "tree-query-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public TreeQueryResult treeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix) {
+        return withOracle(o -> o.treeQuery(prefix, suffix));
+    }
+
+    @Override
+    public Map<SymbolicSuffix, TreeQueryResult> treeQueries(
+            Word<PSymbolInstance> prefix, Collection<SymbolicSuffix> suffixes) {
+
+        Map<SymbolicSuffix, TreeQueryResult> results = new LinkedHashMap<>();
+        if (suffixes.size() < 2) {
+            for (SymbolicSuffix s : suffixes) {
+                results.put(s, treeQuery(prefix, s));
+            }
+            return results;
+        }
+
+        List<Future<TreeQueryResult>> futures = new ArrayList<>();
+        for (SymbolicSuffix s : suffixes) {
+            futures.add(executor.submit(() -> treeQuery(prefix, s)));
+        }
+
+        int i = 0;
+        for (SymbolicSuffix s : suffixes) {
+            results.put(s, get(futures.get(i++)));
+        }
+        return results;
+    }
+
+    @Override
+    public Branching getInitialBranching(Word<PSymbolInstance> prefix,
+            ParameterizedSymbol ps, PIV piv, SymbolicDecisionTree... sdts) {
+        return withOracle(o -> o.getInitialBranching(prefix, ps, piv, sdts));
+    }
+
+    @Override
+    public Branching updateBranching(Word<PSymbolInstance> prefix,
+            ParameterizedSymbol ps, Branching current, PIV piv, SymbolicDecisionTree... sdts) {
+        return withOracle(o -> o.updateBranching(prefix, ps, current, piv, sdts));
+    }
+
+    @Override
+    public Map<Word<PSymbolInstance>, Boolean> instantiate(Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix, SymbolicDecisionTree sdt, PIV piv) {
+        return withOracle(o -> o.instantiate(prefix, suffix, sdt, piv));
+    }
+
+    /**
+     * stops the worker threads.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T withOracle(Function<TreeOracle, T> f) {
+        TreeOracle o;
+        try {
+            o = oracles.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a tree oracle", ex);
+        }
+        try {
+            return f.apply(o);
+        } finally {
+            oracles.add(o);
+        }
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a tree query", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package de.learnlib.ralib.oracles;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import de.learnlib.ralib.data.PIV;
@@ -45,6 +47,24 @@ public interface TreeOracle {
     public TreeQueryResult treeQuery(
             Word<PSymbolInstance> prefix, SymbolicSuffix suffix);
 
+    /**
+     * performs independent tree queries for one prefix and
+     * several suffixes. Implementations may answer the queries
+     * concurrently. The returned map follows the order of the suffixes.
+     *
+     * @param prefix
+     * @param suffixes
+     * @return
+     */
+    default Map<SymbolicSuffix, TreeQueryResult> treeQueries(
+            Word<PSymbolInstance> prefix, Collection<SymbolicSuffix> suffixes) {
+        Map<SymbolicSuffix, TreeQueryResult> results = new LinkedHashMap<>();
+        for (SymbolicSuffix s : suffixes) {
+            results.put(s, treeQuery(prefix, s));
+        }
+        return results;
+    }
+
     /**
      * Computes a Branching from a set of SymbolicDecisionTrees.
      *
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.oracles.io;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+/**
+ * An IO-Cache that can be read and extended by several threads at the
+ * same time.
+ *
+ * Lookups share a read lock and run concurrently. Adding a trace takes the
+ * write lock. Queries that miss the cache are executed on the SUL without
+ * holding a lock, so the wrapped oracle has to be thread-safe itself, e.g.,
+ * by handing out one SUL instance per thread.
+ *
+ * If two threads observe different outputs after the same inputs, the trace
+ * that is added second is rejected with an {@link IllegalStateException},
+ * independent of the order in which the threads run.
+ */
+public class ConcurrentIOCache extends IOCache {
+
+    private final ReadWriteLock lock;
+
+    public ConcurrentIOCache(IOOracle sul) {
+        super(sul);
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    public ConcurrentIOCache(IOOracle sul, ConcurrentIOCache cache) {
+        super(sul, cache);
+        this.lock = cache.lock;
+    }
+
+    @Override
+    protected Boolean answerFromCache(Word<PSymbolInstance> query) {
+        lock.readLock().lock();
+        try {
+            return super.answerFromCache(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Word<PSymbolInstance> traceFromCache(Word<PSymbolInstance> query) {
+        lock.readLock().lock();
+        try {
+            return super.traceFromCache(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addToCache(Word<PSymbolInstance> query) {
+        lock.writeLock().lock();
+        try {
+            super.addToCache(query);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
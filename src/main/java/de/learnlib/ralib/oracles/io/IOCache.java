@@ -16,17 +16,23 @@
  */
 package de.learnlib.ralib.oracles.io;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.learnlib.logging.Category;
 import de.learnlib.query.Query;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
 import de.learnlib.ralib.data.DataValue;
 import de.learnlib.ralib.data.FreshValue;
 import de.learnlib.ralib.oracles.DataWordOracle;
@@ -42,31 +48,303 @@ import net.automatalib.word.Word;
  */
 public class IOCache extends IOOracle implements DataWordOracle {
 
-    private static class CacheNode {
+    /**
+     * Trie node. Children are kept in parallel arrays that are sorted by the
+     * cached hash codes of the inputs. Most nodes on deep traces have a single
+     * child, so the arrays start small and grow on demand.
+     */
+    private static final class CacheNode {
+
+        private static final int[] NO_HASHES = new int[0];
+
+        private static final PSymbolInstance[] NO_SYMBOLS = new PSymbolInstance[0];
+
+        private static final CacheNode[] NO_NODES = new CacheNode[0];
+
+        private int[] hashes = NO_HASHES;
+        private PSymbolInstance[] inputs = NO_SYMBOLS;
+        private PSymbolInstance[] outputs = NO_SYMBOLS;
+        private CacheNode[] next = NO_NODES;
+        private int size = 0;
+
+        private int indexOf(PSymbolInstance in, int hash) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (hashes[mid] < hash) {
+                    lo = mid + 1;
+                } else if (hashes[mid] > hash) {
+                    hi = mid - 1;
+                } else {
+                    // scan all entries with the same hash
+                    int i = mid;
+                    while (i > 0 && hashes[i - 1] == hash) {
+                        i--;
+                    }
+                    for (; i < size && hashes[i] == hash; i++) {
+                        if (inputs[i].equals(in)) {
+                            return i;
+                        }
+                    }
+                    return -(i + 1);
+                }
+            }
+            return -(lo + 1);
+        }
+
+        PSymbolInstance output(PSymbolInstance in) {
+            int idx = indexOf(in, in.hashCode());
+            return idx < 0 ? null : outputs[idx];
+        }
 
-        final Map<PSymbolInstance, PSymbolInstance> output = new LinkedHashMap<>();
-        final Map<PSymbolInstance, CacheNode> next = new LinkedHashMap<>();
+        CacheNode next(PSymbolInstance in) {
+            int idx = indexOf(in, in.hashCode());
+            return idx < 0 ? null : next[idx];
+        }
+
+        CacheNode add(PSymbolInstance in, PSymbolInstance out) {
+            int hash = in.hashCode();
+            int idx = indexOf(in, hash);
+            assert idx < 0;
+            idx = -(idx + 1);
+            if (size == hashes.length) {
+                int capacity = size < 2 ? size + 1 : size + (size >> 1);
+                hashes = Arrays.copyOf(hashes, capacity);
+                inputs = Arrays.copyOf(inputs, capacity);
+                outputs = Arrays.copyOf(outputs, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            int tail = size - idx;
+            System.arraycopy(hashes, idx, hashes, idx + 1, tail);
+            System.arraycopy(inputs, idx, inputs, idx + 1, tail);
+            System.arraycopy(outputs, idx, outputs, idx + 1, tail);
+            System.arraycopy(next, idx, next, idx + 1, tail);
+            CacheNode node = new CacheNode();
+            hashes[idx] = hash;
+            inputs[idx] = in;
+            outputs[idx] = out;
+            next[idx] = node;
+            size++;
+            return node;
+        }
+    }
+
+    /**
+     * Shares symbol instances and data values between the nodes of the trie.
+     * Only plain data values are interned: fresh values are equal to data
+     * values with the same id but have to keep their class for the fresh
+     * value replacement in {@link #answerFromCache(Word)}.
+     */
+    private static final class Interner {
+
+        private final Map<DataValue, DataValue> values = new HashMap<>();
+        private final Map<PSymbolInstance, PSymbolInstance> symbols = new HashMap<>();
+
+        PSymbolInstance intern(PSymbolInstance psi) {
+            PSymbolInstance ret = symbols.get(psi);
+            if (ret != null && sameClasses(ret, psi)) {
+                return ret;
+            }
+            DataValue[] vals = psi.getParameterValues();
+            DataValue[] interned = new DataValue[vals.length];
+            boolean plain = true;
+            for (int i = 0; i < vals.length; i++) {
+                interned[i] = intern(vals[i]);
+                plain &= vals[i].getClass() == DataValue.class;
+            }
+            ret = new PSymbolInstance(psi.getBaseSymbol(), interned);
+            if (plain) {
+                symbols.put(ret, ret);
+            }
+            return ret;
+        }
+
+        private DataValue intern(DataValue d) {
+            if (d.getClass() != DataValue.class) {
+                return d;
+            }
+            DataValue ret = values.putIfAbsent(d, d);
+            return ret != null ? ret : d;
+        }
+
+        private static boolean sameClasses(PSymbolInstance a, PSymbolInstance b) {
+            DataValue[] va = a.getParameterValues();
+            DataValue[] vb = b.getParameterValues();
+            for (int i = 0; i < va.length; i++) {
+                if (va[i].getClass() != vb[i].getClass()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Id of a data value in a canonical trace.
+     */
+    private static final class CanonicalId {
+
+        private final int id;
+
+        CanonicalId(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CanonicalId && ((CanonicalId) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "c" + id;
+        }
+    }
+
+    /**
+     * Renaming between the data values of a trace and its canonical form.
+     * Values of symmetric types are numbered per type in the order of their
+     * first occurrence. Constants and values of other types are kept.
+     */
+    private final class Renaming {
+
+        private final Map<DataValue, DataValue> toCanonical = new HashMap<>();
+        private final Map<DataValue, DataValue> fromCanonical = new HashMap<>();
+        private final Map<DataType, Integer> counts = new HashMap<>();
+
+        private boolean isSymmetric(DataValue d) {
+            return symmetricTypes.contains(d.getType()) && !constants.contains(d);
+        }
+
+        DataValue canonical(DataValue d) {
+            DataValue c = toCanonical.get(d);
+            if (c != null) {
+                return c;
+            }
+            if (!isSymmetric(d)) {
+                return d;
+            }
+            int n = counts.getOrDefault(d.getType(), 0);
+            c = (d instanceof FreshValue)
+                    ? new FreshValue<>(d.getType(), new CanonicalId(n))
+                    : new DataValue<>(d.getType(), new CanonicalId(n));
+            bind(d, c);
+            return c;
+        }
+
+        PSymbolInstance canonical(PSymbolInstance psi) {
+            DataValue[] vals = new DataValue[psi.getBaseSymbol().getArity()];
+            for (int i = 0; i < vals.length; i++) {
+                vals[i] = canonical(psi.getParameterValues()[i]);
+            }
+            return new PSymbolInstance(psi.getBaseSymbol(), vals);
+        }
+
+        /**
+         * Matches value d of the caller against the cached value c and
+         * extends the renaming if d occurs for the first time.
+         */
+        boolean match(DataValue d, DataValue c) {
+            DataValue mapped = toCanonical.get(d);
+            if (mapped != null) {
+                return mapped.equals(c);
+            }
+            if (isSymmetric(d)) {
+                if (!(c.getId() instanceof CanonicalId) || fromCanonical.containsKey(c)) {
+                    return false;
+                }
+                bind(d, c);
+                return true;
+            }
+            if (c instanceof FreshValue) {
+                toCanonical.put(d, c);
+                return true;
+            }
+            return c.equals(d);
+        }
+
+        private void bind(DataValue d, DataValue c) {
+            toCanonical.put(d, c);
+            fromCanonical.put(c, d);
+            counts.merge(d.getType(), 1, Integer::sum);
+        }
     }
 
     private final CacheNode root;
 
+    private final Interner interner;
+
+    private final Set<DataType> symmetricTypes;
+
+    private final Set<DataValue> constants;
+
     private final IOOracle sul;
 
+    private boolean batchQueries = false;
+
     private static Logger LOGGER = LoggerFactory.getLogger(IOCache.class);
 
     public IOCache(IOOracle sul) {
         this.sul = sul;
-        root = new CacheNode();
+        this.root = new CacheNode();
+        this.interner = new Interner();
+        this.symmetricTypes = new HashSet<>();
+        this.constants = new HashSet<>();
     }
 
     public IOCache(IOOracle sul, IOCache cache) {
         this.sul = sul;
         this.root = cache.root;
+        this.interner = cache.interner;
+        this.symmetricTypes = cache.symmetricTypes;
+        this.constants = cache.constants;
+    }
+
+    /**
+     * If enabled, queries that cannot be answered from the cache are sent
+     * to the SUL as one batch (see {@link IOOracle#traces(java.util.List)}).
+     *
+     * @param batchQueries
+     */
+    public void setBatchQueries(boolean batchQueries) {
+        this.batchQueries = batchQueries;
+    }
+
+    /**
+     * Enables lookups that are invariant under renaming of data values of
+     * the given types. This is sound for types with equality theories,
+     * where traces that only differ by a bijective renaming of data values
+     * have isomorphic outputs. Traces are stored with the values of these
+     * types (except for constants) numbered in the order of their first
+     * occurrence.
+     *
+     * Has to be set before the cache is used. Traces from the cache that
+     * contain new output values of these types cannot be mapped back to
+     * concrete values and are not answered from the cache.
+     *
+     * @param types
+     * @param consts
+     */
+    public void setSymmetricTypes(Collection<DataType> types, Constants consts) {
+        symmetricTypes.clear();
+        symmetricTypes.addAll(types);
+        constants.clear();
+        constants.addAll(consts.values());
     }
 
     @Override
     public void processQueries(Collection<? extends Query<PSymbolInstance, Boolean>> clctn) {
         countQueries(clctn.size());
+        if (batchQueries) {
+            batchQueries(clctn);
+            return;
+        }
         for (Query<PSymbolInstance, Boolean> q : clctn) {
             LOGGER.trace(Category.QUERY, "MQ: {0}", q.getInput());
             boolean accepted = traceBoolean(q.getInput());
@@ -74,22 +352,52 @@ public class IOCache extends IOOracle implements DataWordOracle {
         }
     }
 
+    private void batchQueries(Collection<? extends Query<PSymbolInstance, Boolean>> clctn) {
+        List<Query<PSymbolInstance, Boolean>> misses = new ArrayList<>();
+        List<Word<PSymbolInstance>> tests = new ArrayList<>();
+        for (Query<PSymbolInstance, Boolean> q : clctn) {
+            LOGGER.trace(Category.QUERY, "MQ: {0}", q.getInput());
+            Boolean ret = answerFromCache(q.getInput());
+            if (ret != null) {
+                q.answer(ret);
+            } else {
+                misses.add(q);
+                tests.add(padQuery(q.getInput()));
+            }
+        }
+        if (misses.isEmpty()) {
+            return;
+        }
+        for (Word<PSymbolInstance> trace : sul.traces(tests)) {
+            addToCache(trace);
+        }
+        for (Query<PSymbolInstance, Boolean> q : misses) {
+            q.answer(answerFromCache(q.getInput()));
+        }
+    }
+
+    private static Word<PSymbolInstance> padQuery(Word<PSymbolInstance> query) {
+        if (query.length() % 2 != 0) {
+            return query.append(new PSymbolInstance(new OutputSymbol("__cache_dummy")));
+        }
+        return query;
+    }
+
     public boolean traceBoolean(Word<PSymbolInstance> query) {
         Boolean ret = answerFromCache(query);
         if (ret != null) {
             return ret;
         }
-        Word<PSymbolInstance> test = query;
-        if (query.length() % 2 != 0) {
-            test = query.append(new PSymbolInstance(new OutputSymbol("__cache_dummy")));
-        }
-        Word<PSymbolInstance> trace = sul.trace(test);
+        Word<PSymbolInstance> trace = sul.trace(padQuery(query));
         addToCache(trace);
         ret = answerFromCache(query);
         return ret;
     }
 
-    private Boolean answerFromCache(Word<PSymbolInstance> query) {
+    protected Boolean answerFromCache(Word<PSymbolInstance> query) {
+        if (!symmetricTypes.isEmpty()) {
+            return answerFromCanonical(query);
+        }
         Iterator<PSymbolInstance> iter = query.iterator();
         PSymbolInstance out = null;
         CacheNode cur = root;
@@ -119,12 +427,11 @@ public class IOCache extends IOOracle implements DataWordOracle {
 
             PSymbolInstance ref = iter.next();
 
-            out = cur.output.get(in);
-            cur = cur.next.get(in);
-
+            out = cur.output(in);
             if (out == null) {
                 return null;
             }
+            cur = cur.next(in);
 
             if (!out.getBaseSymbol().equals(ref.getBaseSymbol())) {
                 return Boolean.FALSE;
@@ -154,27 +461,67 @@ public class IOCache extends IOOracle implements DataWordOracle {
         return Boolean.TRUE;
     }
 
+    private Boolean answerFromCanonical(Word<PSymbolInstance> query) {
+        Iterator<PSymbolInstance> iter = query.iterator();
+        Renaming renaming = new Renaming();
+        CacheNode cur = root;
+
+        while (iter.hasNext()) {
+
+            PSymbolInstance in = renaming.canonical(iter.next());
+            if (!iter.hasNext()) {
+                // only input is left ...
+                return Boolean.TRUE;
+            }
+
+            PSymbolInstance ref = iter.next();
+            PSymbolInstance out = cur.output(in);
+            if (out == null) {
+                return null;
+            }
+            cur = cur.next(in);
+
+            if (!out.getBaseSymbol().equals(ref.getBaseSymbol())) {
+                return Boolean.FALSE;
+            }
+            for (int i = 0; i < ref.getBaseSymbol().getArity(); i++) {
+                if (!renaming.match(ref.getParameterValues()[i], out.getParameterValues()[i])) {
+                    return Boolean.FALSE;
+                }
+            }
+        }
+        return Boolean.TRUE;
+    }
+
     public void addToCache(Word<PSymbolInstance> query) {
         assert query.length() % 2 == 0;
         Iterator<PSymbolInstance> iter = query.iterator();
+        Renaming renaming = symmetricTypes.isEmpty() ? null : new Renaming();
         CacheNode cur = root;
         while (iter.hasNext()) {
             PSymbolInstance in = iter.next();
             PSymbolInstance out = iter.next();
+            if (renaming != null) {
+                in = renaming.canonical(in);
+                out = renaming.canonical(out);
+            }
 
-            CacheNode next = cur.next.get(in);
+            CacheNode next = cur.next(in);
             if (next == null) {
-                next = new CacheNode();
-                cur.next.put(in, next);
-                cur.output.put(in, out);
+                next = cur.add(interner.intern(in), interner.intern(out));
+            } else if (!out.equals(cur.output(in))) {
+                throw new IllegalStateException("Conflicting outputs for " + in
+                        + ": cached " + cur.output(in) + ", observed " + out
+                        + " in " + query);
             }
-
-            assert out.equals(cur.output.get(in));
             cur = next;
         }
     }
 
     public Word<PSymbolInstance> traceFromCache(Word<PSymbolInstance> query) {
+        if (!symmetricTypes.isEmpty()) {
+            return traceFromCanonical(query);
+        }
         Word<PSymbolInstance> trace = Word.epsilon();
 
         Iterator<PSymbolInstance> iter = query.iterator();
@@ -186,12 +533,11 @@ public class IOCache extends IOOracle implements DataWordOracle {
             PSymbolInstance in = iter.next();
             PSymbolInstance ref = iter.next();
 
-            out = cur.output.get(in);
-            cur = cur.next.get(in);
-
+            out = cur.output(in);
             if (out == null) {
                 return null;
             }
+            cur = cur.next(in);
 
             trace = trace.append(in).append(out);
 
@@ -199,11 +545,47 @@ public class IOCache extends IOOracle implements DataWordOracle {
         return trace;
     }
 
+    private Word<PSymbolInstance> traceFromCanonical(Word<PSymbolInstance> query) {
+        Word<PSymbolInstance> trace = Word.epsilon();
+
+        Iterator<PSymbolInstance> iter = query.iterator();
+        Renaming renaming = new Renaming();
+        CacheNode cur = root;
+
+        while (iter.hasNext()) {
+
+            PSymbolInstance in = iter.next();
+            iter.next();
+
+            PSymbolInstance cin = renaming.canonical(in);
+            PSymbolInstance out = cur.output(cin);
+            if (out == null) {
+                return null;
+            }
+            cur = cur.next(cin);
+
+            DataValue[] vals = new DataValue[out.getBaseSymbol().getArity()];
+            for (int i = 0; i < vals.length; i++) {
+                DataValue c = out.getParameterValues()[i];
+                DataValue d = renaming.fromCanonical.get(c);
+                if (d == null) {
+                    if (c.getId() instanceof CanonicalId) {
+                        // new value, unknown to the caller
+                        return null;
+                    }
+                    d = c;
+                }
+                vals[i] = d;
+            }
+
+            trace = trace.append(in).append(new PSymbolInstance(out.getBaseSymbol(), vals));
+        }
+        return trace;
+    }
+
     @Override
     public Word<PSymbolInstance> trace(Word<PSymbolInstance> query) {
-        if (query.length() % 2 != 0) {
-            query = query.append(new PSymbolInstance(new OutputSymbol("__cache_dummy")));
-        }
+        query = padQuery(query);
 
         Word<PSymbolInstance> trace = traceFromCache(query);
         if (trace != null) {
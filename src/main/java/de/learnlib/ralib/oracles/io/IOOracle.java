@@ -16,6 +16,9 @@
  */
 package de.learnlib.ralib.oracles.io;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import de.learnlib.ralib.oracles.QueryCounter;
 import de.learnlib.ralib.words.PSymbolInstance;
 import net.automatalib.word.Word;
@@ -28,4 +31,19 @@ public abstract class IOOracle extends QueryCounter {
 
     public abstract Word<PSymbolInstance> trace(Word<PSymbolInstance> query);
 
+    /**
+     * Executes a batch of queries. Traces are returned in the order of the
+     * queries. Implementations may execute the queries concurrently.
+     *
+     * @param queries
+     * @return the traces
+     */
+    public List<Word<PSymbolInstance>> traces(List<Word<PSymbolInstance>> queries) {
+        List<Word<PSymbolInstance>> traces = new ArrayList<>(queries.size());
+        for (Word<PSymbolInstance> q : queries) {
+            traces.add(trace(q));
+        }
+        return traces;
+    }
+
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.oracles.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.CountingInputStream;
+
+import de.learnlib.logging.Category;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.words.DataWordCodec;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+/**
+ * An IO-Cache that is backed by an append-only log file, so that traces
+ * executed on a system can be reused by later runs against the same system.
+ *
+ * The file starts with a header that describes the format version, the
+ * alphabet and the theories. A file with a different header is considered
+ * stale and is discarded. The log is loaded when the cache is used for the
+ * first time. New traces are appended and synced to disk after every
+ * {@code syncInterval} traces and on {@link #close()}.
+ *
+ * Data values can be persisted if their ids are numbers, booleans, or
+ * strings.
+ */
+public class PersistentIOCache extends IOCache implements Closeable {
+
+    private static final int MAGIC = 0x52414c43;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int DEFAULT_SYNC_INTERVAL = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentIOCache.class);
+
+    private final File file;
+
+    private final String header;
+
+    private final DataWordCodec codec;
+
+    private final int syncInterval;
+
+    private FileOutputStream fileOut;
+
+    private DataOutputStream out;
+
+    private boolean loaded = false;
+
+    private int unsynced = 0;
+
+    public PersistentIOCache(IOOracle sul, File file,
+            Collection<ParameterizedSymbol> alphabet, Map<DataType, Theory> teachers) {
+        this(sul, file, alphabet, teachers, DEFAULT_SYNC_INTERVAL);
+    }
+
+    public PersistentIOCache(IOOracle sul, File file,
+            Collection<ParameterizedSymbol> alphabet, Map<DataType, Theory> teachers,
+            int syncInterval) {
+        super(sul);
+        this.file = file;
+        this.syncInterval = syncInterval;
+        this.codec = new DataWordCodec(alphabet);
+        this.header = header(alphabet, teachers);
+    }
+
+    private static String header(Collection<ParameterizedSymbol> alphabet,
+            Map<DataType, Theory> teachers) {
+        StringBuilder sb = new StringBuilder(DataWordCodec.describe(alphabet));
+        for (Entry<DataType, Theory> e : teachers.entrySet()) {
+            sb.append(e.getKey().getName()).append('=')
+                    .append(e.getValue().getClass().getName()).append(';');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    protected Boolean answerFromCache(Word<PSymbolInstance> query) {
+        ensureLoaded();
+        return super.answerFromCache(query);
+    }
+
+    @Override
+    public Word<PSymbolInstance> traceFromCache(Word<PSymbolInstance> query) {
+        ensureLoaded();
+        return super.traceFromCache(query);
+    }
+
+    @Override
+    public Word<PSymbolInstance> trace(Word<PSymbolInstance> query) {
+        ensureLoaded();
+        return super.trace(query);
+    }
+
+    @Override
+    public void addToCache(Word<PSymbolInstance> query) {
+        ensureLoaded();
+        super.addToCache(query);
+        try {
+            codec.write(out, query);
+            if (++unsynced >= syncInterval) {
+                sync();
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Writes pending traces to disk.
+     *
+     * @throws IOException
+     */
+    public void sync() throws IOException {
+        if (out == null) {
+            return;
+        }
+        out.flush();
+        fileOut.getFD().sync();
+        unsynced = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            return;
+        }
+        sync();
+        out.close();
+        out = null;
+        fileOut = null;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            long valid = file.exists() ? load() : -1L;
+            if (valid < 0) {
+                fileOut = new FileOutputStream(file);
+                out = new DataOutputStream(new BufferedOutputStream(fileOut));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(header);
+                sync();
+            } else {
+                // drop an incomplete or corrupt last record
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(valid);
+                }
+                fileOut = new FileOutputStream(file, true);
+                out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Loads the log into memory.
+     *
+     * @return length of the valid part of the log or -1 if the log is stale
+     * @throws IOException
+     */
+    private long load() throws IOException {
+        CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        try (DataInputStream in = new DataInputStream(counter)) {
+            long valid;
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                        || !in.readUTF().equals(header)) {
+                    LOGGER.info(Category.EVENT, "Discarding stale cache file {}", file);
+                    return -1L;
+                }
+                valid = counter.getCount();
+            } catch (IOException ex) {
+                LOGGER.info(Category.EVENT, "Discarding unreadable cache file {}", file);
+                return -1L;
+            }
+            int traces = 0;
+            try {
+                while (true) {
+                    Word<PSymbolInstance> trace = codec.read(in);
+                    super.addToCache(trace);
+                    traces++;
+                    valid = counter.getCount();
+                }
+            } catch (EOFException ex) {
+                // end of log
+            } catch (IOException | IllegalStateException ex) {
+                // a record that cannot be decoded, e.g., written partially,
+                // or a trace that contradicts the traces before it
+                LOGGER.warn(Category.EVENT, "Truncating cache file {} at byte {}: {}",
+                        file, valid, ex.getMessage());
+            }
+            LOGGER.info(Category.EVENT, "Loaded {} traces from cache file {}", traces, file);
+            return valid;
+        }
+    }
+}
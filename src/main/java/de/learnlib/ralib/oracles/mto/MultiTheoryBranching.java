@@ -119,7 +119,7 @@ public class MultiTheoryBranching implements Branching {
                     SDTGuard guard = guards.get(e.getKey());
                     map.put(guard, e.getValue().buildFakeSDT());
                 }
-                return new SDT(map);
+                return SDT.create(map);
             }
             return SDTLeaf.REJECTING;
         }
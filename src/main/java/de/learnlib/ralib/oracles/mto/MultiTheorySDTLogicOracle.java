@@ -38,6 +38,7 @@ import de.learnlib.ralib.data.VarMapping;
 import de.learnlib.ralib.learning.SymbolicDecisionTree;
 import de.learnlib.ralib.oracles.SDTLogicOracle;
 import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.solver.SolverSession;
 import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.PSymbolInstance;
@@ -120,19 +121,28 @@ public class MultiTheorySDTLogicOracle implements SDTLogicOracle {
     	Map<GuardExpression, Boolean> exprMap1 = _sdt1.getGuardExpressions(consts);
     	Map<GuardExpression, Boolean> exprMap2 = _sdt2.getGuardExpressions(consts);
 
-    	for (Map.Entry<GuardExpression, Boolean> e1 : exprMap1.entrySet()) {
-    		GuardExpression expr1 = e1.getKey();
-    		boolean outcome1 = e1.getValue();
-    		for (Map.Entry<GuardExpression, Boolean> e2 : exprMap2.entrySet()) {
-    			GuardExpression expr2 = e2.getKey();
-    			boolean outcome2 = e2.getValue();
-    			if (outcome1 != outcome2) {
-    				VarMapping<Register, Register> remap = piv2.createRemapping(piv1);
-    				GuardExpression test = new Conjunction(expr1, expr2.relabel(remap));
-    				if (solver.isSatisfiable(test, new Mapping<>())) {
-    					return expr1;
+    	VarMapping<Register, Register> remap = piv2.createRemapping(piv1);
+    	try (SolverSession session = solver.createSession()) {
+    		for (Map.Entry<GuardExpression, Boolean> e1 : exprMap1.entrySet()) {
+    			GuardExpression expr1 = e1.getKey();
+    			boolean outcome1 = e1.getValue();
+    			// expr1 is shared by all checks against the paths of sdt2
+    			session.push();
+    			session.add(expr1);
+    			for (Map.Entry<GuardExpression, Boolean> e2 : exprMap2.entrySet()) {
+    				GuardExpression expr2 = e2.getKey();
+    				boolean outcome2 = e2.getValue();
+    				if (outcome1 != outcome2) {
+    					session.push();
+    					session.add(expr2.relabel(remap));
+    					boolean sat = session.isSatisfiable();
+    					session.pop();
+    					if (sat) {
+    						return expr1;
+    					}
     				}
     			}
+    			session.pop();
     		}
     	}
     	return null;
@@ -223,31 +233,39 @@ public class MultiTheorySDTLogicOracle implements SDTLogicOracle {
              valuation.put(entry.getValue(), parVal);
         }
 
-        boolean accepts = accepts(word, prefix, prefix.length(), _sdt, valuation);
-        return accepts;
+        // one session per word: values are added as the tree is descended,
+        // child guards are checked in nested scopes
+        try (SolverSession session = solver.createSession()) {
+            session.add(valuation);
+            return accepts(word, prefix.length(), _sdt, session);
+        }
     }
 
-    private boolean accepts(Word<PSymbolInstance> word, Word<PSymbolInstance> prefix, int symIndex, SDT sdt,
-            Mapping<SymbolicDataValue, DataValue<?>> valuation) {
+    private boolean accepts(Word<PSymbolInstance> word, int symIndex, SDT sdt,
+            SolverSession session) {
         boolean accepts;
         if (symIndex == word.length()) {
             accepts =  sdt.isAccepting();
         } else {
             PSymbolInstance sym = word.getSymbol(symIndex);
             if (sym.getBaseSymbol().getArity() == 0) {
-                accepts = accepts(word, prefix, symIndex + 1, sdt, valuation);
+                accepts = accepts(word, symIndex + 1, sdt, session);
             } else {
                 SDT nextSdt = sdt;
-                Mapping<SymbolicDataValue, DataValue<?>> newValuation = new Mapping<>();
-                newValuation.putAll(valuation);
                 for (int i = 0; i < sym.getBaseSymbol().getArity(); i++) {
                     DataValue value = sym.getParameterValues()[i];
                     SuffixValue suffixValue = nextSdt.getChildren().keySet().iterator().next().getParameter();
+                    Mapping<SymbolicDataValue, DataValue<?>> newValuation = new Mapping<>();
                     newValuation.put(suffixValue, value);
+                    session.add(newValuation);
                     boolean found = false;
                     for (Map.Entry<SDTGuard, SDT> entry : nextSdt.getChildren().entrySet()) {
                         TransitionGuard guardExpr = entry.getKey().toTG();
-                        if (solver.isSatisfiable(guardExpr.getCondition(), newValuation)) {
+                        session.push();
+                        session.add(guardExpr.getCondition());
+                        boolean sat = session.isSatisfiable();
+                        session.pop();
+                        if (sat) {
                             nextSdt = entry.getValue();
                             found = true;
                             break;
@@ -255,7 +273,7 @@ public class MultiTheorySDTLogicOracle implements SDTLogicOracle {
                     }
                     assert found : "Could not find a satisfiable guard";
                 }
-                accepts = accepts(word, prefix, symIndex+1, nextSdt, newValuation);
+                accepts = accepts(word, symIndex+1, nextSdt, session);
             }
         }
         return accepts;
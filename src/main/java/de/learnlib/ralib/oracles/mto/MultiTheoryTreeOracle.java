@@ -60,6 +60,7 @@ import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.theory.SDTTrueGuard;
 import de.learnlib.ralib.theory.Theory;
 import de.learnlib.ralib.theory.equality.EqualityGuard;
+import de.learnlib.ralib.theory.inequality.IntervalGuard;
 import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
@@ -80,6 +81,8 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
 
     private final ConstraintSolver solver;
 
+    private boolean batchLeafQueries = false;
+
     private static Logger LOGGER = LoggerFactory.getLogger(MultiTheoryTreeOracle.class);
 
     public MultiTheoryTreeOracle(MembershipOracle<PSymbolInstance, Boolean> oracle, Map<DataType, Theory> teachers, Constants constants,
@@ -90,10 +93,23 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
         this.solver = solver;
     }
 
+    /**
+     * Enables two-phase tree queries: all leaf words of a tree query are
+     * collected first and then submitted to the membership oracle as a
+     * single batch before the SDT is constructed from the answers.
+     *
+     * @param batchLeafQueries
+     */
+    public void setBatchLeafQueries(boolean batchLeafQueries) {
+        this.batchLeafQueries = batchLeafQueries;
+    }
+
     @Override
     public TreeQueryResult treeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix) {
         PIV pir = new PIV();
-        SDT sdt = treeQuery(prefix, suffix, new WordValuation(), pir, constants, new SuffixValuation());
+        SDT sdt = batchLeafQueries ?
+                batchedTreeQuery(prefix, suffix, pir) :
+                treeQuery(prefix, suffix, new WordValuation(), pir, constants, new SuffixValuation());
 
 //        System.out.println(prefix + " . " + suffix);
 //        System.out.println(sdt);
@@ -139,6 +155,12 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
             // return accept / reject as a leaf
         }
 
+        return innerTreeQuery(prefix, suffix, values, pir, constants, suffixValues, this);
+    }
+
+    private SDT innerTreeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix, WordValuation values, PIV pir,
+            Constants constants, SuffixValuation suffixValues, SDTConstructor caller) {
+
         // OTHERWISE get the first noninstantiated data value in the suffix and its type
         SymbolicDataValue sd = suffix.getDataValue(values.size() + 1);
 
@@ -146,7 +168,69 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
 
         // make a new tree query for prefix, suffix, prefix valuation, ...
         // to the correct teacher (given by type of first DV in suffix)
-        return teach.treeQuery(prefix, suffix, values, pir, constants, suffixValues, this);
+        return teach.treeQuery(prefix, suffix, values, pir, constants, suffixValues, caller);
+    }
+
+    /*
+     * Two-phase tree query: the leaf words are first enumerated through
+     * the theories' nextValuations without building or merging sub-trees
+     * and answered in one batch. The tree query then constructs the SDT
+     * from the stored answers. Leaves that a theory cannot enumerate
+     * in advance are answered with single queries.
+     */
+    private SDT batchedTreeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix, PIV pir) {
+        LeafQueryBatch batch = new LeafQueryBatch();
+        batch.enumerate(prefix, suffix, new WordValuation(), new SuffixValuation());
+
+        LOGGER.trace(Category.QUERY, "batch of {} leaf queries for {} . {}",
+                batch.queries.size(), prefix, suffix);
+        oracle.processQueries(batch.queries.values());
+
+        return batch.treeQuery(prefix, suffix, new WordValuation(), pir, constants, new SuffixValuation());
+    }
+
+    private class LeafQueryBatch implements SDTConstructor {
+
+        private final Map<Word<PSymbolInstance>, DefaultQuery<PSymbolInstance, Boolean>> queries =
+                new LinkedHashMap<>();
+
+        private void enumerate(Word<PSymbolInstance> prefix, SymbolicSuffix suffix, WordValuation values,
+                SuffixValuation suffixValues) {
+
+            if (values.size() == DataWords.paramLength(suffix.getActions())) {
+                Word<PSymbolInstance> concSuffix = DataWords.instantiate(suffix.getActions(), values);
+                queries.putIfAbsent(prefix.concat(concSuffix), new DefaultQuery<>(prefix, concSuffix));
+                return;
+            }
+
+            Theory teach = teachers.get(suffix.getDataValue(values.size() + 1).getType());
+            Optional<List<Pair<WordValuation, SuffixValuation>>> next =
+                    teach.nextValuations(prefix, suffix, values, constants, suffixValues);
+            if (!next.isPresent()) {
+                return;
+            }
+            for (Pair<WordValuation, SuffixValuation> p : next.get()) {
+                enumerate(prefix, suffix, p.getFirst(), p.getSecond());
+            }
+        }
+
+        @Override
+        public SDT treeQuery(Word<PSymbolInstance> prefix, SymbolicSuffix suffix, WordValuation values, PIV pir,
+                Constants constants, SuffixValuation suffixValues) {
+
+            if (values.size() < DataWords.paramLength(suffix.getActions())) {
+                return innerTreeQuery(prefix, suffix, values, pir, constants, suffixValues, this);
+            }
+
+            Word<PSymbolInstance> concSuffix = DataWords.instantiate(suffix.getActions(), values);
+            DefaultQuery<PSymbolInstance, Boolean> query = queries.get(prefix.concat(concSuffix));
+            if (query == null) {
+                // not enumerated in advance, ask directly
+                query = new DefaultQuery<>(prefix, concSuffix);
+                oracle.processQueries(Collections.singletonList(query));
+            }
+            return query.getOutput() ? SDTLeaf.ACCEPTING : SDTLeaf.REJECTING;
+        }
     }
 
     /**
@@ -401,6 +485,10 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
         if (b instanceof EqualityGuard)
             if (a.equals(((EqualityGuard) b).toDeqGuard()))
                 return false;
+        if (a instanceof IntervalGuard && ((IntervalGuard) a).excludes(b))
+            return false;
+        if (b instanceof IntervalGuard && ((IntervalGuard) b).excludes(a))
+            return false;
         return !mlo.areMutuallyExclusive(a.toTG(), new PIV(), b.toTG(), new PIV(), valuation);
     }
 
@@ -408,6 +496,9 @@ public class MultiTheoryTreeOracle implements TreeOracle, SDTConstructor {
             Mapping<SymbolicDataValue, DataValue<?>> valuation) {
         if (b instanceof SDTTrueGuard)
             return true;
+        if (a instanceof IntervalGuard && b instanceof IntervalGuard
+                && ((IntervalGuard) b).contains((IntervalGuard) a))
+            return true;
         boolean ref1 = mlo.doesRefine(a.toTG(), new PIV(), b.toTG(), new PIV(), valuation);
         return ref1;
     }
@@ -27,6 +27,7 @@ import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.ParameterGenerator
 import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.SuffixValueGenerator;
 import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.solver.SolverSession;
 import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.theory.SDTTrueGuard;
 import de.learnlib.ralib.theory.equality.DisequalityGuard;
@@ -373,14 +374,29 @@ public class OptimizedSymbolicSuffixBuilder {
             // we check for paths
             List<List<SDTGuard>> pathsSdt1 = sdt1.getPaths(b);
             List<List<SDTGuard>> pathsSdt2 = sdt2.getPaths(!b);
-            for (List<SDTGuard> pathSdt1 : pathsSdt1) {
-                GuardExpression expr1 = toGuardExpression(pathSdt1);
-                for (List<SDTGuard> pathSdt2 : pathsSdt2) {
-                    GuardExpression expr2 = toGuardExpression(pathSdt2);
-                    if (solver.isSatisfiable(new Conjunction(expr1, expr2), valuation)) {
-                        SymbolicSuffix suffix = buildOptimizedSuffix(prefix1, pathSdt1, piv1, prefix2, pathSdt2, piv2, suffixActions);
-                        best = pickBest(best, suffix);
+            List<GuardExpression> exprsSdt2 = new ArrayList<>(pathsSdt2.size());
+            for (List<SDTGuard> pathSdt2 : pathsSdt2) {
+                exprsSdt2.add(toGuardExpression(pathSdt2));
+            }
+            try (SolverSession session = solver.createSession()) {
+                session.add(valuation);
+                for (List<SDTGuard> pathSdt1 : pathsSdt1) {
+                    GuardExpression expr1 = toGuardExpression(pathSdt1);
+                    session.push();
+                    session.add(expr1);
+                    for (int i = 0; i < pathsSdt2.size(); i++) {
+                        List<SDTGuard> pathSdt2 = pathsSdt2.get(i);
+                        GuardExpression expr2 = exprsSdt2.get(i);
+                        session.push();
+                        session.add(expr2);
+                        boolean sat = session.isSatisfiable();
+                        session.pop();
+                        if (sat) {
+                            SymbolicSuffix suffix = buildOptimizedSuffix(prefix1, pathSdt1, piv1, prefix2, pathSdt2, piv2, suffixActions);
+                            best = pickBest(best, suffix);
+                        }
                     }
+                    session.pop();
                 }
             }
         }
@@ -16,8 +16,11 @@
  */
 package de.learnlib.ralib.oracles.mto;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -25,10 +28,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
 import de.learnlib.ralib.automata.guards.Conjunction;
 import de.learnlib.ralib.automata.guards.Disjunction;
 import de.learnlib.ralib.automata.guards.FalseGuardExpression;
 import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.automata.guards.Negation;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.DataValue;
 import de.learnlib.ralib.data.Mapping;
@@ -50,10 +58,82 @@ import de.learnlib.ralib.theory.inequality.IntervalGuard;
  */
 public class SDT implements SymbolicDecisionTree {
 
+    private static final Interner<SDT> INTERNER = Interners.newWeakInterner();
+
     private final Map<SDTGuard, SDT> children;
 
+    private final int hash;
+
+    /**
+     * paths (of this tree and of all its subtrees), guard expressions and
+     * register signatures, computed on demand, and the most recent
+     * relabelings of this tree. Held softly, so that they can be dropped
+     * under memory pressure
+     */
+    private volatile SoftReference<Memo> memo = null;
+
+    private static final int MAX_RELABELINGS = 8;
+
+    private static final class Memo {
+
+        private final Map<VarMapping, SDT> relabelings = Collections.synchronizedMap(
+                new LinkedHashMap<VarMapping, SDT>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Entry<VarMapping, SDT> eldest) {
+                        return size() > MAX_RELABELINGS;
+                    }
+                });
+
+        private volatile Map<List<SDTGuard>, Boolean> allPaths = null;
+
+        private volatile GuardExpression acceptingPaths = null;
+
+        private volatile Map<GuardExpression, Boolean> guardExpressions = null;
+
+        private volatile Map<Register, Set<String>> registerSignatures = null;
+    }
+
+    /**
+     * Creates an immutable SDT. The children are copied, so later changes
+     * to the passed map do not affect the tree.
+     *
+     * @param children
+     */
     public SDT(Map<SDTGuard, SDT> children) {
-        this.children = children;
+        if (children == null) {
+            this.children = null;
+            this.hash = 0;
+        } else {
+            this.children = Collections.unmodifiableMap(new LinkedHashMap<>(children));
+            int h = 1;
+            for (Entry<SDTGuard, SDT> e : children.entrySet()) {
+                h = 31 * h + e.getKey().hashCode() + e.getKey().getParameter().hashCode();
+                h = 31 * h + e.getValue().hashCode();
+            }
+            this.hash = h;
+        }
+    }
+
+    /**
+     * Returns the canonical instance of the SDT with the given children.
+     * Equal trees created through this method share one instance, so that
+     * equal subtrees are stored only once and comparing them is cheap.
+     *
+     * @param children
+     * @return
+     */
+    public static SDT create(Map<SDTGuard, SDT> children) {
+        return INTERNER.intern(new SDT(children));
+    }
+
+    private Memo memo() {
+        SoftReference<Memo> ref = memo;
+        Memo m = (ref != null) ? ref.get() : null;
+        if (m == null) {
+            m = new Memo();
+            memo = new SoftReference<>(m);
+        }
+        return m;
     }
 
 //    public Set<SDTGuard> getGuards() {
@@ -242,17 +322,72 @@ public class SDT implements SymbolicDecisionTree {
             return this;
         }
 
+        // subtrees shared through interning are relabeled once per mapping
+        Map<VarMapping, SDT> relabelings = memo().relabelings;
+        SDT relabelled = relabelings.get(relabelling);
+        if (relabelled != null) {
+            return relabelled;
+        }
+
         Map<SDTGuard, SDT> reChildren = new LinkedHashMap<>();
         // for each of the kids
         for (Entry<SDTGuard, SDT> e : thisSdt.children.entrySet()) {
                 reChildren.put(e.getKey().relabel(relabelling),
                     (SDT) e.getValue().relabel(relabelling));
             }
-        SDT relabelled = new SDT(reChildren);
+        relabelled = create(reChildren);
         assert !relabelled.isEmpty();
+
+        // store a copy, the passed mapping may be changed by the caller
+        VarMapping key = new VarMapping();
+        key.putAll(relabelling);
+        relabelings.put(key, relabelled);
         return relabelled;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        SDT other = (SDT) obj;
+        if (children == null || other.children == null) {
+            return false;
+        }
+        if (hash != other.hash || children.size() != other.children.size()) {
+            return false;
+        }
+        // children are compared in order, so that equal trees print and
+        // enumerate their paths identically
+        Iterator<Entry<SDTGuard, SDT>> it = other.children.entrySet().iterator();
+        for (Entry<SDTGuard, SDT> e : children.entrySet()) {
+            Entry<SDTGuard, SDT> o = it.next();
+            if (!sameGuard(e.getKey(), o.getKey()) || !e.getValue().equals(o.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Guard equality is not strict enough for sharing trees: e.g., true
+     * guards are equal regardless of their parameter. Guards are therefore
+     * also required to have the same parameter and the same printed form.
+     */
+    private static boolean sameGuard(SDTGuard g1, SDTGuard g2) {
+        return g1 == g2 || (g1.equals(g2)
+                && g1.getParameter().equals(g2.getParameter())
+                && g1.toString().equals(g2.toString()));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
 
     /* ***
      *
@@ -374,6 +509,8 @@ public class SDT implements SymbolicDecisionTree {
         SDT thisSdt = this;
         if (other instanceof SDTLeaf) { // trees with incompatible sizes can't use each other
             return false;
+        } else if (thisSdt.equals(other)) {
+            return true;
         } else {
             boolean accEq = (thisSdt.isAccepting() == other.isAccepting());
             boolean chiEq = canPairBranches(thisSdt.getChildren(),
@@ -382,116 +519,199 @@ public class SDT implements SymbolicDecisionTree {
         }
     }
 
+    /**
+     * Describes for every register how it is used in this tree, independently
+     * of the names of the registers: each element records the depth and
+     * outcome of a path, and a comparison of the register on that path with
+     * a suffix value, a constant, or some other register. Trees that are
+     * equivalent under a renaming of registers assign equal descriptions to
+     * registers that are mapped onto each other.
+     *
+     * @return signatures of the registers in this tree
+     */
+    public Map<Register, Set<String>> getRegisterSignatures() {
+        Memo m = memo();
+        Map<Register, Set<String>> ret = m.registerSignatures;
+        if (ret == null) {
+            ret = new LinkedHashMap<>();
+            for (Entry<List<SDTGuard>, Boolean> e : getAllPaths().entrySet()) {
+                List<SDTGuard> path = e.getKey();
+                for (int i = 0; i < path.size(); i++) {
+                    collectSignatures(path.get(i).toExpr(),
+                            (e.getValue() ? "+" : "-") + i + ":", ret);
+                }
+            }
+            m.registerSignatures = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Combines the register signatures of several trees, e.g., of the cells
+     * of a row. Trees are told apart by their keys.
+     *
+     * @param trees
+     * @return signatures of the registers in all trees
+     */
+    public static Map<Register, Set<String>> getRegisterSignatures(
+            Map<?, ? extends SymbolicDecisionTree> trees) {
+        Map<Register, Set<String>> ret = new LinkedHashMap<>();
+        for (Entry<?, ? extends SymbolicDecisionTree> e : trees.entrySet()) {
+            if (!(e.getValue() instanceof SDT)) {
+                continue;
+            }
+            String tag = e.getKey().hashCode() + "/";
+            for (Entry<Register, Set<String>> sig : ((SDT) e.getValue()).getRegisterSignatures().entrySet()) {
+                Set<String> combined = ret.computeIfAbsent(sig.getKey(), k -> new LinkedHashSet<>());
+                sig.getValue().forEach(x -> combined.add(tag + x));
+            }
+        }
+        return ret;
+    }
+
+    private static void collectSignatures(GuardExpression expr, String ctx,
+            Map<Register, Set<String>> signatures) {
+        if (expr instanceof AtomicGuardExpression) {
+            AtomicGuardExpression<?, ?> age = (AtomicGuardExpression<?, ?>) expr;
+            SymbolicDataValue l = age.getLeft();
+            SymbolicDataValue r = age.getRight();
+            if (l.isRegister()) {
+                signatures.computeIfAbsent((Register) l, k -> new LinkedHashSet<>())
+                        .add(ctx + age.getRelation() + ">" + anonymous(r));
+            }
+            if (r.isRegister()) {
+                signatures.computeIfAbsent((Register) r, k -> new LinkedHashSet<>())
+                        .add(ctx + age.getRelation() + "<" + anonymous(l));
+            }
+        } else if (expr instanceof Negation) {
+            collectSignatures(((Negation) expr).getNegated(), ctx + "!", signatures);
+        } else if (expr instanceof Conjunction) {
+            for (GuardExpression ge : ((Conjunction) expr).getConjuncts()) {
+                collectSignatures(ge, ctx + "&", signatures);
+            }
+        } else if (expr instanceof Disjunction) {
+            for (GuardExpression ge : ((Disjunction) expr).getDisjuncts()) {
+                collectSignatures(ge, ctx + "|", signatures);
+            }
+        }
+    }
+
+    private static String anonymous(SymbolicDataValue sv) {
+        return (sv.isRegister() || sv.isParameter()) ?
+                sv.getType().getName() : sv.toString();
+    }
+
     public boolean isEmpty() {
         return this.getChildren().isEmpty();
     }
 
     GuardExpression getAcceptingPaths(Constants consts) {
+        Memo m = memo();
+        GuardExpression dis = m.acceptingPaths;
+        if (dis != null) {
+            return dis;
+        }
 
-        List<List<SDTGuard>> paths = getPaths(new ArrayList<SDTGuard>());
+        List<List<SDTGuard>> paths = getPaths(true);
         if (paths.isEmpty()) {
-            return FalseGuardExpression.FALSE;
+            dis = FalseGuardExpression.FALSE;
         }
-        GuardExpression dis = null;
         for (List<SDTGuard> list : paths) {
-            List<GuardExpression> expr = new ArrayList<>();
-            for (SDTGuard g : list) {
-                expr.add(g.toExpr());
-            }
-            Conjunction con = new Conjunction(
-                    expr.toArray(new GuardExpression[] {}));
-
+            Conjunction con = toConjunction(list);
             dis = (dis == null) ? con : new Disjunction(dis, con);
         }
 
+        m.acceptingPaths = dis;
         return dis;
     }
 
     GuardExpression getPaths(Constants consts) {
+        return getAcceptingPaths(consts);
+    }
 
-        List<List<SDTGuard>> paths = getPaths(new ArrayList<SDTGuard>());
-        if (paths.isEmpty()) {
-            return FalseGuardExpression.FALSE;
+    /**
+     * @param consts
+     * @return the guard expressions of all paths and their outcomes;
+     *         the map is shared and cannot be modified
+     */
+    Map<GuardExpression, Boolean> getGuardExpressions(Constants consts) {
+        Memo m = memo();
+        Map<GuardExpression, Boolean> expressions = m.guardExpressions;
+        if (expressions != null) {
+            return expressions;
         }
-        GuardExpression dis = null;
-        for (List<SDTGuard> list : paths) {
-            List<GuardExpression> expr = new ArrayList<>();
-            for (SDTGuard g : list) {
-                expr.add(g.toExpr());
-            }
-            Conjunction con = new Conjunction(
-                    expr.toArray(new GuardExpression[] {}));
 
-            dis = (dis == null) ? con : new Disjunction(dis, con);
+        expressions = new LinkedHashMap<>();
+        Map<List<SDTGuard>, Boolean> paths = getAllPaths();
+        if (paths.isEmpty()) {
+            expressions.put(FalseGuardExpression.FALSE, false);
+        }
+        for (Map.Entry<List<SDTGuard>, Boolean> e : paths.entrySet()) {
+            expressions.put(toConjunction(e.getKey()), e.getValue());
         }
 
-        return dis;
+        expressions = Collections.unmodifiableMap(expressions);
+        m.guardExpressions = expressions;
+        return expressions;
     }
 
-    Map<GuardExpression, Boolean> getGuardExpressions(Constants consts) {
-    	Map<GuardExpression, Boolean> expressions = new LinkedHashMap<>();
-    	Map<List<SDTGuard>, Boolean> paths = getAllPaths(new ArrayList<SDTGuard>());
-    	if (paths.isEmpty()) {
-    		expressions.put(FalseGuardExpression.FALSE, false);
-    		return expressions;
-    	}
-    	for (Map.Entry<List<SDTGuard>, Boolean> e : paths.entrySet()) {
-    		List<SDTGuard> list = e.getKey();
-    		List<GuardExpression> expr = new ArrayList<>();
-    		for (SDTGuard g : list) {
-    			expr.add(g.toExpr());
-    		}
-    		Conjunction con = new Conjunction(
-    				expr.toArray(new GuardExpression[] {}));
-    		expressions.put(con, e.getValue());
-    	}
-
-    	return expressions;
+    private static Conjunction toConjunction(List<SDTGuard> path) {
+        GuardExpression[] expr = new GuardExpression[path.size()];
+        int i = 0;
+        for (SDTGuard g : path) {
+            expr[i++] = g.toExpr();
+        }
+        return new Conjunction(expr);
     }
 
     List<List<SDTGuard>> getPaths(List<SDTGuard> path) {
         List<List<SDTGuard>> ret = new ArrayList<>();
-        for (Entry<SDTGuard, SDT> e : this.children.entrySet()) {
-            List<SDTGuard> nextPath = new ArrayList<>(path);
-            nextPath.add(e.getKey());
-            List<List<SDTGuard>> nextRet = e.getValue().getPaths(nextPath);
-            ret.addAll(nextRet);
+        for (Entry<List<SDTGuard>, Boolean> e : getAllPaths().entrySet()) {
+            if (e.getValue()) {
+                List<SDTGuard> nextPath = new ArrayList<>(path);
+                nextPath.addAll(e.getKey());
+                ret.add(nextPath);
+            }
         }
-
         return ret;
     }
 
-
     List<List<SDTGuard>> getPaths(boolean accepting) {
         List<List<SDTGuard>> collectedPaths = new ArrayList<List<SDTGuard>>();
-        getPaths(accepting, new ArrayList<>(), this, collectedPaths);
+        for (Entry<List<SDTGuard>, Boolean> e : getAllPaths().entrySet()) {
+            if (e.getValue() == accepting) {
+                collectedPaths.add(e.getKey());
+            }
+        }
         return collectedPaths;
     }
 
-    private void getPaths(boolean accepting, List<SDTGuard> path, SDT sdt, List<List<SDTGuard>> collectedPaths) {
-        if (sdt instanceof SDTLeaf) {
-            if (sdt.isAccepting() == accepting) {
-                collectedPaths.add(path);
-            }
-        } else {
-            for (Entry<SDTGuard, SDT> e : sdt.children.entrySet()) {
-                List<SDTGuard> nextPath = new ArrayList<>(path);
-                nextPath.add(e.getKey());
-                SDT nextSdt = e.getValue();
-                getPaths(accepting, nextPath, nextSdt, collectedPaths);
-            }
+    /**
+     * Computes the paths of this tree and their outcomes once. The paths
+     * are built from the memoized paths of the children, so subtrees that
+     * are shared through interning are enumerated once.
+     *
+     * @return the paths, shared and cannot be modified
+     */
+    Map<List<SDTGuard>, Boolean> getAllPaths() {
+        Memo m = memo();
+        Map<List<SDTGuard>, Boolean> ret = m.allPaths;
+        if (ret != null) {
+            return ret;
         }
-    }
 
-    Map<List<SDTGuard>, Boolean> getAllPaths(List<SDTGuard> path) {
-        Map<List<SDTGuard>, Boolean> ret = new LinkedHashMap<>();
+        ret = new LinkedHashMap<>();
         for (Entry<SDTGuard, SDT> e : this.children.entrySet()) {
-            List<SDTGuard> nextPath = new ArrayList<>(path);
-            nextPath.add(e.getKey());
-            Map<List<SDTGuard>, Boolean> nextRet = e.getValue().getAllPaths(nextPath);
-            ret.putAll(nextRet);
+            for (Entry<List<SDTGuard>, Boolean> p : e.getValue().getAllPaths().entrySet()) {
+                List<SDTGuard> path = new ArrayList<>(p.getKey().size() + 1);
+                path.add(e.getKey());
+                path.addAll(p.getKey());
+                ret.put(Collections.unmodifiableList(path), p.getValue());
+            }
         }
 
+        ret = Collections.unmodifiableMap(ret);
+        m.allPaths = ret;
         return ret;
     }
 
@@ -515,13 +735,8 @@ public class SDT implements SymbolicDecisionTree {
 
 	@Override
 	public SDT copy() {
-		Map<SDTGuard, SDT> cc = new LinkedHashMap<>();
-		if (children != null) {
-			for (Map.Entry<SDTGuard, SDT> e : children.entrySet()) {
-				cc.put(e.getKey().copy(), e.getValue().copy());
-			}
-		}
-		return new SDT(cc);
+		// SDTs and their guards are immutable
+		return this;
 	}
 
 }
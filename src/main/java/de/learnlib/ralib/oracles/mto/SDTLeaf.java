@@ -17,7 +17,7 @@
 package de.learnlib.ralib.oracles.mto;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +78,21 @@ public class SDTLeaf extends SDT {
         return this;
     }
 
+    @Override
+    public SDT copy() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(accepting);
+    }
+
     @Override
     public boolean isAccepting() {
         return accepting;
@@ -99,10 +114,8 @@ public class SDTLeaf extends SDT {
     }
 
     @Override
-    Map<List<SDTGuard>, Boolean> getAllPaths(List<SDTGuard> path) {
-    	Map<List<SDTGuard>, Boolean> ret = new LinkedHashMap<>();
-    	ret.put(path, this.isAccepting());
-    	return ret;
+    Map<List<SDTGuard>, Boolean> getAllPaths() {
+        return Collections.singletonMap(Collections.emptyList(), this.isAccepting());
     }
 
     @Override
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
+import de.learnlib.ralib.automata.guards.Conjunction;
+import de.learnlib.ralib.automata.guards.Disjunction;
+import de.learnlib.ralib.automata.guards.FalseGuardExpression;
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.automata.guards.Negation;
+import de.learnlib.ralib.automata.guards.Relation;
+import de.learnlib.ralib.automata.guards.TrueGuardExpression;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+
+/**
+ * Constraint solver that memoizes the results of another solver.
+ *
+ * Results are cached under a normalized form of the expression and the
+ * part of the valuation that assigns values to symbolic data values of the
+ * expression. The normal form ignores the order of conjuncts, disjuncts,
+ * and of the operands of (in)equalities, flattens nested conjunctions and
+ * disjunctions, and removes double negations. The cache is bounded and
+ * evicts the least recently used entries.
+ */
+public class CachingConstraintSolver implements ConstraintSolver {
+
+    private static final class Key {
+
+        private final Object expr;
+        private final Map<SymbolicDataValue, DataValue<?>> val;
+        private final int hash;
+
+        Key(Object expr, Map<SymbolicDataValue, DataValue<?>> val) {
+            this.expr = expr;
+            this.val = val;
+            this.hash = 31 * expr.hashCode() + val.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && expr.equals(other.expr) && val.equals(other.val);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final ConstraintSolver solver;
+
+    private final Map<Key, Boolean> cache;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    public CachingConstraintSolver(ConstraintSolver solver, final int maxSize) {
+        this.solver = solver;
+        this.cache = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public boolean isSatisfiable(GuardExpression expr, Mapping<SymbolicDataValue, DataValue<?>> val) {
+        Map<SymbolicDataValue, DataValue<?>> relevant = new HashMap<>();
+        for (SymbolicDataValue sv : expr.getSymbolicDataValues()) {
+            DataValue<?> d = val.get(sv);
+            if (d != null) {
+                relevant.put(sv, d);
+            }
+        }
+        Key key = new Key(normalize(expr), relevant);
+        synchronized (cache) {
+            Boolean ret = cache.get(key);
+            if (ret != null) {
+                hits++;
+                return ret;
+            }
+            misses++;
+        }
+        boolean ret = solver.isSatisfiable(expr, val);
+        synchronized (cache) {
+            cache.put(key, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Sessions are not cached: they are passed through to the wrapped
+     * solver, which may support incremental checks.
+     */
+    @Override
+    public SolverSession createSession() {
+        return solver.createSession();
+    }
+
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    private static Object normalize(GuardExpression expr) {
+        if (expr instanceof TrueGuardExpression) {
+            return Boolean.TRUE;
+        }
+        if (expr instanceof FalseGuardExpression) {
+            return Boolean.FALSE;
+        }
+        if (expr instanceof Negation) {
+            GuardExpression negated = ((Negation) expr).getNegated();
+            if (negated instanceof Negation) {
+                return normalize(((Negation) negated).getNegated());
+            }
+            return Arrays.asList("!", normalize(negated));
+        }
+        if (expr instanceof Conjunction) {
+            return junction("&&", ((Conjunction) expr).getConjuncts());
+        }
+        if (expr instanceof Disjunction) {
+            return junction("||", ((Disjunction) expr).getDisjuncts());
+        }
+        if (expr instanceof AtomicGuardExpression) {
+            AtomicGuardExpression age = (AtomicGuardExpression) expr;
+            SymbolicDataValue l = age.getLeft();
+            SymbolicDataValue r = age.getRight();
+            switch (age.getRelation()) {
+                case EQUALS:
+                case NOT_EQUALS:
+                    Set<SymbolicDataValue> operands = new HashSet<>(Arrays.asList(l, r));
+                    return Arrays.asList(age.getRelation(), operands);
+                case BIGGER:
+                    return Arrays.asList(Relation.SMALLER, r, l);
+                default:
+                    return Arrays.asList(age.getRelation(), l, r);
+            }
+        }
+        // unknown expression: no normalization
+        return Collections.singletonList(expr);
+    }
+
+    private static Object junction(String op, GuardExpression[] parts) {
+        Set<Object> normalized = new HashSet<>();
+        collect(op, parts, normalized);
+        if (normalized.size() == 1) {
+            return normalized.iterator().next();
+        }
+        List<Object> ret = new ArrayList<>();
+        ret.add(op);
+        ret.add(normalized);
+        return ret;
+    }
+
+    private static void collect(String op, GuardExpression[] parts, Set<Object> normalized) {
+        for (GuardExpression ge : parts) {
+            Object n = normalize(ge);
+            if (n instanceof List && ((List) n).size() == 2 && op.equals(((List) n).get(0))) {
+                normalized.addAll((Set<?>) ((List) n).get(1));
+            } else {
+                normalized.add(n);
+            }
+        }
+    }
+}
@@ -29,4 +29,15 @@ public interface ConstraintSolver {
 
     public boolean isSatisfiable(GuardExpression expr, Mapping<SymbolicDataValue, DataValue<?>> val);
 
+    /**
+     * Creates a session for a series of satisfiability checks that share
+     * assertions. Solvers without incremental support answer the checks of
+     * the session through {@link #isSatisfiable(GuardExpression, Mapping)}.
+     *
+     * @return a new session, to be closed by the caller
+     */
+    public default SolverSession createSession() {
+        return new StackedSolverSession(this);
+    }
+
 }
@@ -21,6 +21,7 @@ import java.util.Properties;
 
 import de.learnlib.ralib.solver.jconstraints.JConstraintsConstraintSolver;
 import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.solver.simple.UnionFindConstraintSolver;
 import gov.nasa.jpf.constraints.solvers.nativez3.NativeZ3SolverProvider;
 
 /**
@@ -33,12 +34,16 @@ public class ConstraintSolverFactory {
 
     public final static String ID_Z3 = "z3";
 
+    public final static String ID_UNION_FIND = "unionfind";
+
     public static ConstraintSolver createSolver(final String id) {
         switch (id) {
             case ID_SIMPLE:
                 return createSimpleConstraintSolver();
             case ID_Z3:
                 return createZ3ConstraintSolver();
+            case ID_UNION_FIND:
+                return createUnionFindConstraintSolver();
             default:
                 throw new RuntimeException("Unsupported constraint solver: " + id);
         }
@@ -48,6 +53,10 @@ public class ConstraintSolverFactory {
         return new SimpleConstraintSolver();
     }
 
+    public static UnionFindConstraintSolver createUnionFindConstraintSolver() {
+        return new UnionFindConstraintSolver();
+    }
+
     public static JConstraintsConstraintSolver createZ3ConstraintSolver() {
         return new JConstraintsConstraintSolver(
                 (new NativeZ3SolverProvider()).createSolver(new Properties()));
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.solver;
+
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+
+/**
+ * A sequence of satisfiability checks over a stack of assertion scopes.
+ *
+ * Assertions are added to the innermost scope and are dropped when the
+ * scope is popped. This allows checking several expressions against a
+ * common context without asserting the context again for every check.
+ */
+public interface SolverSession extends AutoCloseable {
+
+    /**
+     * adds an expression to the current scope
+     */
+    void add(GuardExpression expr);
+
+    /**
+     * adds the assignments of a valuation to the current scope
+     */
+    void add(Mapping<SymbolicDataValue, DataValue<?>> val);
+
+    /**
+     * opens a new scope
+     */
+    void push();
+
+    /**
+     * drops the innermost scope and all assertions made in it
+     */
+    void pop();
+
+    /**
+     * @return true if the conjunction of all current assertions is satisfiable
+     */
+    boolean isSatisfiable();
+
+    @Override
+    void close();
+
+}
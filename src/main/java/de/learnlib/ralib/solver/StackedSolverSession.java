@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import de.learnlib.ralib.automata.guards.Conjunction;
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+
+/**
+ * Session for solvers without incremental support: the assertions of all
+ * scopes are conjoined and checked by the solver on every check.
+ */
+public class StackedSolverSession implements SolverSession {
+
+    private static final class Scope {
+        final List<GuardExpression> exprs = new ArrayList<>();
+        final List<Mapping<SymbolicDataValue, DataValue<?>>> vals = new ArrayList<>();
+    }
+
+    private final ConstraintSolver solver;
+
+    private final Deque<Scope> scopes = new ArrayDeque<>();
+
+    public StackedSolverSession(ConstraintSolver solver) {
+        this.solver = solver;
+        this.scopes.push(new Scope());
+    }
+
+    @Override
+    public void add(GuardExpression expr) {
+        scopes.peek().exprs.add(expr);
+    }
+
+    @Override
+    public void add(Mapping<SymbolicDataValue, DataValue<?>> val) {
+        scopes.peek().vals.add(val);
+    }
+
+    @Override
+    public void push() {
+        scopes.push(new Scope());
+    }
+
+    @Override
+    public void pop() {
+        if (scopes.size() < 2) {
+            throw new IllegalStateException("No scope to pop");
+        }
+        scopes.pop();
+    }
+
+    @Override
+    public boolean isSatisfiable() {
+        List<GuardExpression> exprs = new ArrayList<>();
+        Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+        // oldest scope first
+        scopes.descendingIterator().forEachRemaining(s -> {
+            exprs.addAll(s.exprs);
+            s.vals.forEach(val::putAll);
+        });
+        GuardExpression expr = (exprs.size() == 1) ? exprs.get(0) :
+                new Conjunction(exprs.toArray(new GuardExpression[exprs.size()]));
+        return solver.isSatisfiable(expr, val);
+    }
+
+    @Override
+    public void close() {
+        scopes.clear();
+    }
+
+}
@@ -16,13 +16,19 @@
  */
 package de.learnlib.ralib.solver.jconstraints;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import de.learnlib.ralib.automata.guards.GuardExpression;
 import de.learnlib.ralib.data.DataValue;
 import de.learnlib.ralib.data.Mapping;
 import de.learnlib.ralib.data.SymbolicDataValue;
 import de.learnlib.ralib.solver.*;
 import gov.nasa.jpf.constraints.api.ConstraintSolver.Result;
-import gov.nasa.jpf.constraints.api.Expression;
+import gov.nasa.jpf.constraints.api.SolverContext;
+import gov.nasa.jpf.constraints.api.Variable;
 
 /**
  *
@@ -32,6 +38,19 @@ public class JConstraintsConstraintSolver implements ConstraintSolver {
 
     private final gov.nasa.jpf.constraints.api.ConstraintSolver solver;
 
+    /**
+     * translation of symbolic data values to variables, shared by all checks
+     */
+    private final Map<SymbolicDataValue, Variable> variables = new ConcurrentHashMap<>();
+
+    /**
+     * idle solver contexts of each thread. Contexts are borrowed for a
+     * single check or a session and returned with all scopes popped, so
+     * checks neither share a context across threads nor wait for a lock.
+     */
+    private final ThreadLocal<Deque<SolverContext>> idle =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
     public JConstraintsConstraintSolver(
             gov.nasa.jpf.constraints.api.ConstraintSolver solver) {
         this.solver = solver;
@@ -39,9 +58,85 @@ public class JConstraintsConstraintSolver implements ConstraintSolver {
 
     @Override
     public boolean isSatisfiable(GuardExpression expr, Mapping<SymbolicDataValue, DataValue<?>> val) {
-        Expression<Boolean> jexpr = JContraintsUtil.toExpression(expr, val);
-        Result r = solver.isSatisfiable(jexpr);
-        return r == Result.SAT;
+        SolverContext context = borrow();
+        context.push();
+        try {
+            context.add(JContraintsUtil.toExpression(expr, variables));
+            context.add(JContraintsUtil.toExpression(val, variables));
+            return context.isSatisfiable() == Result.SAT;
+        } finally {
+            context.pop();
+            idle.get().push(context);
+        }
+    }
+
+    /**
+     * Creates a session on a reused solver context, so that assertions
+     * are translated and sent to the solver only once per scope.
+     */
+    @Override
+    public SolverSession createSession() {
+        return new Session(borrow());
+    }
+
+    private SolverContext borrow() {
+        SolverContext context = idle.get().poll();
+        return (context != null) ? context : solver.createContext();
+    }
+
+    private class Session implements SolverSession {
+
+        private SolverContext ctx;
+
+        /**
+         * number of scopes opened on the context, including the base scope
+         */
+        private int depth = 1;
+
+        Session(SolverContext ctx) {
+            this.ctx = ctx;
+            ctx.push();
+        }
+
+        @Override
+        public void add(GuardExpression expr) {
+            ctx.add(JContraintsUtil.toExpression(expr, variables));
+        }
+
+        @Override
+        public void add(Mapping<SymbolicDataValue, DataValue<?>> val) {
+            ctx.add(JContraintsUtil.toExpression(val, variables));
+        }
+
+        @Override
+        public void push() {
+            ctx.push();
+            depth++;
+        }
+
+        @Override
+        public void pop() {
+            if (depth < 2) {
+                throw new IllegalStateException("No scope to pop");
+            }
+            ctx.pop();
+            depth--;
+        }
+
+        @Override
+        public boolean isSatisfiable() {
+            return ctx.isSatisfiable() == Result.SAT;
+        }
+
+        @Override
+        public void close() {
+            if (ctx == null) {
+                return;
+            }
+            ctx.pop(depth);
+            idle.get().push(ctx);
+            ctx = null;
+        }
     }
 
 }
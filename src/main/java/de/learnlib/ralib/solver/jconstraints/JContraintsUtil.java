@@ -16,6 +16,7 @@
  */
 package de.learnlib.ralib.solver.jconstraints;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -157,7 +158,12 @@ public class JContraintsUtil {
     }
 
     public static Constant toConstant(DataValue v) {
-        return new Constant( getJCType(v.getType().getBase()), (v.getId()));
+        Object id = v.getId();
+        if (id instanceof Long) {
+            // longs are mapped to decimals (see getJCType)
+            id = BigDecimal.valueOf((Long) id);
+        }
+        return new Constant( getJCType(v.getType().getBase()), id);
     }
 
     public static Variable toVariable(DataValue v) {
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.solver.simple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
+import de.learnlib.ralib.automata.guards.Conjunction;
+import de.learnlib.ralib.automata.guards.Disjunction;
+import de.learnlib.ralib.automata.guards.FalseGuardExpression;
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.automata.guards.Negation;
+import de.learnlib.ralib.automata.guards.TrueGuardExpression;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.solver.ConstraintSolver;
+
+/**
+ * Decision procedure for guards that only contain equalities and
+ * disequalities between symbolic data values.
+ *
+ * Equalities are merged into an undoable union-find structure, disequalities
+ * are kept as edges between classes, and values from the valuation are
+ * attached to the roots of their classes. Disjunctions are explored by
+ * backtracking after all other constraints have been asserted, so guards are
+ * never converted into a disjunctive normal form.
+ */
+public class UnionFindConstraintSolver implements ConstraintSolver {
+
+    /**
+     * Persistent list of pending (possibly negated) expressions.
+     */
+    private static final class Goals {
+
+        final GuardExpression expr;
+        final boolean positive;
+        final Goals next;
+
+        Goals(GuardExpression expr, boolean positive, Goals next) {
+            this.expr = expr;
+            this.positive = positive;
+            this.next = next;
+        }
+    }
+
+    private static final class State {
+
+        final int[] parent;
+        final int[] rank;
+        final DataValue<?>[] value;
+
+        final List<int[]> disequalities = new ArrayList<>();
+
+        // undo log: {merged root, new root, old rank of new root}
+        final List<int[]> trail = new ArrayList<>();
+        final List<DataValue<?>> trailValues = new ArrayList<>();
+
+        State(int size) {
+            parent = new int[size];
+            rank = new int[size];
+            value = new DataValue<?>[size];
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+            }
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                x = parent[x];
+            }
+            return x;
+        }
+
+        boolean union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return true;
+            }
+            if (value[ra] != null && value[rb] != null && !value[ra].equals(value[rb])) {
+                return false;
+            }
+            for (int[] d : disequalities) {
+                int x = find(d[0]);
+                int y = find(d[1]);
+                if ((x == ra && y == rb) || (x == rb && y == ra)) {
+                    return false;
+                }
+            }
+            if (rank[ra] > rank[rb]) {
+                int tmp = ra;
+                ra = rb;
+                rb = tmp;
+            }
+            trail.add(new int[] {ra, rb, rank[rb]});
+            trailValues.add(value[rb]);
+            parent[ra] = rb;
+            if (rank[ra] == rank[rb]) {
+                rank[rb]++;
+            }
+            if (value[rb] == null) {
+                value[rb] = value[ra];
+            }
+            return true;
+        }
+
+        boolean separate(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            if (value[ra] == null || value[rb] == null) {
+                disequalities.add(new int[] {a, b});
+            }
+            return true;
+        }
+
+        int mark() {
+            return trail.size();
+        }
+
+        int markDisequalities() {
+            return disequalities.size();
+        }
+
+        void undo(int mark, int diseqMark) {
+            while (trail.size() > mark) {
+                int last = trail.size() - 1;
+                int[] t = trail.remove(last);
+                DataValue<?> v = trailValues.remove(last);
+                parent[t[0]] = t[0];
+                rank[t[1]] = t[2];
+                value[t[1]] = v;
+            }
+            while (disequalities.size() > diseqMark) {
+                disequalities.remove(disequalities.size() - 1);
+            }
+        }
+    }
+
+    @Override
+    public boolean isSatisfiable(GuardExpression expr, Mapping<SymbolicDataValue, DataValue<?>> val) {
+        Set<SymbolicDataValue> sdvs = expr.getSymbolicDataValues();
+        Map<SymbolicDataValue, Integer> index = new HashMap<>();
+        State state = new State(sdvs.size());
+        Map<DataValue<?>, Integer> byValue = new HashMap<>();
+        for (SymbolicDataValue sv : sdvs) {
+            int i = index.size();
+            index.put(sv, i);
+            DataValue<?> d = val.get(sv);
+            if (d == null) {
+                continue;
+            }
+            Integer other = byValue.get(d);
+            if (other == null) {
+                byValue.put(d, i);
+                state.value[i] = d;
+            } else {
+                state.union(i, other);
+            }
+        }
+        return solve(new Goals(expr, true, null), null, state, index);
+    }
+
+    /**
+     * Asserts all pending goals and branches on the deferred
+     * disjunctive goals once nothing else is left.
+     */
+    private boolean solve(Goals goals, Goals choices, State state,
+            Map<SymbolicDataValue, Integer> index) {
+
+        while (goals != null) {
+            GuardExpression e = goals.expr;
+            boolean pos = goals.positive;
+            goals = goals.next;
+            if (e instanceof TrueGuardExpression) {
+                if (!pos) {
+                    return false;
+                }
+            } else if (e instanceof FalseGuardExpression) {
+                if (pos) {
+                    return false;
+                }
+            } else if (e instanceof Negation) {
+                goals = new Goals(((Negation) e).getNegated(), !pos, goals);
+            } else if (e instanceof Conjunction || e instanceof Disjunction) {
+                GuardExpression[] parts = (e instanceof Conjunction)
+                        ? ((Conjunction) e).getConjuncts() : ((Disjunction) e).getDisjuncts();
+                if ((e instanceof Conjunction) == pos) {
+                    for (GuardExpression p : parts) {
+                        goals = new Goals(p, pos, goals);
+                    }
+                } else {
+                    choices = new Goals(e, pos, choices);
+                }
+            } else if (e instanceof AtomicGuardExpression) {
+                AtomicGuardExpression<?, ?> age = (AtomicGuardExpression<?, ?>) e;
+                int l = index.get(age.getLeft());
+                int r = index.get(age.getRight());
+                boolean ok;
+                switch (age.getRelation()) {
+                    case EQUALS:
+                        ok = pos ? state.union(l, r) : state.separate(l, r);
+                        break;
+                    case NOT_EQUALS:
+                        ok = pos ? state.separate(l, r) : state.union(l, r);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported relation: " + age.getRelation());
+                }
+                if (!ok) {
+                    return false;
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported guard: " + e);
+            }
+        }
+
+        if (choices == null) {
+            return true;
+        }
+
+        GuardExpression e = choices.expr;
+        boolean pos = choices.positive;
+        GuardExpression[] parts = (e instanceof Conjunction)
+                ? ((Conjunction) e).getConjuncts() : ((Disjunction) e).getDisjuncts();
+        int mark = state.mark();
+        int diseqMark = state.markDisequalities();
+        for (GuardExpression p : parts) {
+            if (solve(new Goals(p, pos, null), choices.next, state, index)) {
+                return true;
+            }
+            state.undo(mark, diseqMark);
+        }
+        return false;
+    }
+}
@@ -16,6 +16,8 @@
  */
 package de.learnlib.ralib.sul;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.sul.SUL;
 
@@ -25,30 +27,30 @@ import de.learnlib.sul.SUL;
  */
 public abstract class DataWordSUL implements SUL<PSymbolInstance, PSymbolInstance> {
 
-    private long resets = 0;
+    private final AtomicLong resets = new AtomicLong();
 
-    private long inputs = 0;
+    private final AtomicLong inputs = new AtomicLong();
 
     protected void countResets(int n) {
-        resets += n;
+        resets.addAndGet(n);
     }
 
     protected void countInputs(int n) {
-        inputs += n;
+        inputs.addAndGet(n);
     }
 
     /**
      * @return the resets
      */
     public long getResets() {
-        return resets;
+        return resets.get();
     }
 
     /**
      * @return the inputs
      */
     public long getInputs() {
-        return inputs;
+        return inputs.get();
     }
 
 
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.sul;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+/**
+ * IO oracle that executes queries on a pool of independent SUL instances.
+ *
+ * Single queries borrow an idle instance, so the oracle can be used from
+ * several threads, e.g., below a {@link de.learnlib.ralib.oracles.io.ConcurrentIOCache}.
+ * Queries of a batch that are input prefixes of other queries are answered
+ * from the longer traces (see {@link SULOracle#traces(List)}), the others are
+ * distributed over all instances, and the traces are returned in the order
+ * of the queries. Resets and inputs are summed up over all
+ * instances.
+ */
+public class PooledSULOracle extends IOOracle {
+
+    private final List<DataWordSUL> suls = new ArrayList<>();
+
+    private final BlockingQueue<SULOracle> oracles;
+
+    private final ExecutorService executor;
+
+    public PooledSULOracle(Supplier<DataWordSUL> factory, int size, ParameterizedSymbol error) {
+        if (size < 1) {
+            throw new IllegalArgumentException("at least one SUL needed, got " + size);
+        }
+        this.oracles = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            DataWordSUL sul = factory.get();
+            suls.add(sul);
+            oracles.add(new SULOracle(sul, error));
+        }
+        this.executor = Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, "sul-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public Word<PSymbolInstance> trace(Word<PSymbolInstance> query) {
+        countQueries(1);
+        SULOracle o;
+        try {
+            o = oracles.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a SUL", ex);
+        }
+        try {
+            return o.trace(query);
+        } finally {
+            oracles.add(o);
+        }
+    }
+
+    @Override
+    public List<Word<PSymbolInstance>> traces(List<Word<PSymbolInstance>> queries) {
+        return QueryPrefixTree.traces(queries, this::dispatch);
+    }
+
+    private List<Word<PSymbolInstance>> dispatch(List<Word<PSymbolInstance>> queries) {
+        if (queries.size() < 2) {
+            return super.traces(queries);
+        }
+        List<Future<Word<PSymbolInstance>>> futures = new ArrayList<>(queries.size());
+        for (Word<PSymbolInstance> q : queries) {
+            futures.add(executor.submit(() -> trace(q)));
+        }
+        List<Word<PSymbolInstance>> traces = new ArrayList<>(queries.size());
+        for (Future<Word<PSymbolInstance>> f : futures) {
+            traces.add(get(f));
+        }
+        return traces;
+    }
+
+    /**
+     * @return the resets of all SUL instances
+     */
+    public long getResets() {
+        long resets = 0;
+        for (DataWordSUL sul : suls) {
+            resets += sul.getResets();
+        }
+        return resets;
+    }
+
+    /**
+     * @return the inputs of all SUL instances
+     */
+    public long getInputs() {
+        long inputs = 0;
+        for (DataWordSUL sul : suls) {
+            inputs += sul.getInputs();
+        }
+        return inputs;
+    }
+
+    /**
+     * stops the worker threads.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a query", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.sul;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+/**
+ * Answers the queries of a batch that extend another query in the batch
+ * from the trace of the longer query.
+ *
+ * The inputs of the batch are arranged in a prefix tree and only queries
+ * that end in a leaf are executed, in depth-first order. A query whose
+ * inputs are a prefix of the inputs of another query is answered with a
+ * prefix of the trace of that query, saving a reset and the replay of its
+ * inputs. This is the only reuse: a {@link DataWordSUL} cannot save and
+ * restore a state, so sibling branches that share a prefix are each
+ * executed from a reset and replay the shared prefix.
+ */
+final class QueryPrefixTree {
+
+    private static final class Node {
+
+        private final Map<PSymbolInstance, Node> children = new LinkedHashMap<>();
+
+        private final List<Integer> queries = new ArrayList<>();
+    }
+
+    private QueryPrefixTree() {
+    }
+
+    /**
+     * Answers a batch of queries.
+     *
+     * @param queries the batch
+     * @param executor executes a list of queries that are not prefixes of
+     *        each other and returns their traces in order
+     * @return traces in the order of the queries
+     */
+    static List<Word<PSymbolInstance>> traces(List<Word<PSymbolInstance>> queries,
+            Function<List<Word<PSymbolInstance>>, List<Word<PSymbolInstance>>> executor) {
+
+        Node root = new Node();
+        for (int i = 0; i < queries.size(); i++) {
+            Node cur = root;
+            Word<PSymbolInstance> q = queries.get(i);
+            for (int j = 0; j < q.length(); j += 2) {
+                cur = cur.children.computeIfAbsent(q.getSymbol(j), k -> new Node());
+            }
+            cur.queries.add(i);
+        }
+
+        List<Word<PSymbolInstance>> leaves = new ArrayList<>();
+        List<List<Integer>> covered = new ArrayList<>();
+        schedule(root, new ArrayList<>(), queries, leaves, covered);
+
+        List<Word<PSymbolInstance>> leafTraces = executor.apply(leaves);
+
+        List<Word<PSymbolInstance>> traces = new ArrayList<>(
+                Collections.nCopies(queries.size(), (Word<PSymbolInstance>) null));
+        for (int l = 0; l < leaves.size(); l++) {
+            Word<PSymbolInstance> trace = leafTraces.get(l);
+            for (int i : covered.get(l)) {
+                int inputs = (queries.get(i).length() + 1) / 2;
+                traces.set(i, trace.prefix(2 * inputs));
+            }
+        }
+        return traces;
+    }
+
+    private static void schedule(Node node, List<Integer> pending,
+            List<Word<PSymbolInstance>> queries,
+            List<Word<PSymbolInstance>> leaves, List<List<Integer>> covered) {
+
+        pending.addAll(node.queries);
+        if (node.children.isEmpty()) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Word<PSymbolInstance> longest = queries.get(pending.get(0));
+            for (int i : pending) {
+                if (queries.get(i).length() > longest.length()) {
+                    longest = queries.get(i);
+                }
+            }
+            leaves.add(longest);
+            covered.add(pending);
+            return;
+        }
+        // queries above a branching point are covered by the first branch
+        for (Node child : node.children.values()) {
+            schedule(child, pending, queries, leaves, covered);
+            pending = new ArrayList<>();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package de.learnlib.ralib.sul;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -82,6 +83,18 @@ public class SULOracle extends IOOracle {
         return trace;
     }
 
+    /**
+     * Executes a batch of queries. Queries whose inputs are a prefix of the
+     * inputs of another query in the batch are answered without a reset.
+     *
+     * @param queries
+     * @return the traces in the order of the queries
+     */
+    @Override
+    public List<Word<PSymbolInstance>> traces(List<Word<PSymbolInstance>> queries) {
+        return QueryPrefixTree.traces(queries, super::traces);
+    }
+
     private PSymbolInstance applyReplacements(PSymbolInstance symbol) {
         DataValue[] vals = new DataValue[symbol.getBaseSymbol().getArity()];
         for (int i = 0; i < symbol.getBaseSymbol().getArity(); i++) {
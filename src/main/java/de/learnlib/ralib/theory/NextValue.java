@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.theory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.SuffixValuation;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.data.WordValuation;
+import net.automatalib.common.util.Pair;
+
+/**
+ * A data value with which a theory continues a tree query for the current
+ * suffix parameter, together with the guard it was chosen for.
+ *
+ * @param <T>
+ */
+public final class NextValue<T> {
+
+    private final SDTGuard guard;
+
+    private final DataValue<T> value;
+
+    private final boolean newSuffixValue;
+
+    /**
+     * @param guard the guard the value was chosen for, or null
+     * @param value the data value
+     * @param newSuffixValue true if the value is bound to the suffix
+     *        parameter in the suffix valuation
+     */
+    public NextValue(SDTGuard guard, DataValue<T> value, boolean newSuffixValue) {
+        this.guard = guard;
+        this.value = value;
+        this.newSuffixValue = newSuffixValue;
+    }
+
+    public SDTGuard getGuard() {
+        return guard;
+    }
+
+    public DataValue<T> getValue() {
+        return value;
+    }
+
+    public boolean isNewSuffixValue() {
+        return newSuffixValue;
+    }
+
+    /**
+     * @return copies of values and suffixValues extended by this value
+     */
+    public Pair<WordValuation, SuffixValuation> extend(WordValuation values,
+            SuffixValuation suffixValues, int pId, SuffixValue sv) {
+        WordValuation nextValues = new WordValuation();
+        nextValues.putAll(values);
+        nextValues.put(pId, value);
+        SuffixValuation nextSuffixValues = new SuffixValuation();
+        nextSuffixValues.putAll(suffixValues);
+        if (newSuffixValue) {
+            nextSuffixValues.put(sv, value);
+        }
+        return Pair.of(nextValues, nextSuffixValues);
+    }
+
+    public static <T> List<Pair<WordValuation, SuffixValuation>> extendAll(List<NextValue<T>> next,
+            WordValuation values, SuffixValuation suffixValues, int pId, SuffixValue sv) {
+        List<Pair<WordValuation, SuffixValuation>> ret = new ArrayList<>(next.size());
+        for (NextValue<T> n : next) {
+            ret.add(n.extend(values, suffixValues, pId, sv));
+        }
+        return ret;
+    }
+}
@@ -18,6 +18,7 @@ package de.learnlib.ralib.theory;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import de.learnlib.ralib.data.Constants;
@@ -32,6 +33,7 @@ import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.oracles.mto.SDTConstructor;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.common.util.Pair;
 import net.automatalib.word.Word;
 
 /**
@@ -80,6 +82,32 @@ public interface Theory<T> {
             SDTConstructor oracle);
 
 
+    /**
+     * Enumerates the valuations with which {@link #treeQuery} continues
+     * for the next suffix parameter, in the same order and with the same
+     * data values, but without building or merging sub-trees. This is used
+     * to collect all leaf words of a tree query before answering them.
+     *
+     * @param prefix prefix word.
+     * @param suffix suffix word.
+     * @param values found values for complete word (pos -> dv)
+     * @param constants
+     * @param suffixValues map of already instantiated suffix
+     * data values (sv -> dv)
+     *
+     * @return the extended valuations, or an empty optional if this theory
+     * does not support enumerating them or they cannot be determined
+     * without executing queries
+     */
+    default Optional<List<Pair<WordValuation, SuffixValuation>>> nextValuations(
+            Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix,
+            WordValuation values,
+            Constants constants,
+            SuffixValuation suffixValues) {
+        return Optional.empty();
+    }
+
     /**
      * returns all next data values to be tested (for vals).
      *
@@ -25,6 +25,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -48,6 +49,7 @@ import de.learnlib.ralib.oracles.io.IOOracle;
 import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.oracles.mto.SDTConstructor;
 import de.learnlib.ralib.oracles.mto.SDTLeaf;
+import de.learnlib.ralib.theory.NextValue;
 import de.learnlib.ralib.theory.SDTAndGuard;
 import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.theory.SDTIfGuard;
@@ -57,6 +59,7 @@ import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.OutputSymbol;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.common.util.Pair;
 import net.automatalib.word.Word;
 
 /**
@@ -164,41 +167,24 @@ public abstract class EqualityTheory<T> implements Theory<T> {
 
         Map<EqualityGuard, SDT> tempKids = new LinkedHashMap<>();
 
-        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(constants.<T>values(type),
-                DataWords.<T>valSet(prefix, type), suffixValues.<T>values(type));
-
-        List<DataValue<T>> potList = new ArrayList<>(potSet);
-        List<DataValue<T>> potential = getPotential(potList);
+        List<DataValue<T>> potential = potential(prefix, type, constants, suffixValues);
 
-        boolean free = suffix.getFreeValues().contains(sv);
-        if (!free && useNonFreeOptimization) {
-            DataValue d = suffixValues.get(sv);
-            SDT sdt;
+        if (isNonFree(suffix, sv)) {
+            NextValue<T> next = nextValues(sv, potential, true, suffixValues).get(0);
+            DataValue d = next.getValue();
+            values.put(pId, d);
+            Pair<WordValuation, SuffixValuation> nextValues = next.extend(values, suffixValues, pId, sv);
+            SDT sdt = oracle.treeQuery(prefix, suffix, nextValues.getFirst(), pir, constants, nextValues.getSecond());
             Map<SDTGuard, SDT> merged;
 
             // fresh value case
-            if (d == null) {
-                d = getFreshValue(potential);
-                values.put(pId, d);
-                WordValuation trueValues = new WordValuation();
-                trueValues.putAll(values);
-                SuffixValuation trueSuffixValues = new SuffixValuation();
-                trueSuffixValues.putAll(suffixValues);
-                trueSuffixValues.put(sv, d);
-                sdt = oracle.treeQuery(prefix, suffix, trueValues, pir, constants, trueSuffixValues);
+            if (next.isNewSuffixValue()) {
                 LOGGER.trace(" single deq SDT : " + sdt.toString());
                 merged = mergeGuards(tempKids, new SDTAndGuard(currentParam), sdt);
-
             }
 
             // equal to previous suffix parameter
             else {
-                values.put(pId, d);
-                WordValuation equalValues = new WordValuation();
-                equalValues.putAll(values);
-                SuffixValuation equalSuffixValues = new SuffixValuation();
-                equalSuffixValues.putAll(suffixValues);
-                sdt = oracle.treeQuery(prefix, suffix, equalValues, pir, constants, equalSuffixValues);
                 merged = new LinkedHashMap<SDTGuard, SDT>();
                 int smallest = Collections.min(values.getAllKeys(d));
                 EqualityGuard guard = new EqualityGuard(currentParam, new SuffixValue(type, smallest));
@@ -210,7 +196,7 @@ public abstract class EqualityTheory<T> implements Theory<T> {
             LOGGER.trace("merged guards = " + merged.keySet());
             LOGGER.trace("merged pivs = " + pir.toString());
 
-            return new SDT(merged);
+            return SDT.create(merged);
         }
 
         // special case: fresh values in outputs
@@ -246,7 +232,7 @@ public abstract class EqualityTheory<T> implements Theory<T> {
                         LOGGER.trace("merged guards = " + merged.keySet());
                         LOGGER.trace("merged pivs = " + pir.toString());
 
-                        return new SDT(merged);
+                        return SDT.create(merged);
                     }
                 } else {
                     int maxSufIndex = DataWords.paramLength(suffix.getActions()) + 1;
@@ -254,7 +240,7 @@ public abstract class EqualityTheory<T> implements Theory<T> {
                     SDTTrueGuard trueGuard = new SDTTrueGuard(currentParam);
                     Map<SDTGuard, SDT> merged = new LinkedHashMap<>();
                     merged.put(trueGuard, rejSdt);
-                    return new SDT(merged);
+                    return SDT.create(merged);
                 }
             }
         }
@@ -267,43 +253,28 @@ public abstract class EqualityTheory<T> implements Theory<T> {
 
         LOGGER.trace("prefix list    " + prefixValues.toString());
 
-        DataValue fresh = getFreshValue(potential);
-
         List<DisequalityGuard> diseqList = new ArrayList<DisequalityGuard>();
-        for (DataValue<T> newDv : potential) {
-            LOGGER.trace(newDv.toString());
-
-            // this is the valuation of the suffixvalues in the suffix
-            SuffixValuation ifSuffixValues = new SuffixValuation();
-            ifSuffixValues.putAll(suffixValues); // copy the suffix valuation
+        SDT elseOracleSdt = null;
+        for (NextValue<T> next : nextValues(sv, potential, false, suffixValues)) {
+            Pair<WordValuation, SuffixValuation> nextValues = next.extend(values, suffixValues, pId, sv);
+            SDT oracleSdt = oracle.treeQuery(prefix, suffix, nextValues.getFirst(), pir, constants, nextValues.getSecond());
+
+            // the 'else' case
+            if (next.isNewSuffixValue()) {
+                elseOracleSdt = oracleSdt;
+                continue;
+            }
 
+            // construct the equality guard
+            // find the data value in the prefix
+            DataValue<T> newDv = next.getValue();
+            LOGGER.trace(newDv.toString());
             EqualityGuard eqGuard = pickupDataValue(newDv, prefixValues, currentParam, values, constants);
             LOGGER.trace("eqGuard is: " + eqGuard.toString());
             diseqList.add(new DisequalityGuard(currentParam, eqGuard.getRegister()));
-            // construct the equality guard
-            // find the data value in the prefix
-            // this is the valuation of the positions in the suffix
-            WordValuation ifValues = new WordValuation();
-            ifValues.putAll(values);
-            ifValues.put(pId, newDv);
-            SDT eqOracleSdt = oracle.treeQuery(prefix, suffix, ifValues, pir, constants, ifSuffixValues);
-
-            tempKids.put(eqGuard, eqOracleSdt);
+            tempKids.put(eqGuard, oracleSdt);
         }
 
-        // process the 'else' case
-        // this is the valuation of the positions in the suffix
-        WordValuation elseValues = new WordValuation();
-        elseValues.putAll(values);
-        elseValues.put(pId, fresh);
-
-        // this is the valuation of the suffixvalues in the suffix
-        SuffixValuation elseSuffixValues = new SuffixValuation();
-        elseSuffixValues.putAll(suffixValues);
-        elseSuffixValues.put(sv, fresh);
-
-        SDT elseOracleSdt = oracle.treeQuery(prefix, suffix, elseValues, pir, constants, elseSuffixValues);
-
         SDTAndGuard deqGuard = new SDTAndGuard(currentParam, (diseqList.toArray(new DisequalityGuard[] {})));
         LOGGER.trace("diseq guard = " + deqGuard.toString());
 
@@ -324,11 +295,64 @@ public abstract class EqualityTheory<T> implements Theory<T> {
             assert !(g == null);
         }
 
-        SDT returnSDT = new SDT(merged);
+        SDT returnSDT = SDT.create(merged);
         return returnSDT;
 
     }
 
+    @Override
+    public Optional<List<Pair<WordValuation, SuffixValuation>>> nextValuations(Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix, WordValuation values, Constants constants, SuffixValuation suffixValues) {
+
+        int pId = values.size() + 1;
+        SuffixValue sv = suffix.getDataValue(pId);
+        boolean nonFree = isNonFree(suffix, sv);
+
+        // fresh output values are only known after executing the prefix
+        if (!nonFree && freshValues) {
+            ParameterizedSymbol ps = computeSymbol(suffix, pId);
+            if (ps instanceof OutputSymbol && ps.getArity() > 0) {
+                return Optional.empty();
+            }
+        }
+
+        List<DataValue<T>> potential = potential(prefix, sv.getType(), constants, suffixValues);
+        return Optional.of(NextValue.extendAll(nextValues(sv, potential, nonFree, suffixValues),
+                values, suffixValues, pId, sv));
+    }
+
+    private boolean isNonFree(SymbolicSuffix suffix, SuffixValue sv) {
+        return useNonFreeOptimization && !suffix.getFreeValues().contains(sv);
+    }
+
+    private List<DataValue<T>> potential(Word<PSymbolInstance> prefix, DataType type, Constants constants,
+            SuffixValuation suffixValues) {
+        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(constants.<T>values(type),
+                DataWords.<T>valSet(prefix, type), suffixValues.<T>values(type));
+        return getPotential(new ArrayList<>(potSet));
+    }
+
+    /*
+     * The values a tree query continues with: for a non-free parameter its
+     * earlier value or a fresh value, otherwise every potential value and
+     * a fresh value for the 'else' case.
+     */
+    private List<NextValue<T>> nextValues(SuffixValue sv, List<DataValue<T>> potential, boolean nonFree,
+            SuffixValuation suffixValues) {
+        List<NextValue<T>> next = new ArrayList<>();
+        if (nonFree) {
+            DataValue<T> d = (DataValue<T>) suffixValues.get(sv);
+            next.add(d == null ? new NextValue<>(null, getFreshValue(potential), true)
+                    : new NextValue<>(null, d, false));
+            return next;
+        }
+        for (DataValue<T> newDv : potential) {
+            next.add(new NextValue<>(null, newDv, false));
+        }
+        next.add(new NextValue<>(null, getFreshValue(potential), true));
+        return next;
+    }
+
     // construct equality guard by picking up a data value from the prefix
     private EqualityGuard pickupDataValue(DataValue<T> newDv, List<DataValue> prefixValues, SuffixValue currentParam,
             WordValuation ifValues, Constants constants) {
@@ -459,7 +483,7 @@ public abstract class EqualityTheory<T> implements Theory<T> {
             Map<SDTGuard, SDT> map = new LinkedHashMap<>();
             SDTTrueGuard trueGuard = new SDTTrueGuard(new SuffixValue(type, nextSufIndex));
             map.put(trueGuard, makeRejectingBranch(nextSufIndex + 1, maxIndex, type));
-            SDT sdt = new SDT(map);
+            SDT sdt = SDT.create(map);
             return sdt;
         }
     }
@@ -11,12 +11,14 @@ import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.oracles.io.IOOracle;
 import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.oracles.mto.SDTConstructor;
+import de.learnlib.ralib.theory.NextValue;
 import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.theory.SDTTrueGuard;
 import de.learnlib.ralib.theory.Theory;
 import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.common.util.Pair;
 import net.automatalib.word.Word;
 
 public abstract class UniqueEqualityTheory<T> implements Theory<T> {
@@ -55,31 +57,42 @@ public abstract class UniqueEqualityTheory<T> implements Theory<T> {
         SymbolicDataValue.SuffixValue sv = suffix.getDataValue(pId);
         DataType type = sv.getType();
 
-        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(constants.<T>values(type),
-                DataWords.<T>valSet(prefix, type), suffixValues.<T>values(type));
-
-        List<DataValue<T>> potList = new ArrayList<>(potSet);
-        List<DataValue<T>> potential = getPotential(potList);
-
         SDT sdt;
         Map<SDTGuard, SDT> merged = new HashMap<>();
 
-        DataValue d = getFreshValue(potential);
-        values.put(pId, d);
-        WordValuation trueValues = new WordValuation();
-        trueValues.putAll(values);
-        SuffixValuation trueSuffixValues = new SuffixValuation();
-        trueSuffixValues.putAll(suffixValues);
-        trueSuffixValues.put(sv, d);
-        sdt = oracle.treeQuery(prefix, suffix, trueValues, pir, constants, trueSuffixValues);
+        NextValue<T> next = nextValue(prefix, type, constants, suffixValues);
+        values.put(pId, next.getValue());
+        Pair<WordValuation, SuffixValuation> nextValues = next.extend(values, suffixValues, pId, sv);
+        sdt = oracle.treeQuery(prefix, suffix, nextValues.getFirst(), pir, constants, nextValues.getSecond());
         LOGGER.trace(Category.QUERY, " single deq SDT : {}", sdt.toString());
 
         merged.put(new SDTTrueGuard(sv), sdt);
 
-        SDT returnSDT = new SDT(merged);
+        SDT returnSDT = SDT.create(merged);
         return returnSDT;
     }
 
+    @Override
+    public Optional<List<Pair<WordValuation, SuffixValuation>>> nextValuations(Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix, WordValuation values, Constants constants, SuffixValuation suffixValues) {
+
+        int pId = values.size() + 1;
+        SymbolicDataValue.SuffixValue sv = suffix.getDataValue(pId);
+        NextValue<T> next = nextValue(prefix, sv.getType(), constants, suffixValues);
+        return Optional.of(Collections.singletonList(next.extend(values, suffixValues, pId, sv)));
+    }
+
+    /*
+     * Every suffix parameter is unique, so a tree query only continues
+     * with a fresh value.
+     */
+    private NextValue<T> nextValue(Word<PSymbolInstance> prefix, DataType type, Constants constants,
+            SuffixValuation suffixValues) {
+        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(constants.<T>values(type),
+                DataWords.<T>valSet(prefix, type), suffixValues.<T>values(type));
+        return new NextValue<>(null, getFreshValue(getPotential(new ArrayList<>(potSet))), true);
+    }
+
     @Override
     // instantiate a parameter with a data value
     public DataValue instantiate(Word<PSymbolInstance> prefix, ParameterizedSymbol ps, PIV piv, ParValuation pval,
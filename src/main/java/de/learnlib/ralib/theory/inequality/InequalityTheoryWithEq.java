@@ -26,6 +26,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import de.learnlib.ralib.data.Constants;
@@ -43,6 +44,7 @@ import de.learnlib.ralib.learning.SymbolicSuffix;
 import de.learnlib.ralib.oracles.mto.SDT;
 import de.learnlib.ralib.oracles.mto.SDTConstructor;
 import de.learnlib.ralib.oracles.mto.SDTLeaf;
+import de.learnlib.ralib.theory.NextValue;
 import de.learnlib.ralib.theory.SDTAndGuard;
 import de.learnlib.ralib.theory.SDTGuard;
 import de.learnlib.ralib.theory.SDTIfGuard;
@@ -55,6 +57,7 @@ import de.learnlib.ralib.words.DataWords;
 import de.learnlib.ralib.words.PSymbolInstance;
 import de.learnlib.ralib.words.ParameterizedSymbol;
 import gov.nasa.jpf.constraints.api.Valuation;
+import net.automatalib.common.util.Pair;
 import net.automatalib.word.Word;
 
 /**
@@ -870,152 +873,44 @@ public abstract class InequalityTheoryWithEq<T> implements Theory<T> {
 
         Map<SDTGuard, SDT> tempKids = new LinkedHashMap<>();
 
-        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(
-                constants.<T>values(type),
-                DataWords.<T>valSet(prefix, type),
-                suffixValues.<T>values(type));
-
-        List<DataValue<T>> potList = new ArrayList<>(potSet);
-        List<DataValue<T>> potential = getPotential(potList);
+        List<DataValue<T>> potential = potential(prefix, type, constants, suffixValues);
         // WE ASSUME THE POTENTIAL IS SORTED
 
         int potSize = potential.size();
 
-//        System.out.println("potential " + potential);
-        if (potential.isEmpty()) {
-//            System.out.println("empty potential");
-            WordValuation elseValues = new WordValuation();
-            DataValue<T> fresh = getFreshValue(potential);
-            elseValues.putAll(values);
-            elseValues.put(pId, fresh);
-
-            // this is the valuation of the suffixvalues in the suffix
-            SuffixValuation elseSuffixValues = new SuffixValuation();
-            elseSuffixValues.putAll(suffixValues);
-            elseSuffixValues.put(sv, fresh);
-
-            SDT elseOracleSdt = oracle.treeQuery(
-                    prefix, suffix, elseValues, piv,
-                    constants, elseSuffixValues);
-            tempKids.put(new SDTTrueGuard(currentParam), elseOracleSdt);
-        } // process each '<' case
-        else {
-            //Parameter p = new Parameter(
-            //      currentParam.getType(), currentParam.getId());
-
-            // smallest case
-            WordValuation smValues = new WordValuation();
-            smValues.putAll(values);
-            SuffixValuation smSuffixValues = new SuffixValuation();
-            smSuffixValues.putAll(suffixValues);
-
-            Valuation smVal = new Valuation();
-            DataValue<T> dvRight = potential.get(0);
-            IntervalGuard sguard = makeSmallerGuard(
-                    dvRight, prefixValues, currentParam, smValues, piv);
-            SymbolicDataValue rsm = sguard.getRightReg();
-//            System.out.println("setting valuation, symDV: " + rsm.toVariable() + " dvright: " + dvRight);
-            smVal.setValue(toVariable(rsm), dvRight.getId());
-            DataValue<T> smcv = instantiate(
-                    sguard, smVal, constants, potential);
-            smValues.put(pId, smcv);
-            smSuffixValues.put(sv, smcv);
-
-            SDT smoracleSdt = oracle.treeQuery(
-                    prefix, suffix, smValues, piv, constants, smSuffixValues);
-
-            tempKids.put(sguard, smoracleSdt);
-
-            // biggest case
-            WordValuation bgValues = new WordValuation();
-            bgValues.putAll(values);
-            SuffixValuation bgSuffixValues = new SuffixValuation();
-            bgSuffixValues.putAll(suffixValues);
-
-            Valuation bgVal = new Valuation();
-
-            DataValue<T> dvLeft = potential.get(potSize - 1);
-            IntervalGuard bguard = makeBiggerGuard(
-                    dvLeft, prefixValues, currentParam, bgValues, piv);
-            SymbolicDataValue rbg = bguard.getLeftReg();
-
-            bgVal.setValue(toVariable(rbg), dvLeft.getId());
-            DataValue<T> bgcv = instantiate(
-                    bguard, bgVal, constants, potential);
-            bgValues.put(pId, bgcv);
-            bgSuffixValues.put(sv, bgcv);
-
-            SDT bgoracleSdt = oracle.treeQuery(
-                    prefix, suffix, bgValues, piv, constants, bgSuffixValues);
-
-            tempKids.put(bguard, bgoracleSdt);
-
-            if (potSize > 1) {        //middle cases
-                for (int i = 1; i < potSize; i++) {
-
-                    WordValuation currentValues = new WordValuation();
-                    currentValues.putAll(values);
-                    SuffixValuation currentSuffixValues = new SuffixValuation();
-                    currentSuffixValues.putAll(suffixValues);
-                    //SDTGuard guard;
-                    Valuation val = new Valuation();
-                    DataValue<T> dvMRight = potential.get(i);
-                    DataValue<T> dvMLeft = potential.get(i - 1);
-
-//                    IntervalGuard smallerGuard = makeSmallerGuard(
-//                            dvMRight, prefixValues,
-//                            currentParam, currentValues, piv);
-//                    IntervalGuard biggerGuard = makeBiggerGuard(
-//                            dvMLeft, prefixValues, currentParam,
-//                            currentValues, piv);
-                    IntervalGuard intervalGuard = makeIntervalGuard(
-                            dvMLeft, dvMRight, prefixValues, currentParam, currentValues, piv);
-
-//                    IntervalGuard guard = new IntervalGuard(
-//                            currentParam, biggerGuard.getLeftReg(), smallerGuard.getRightReg());
-                    SymbolicDataValue rs = intervalGuard.getRightReg();
-                    SymbolicDataValue rb = intervalGuard.getLeftReg();
-
-                    val.setValue(toVariable(rs), dvMRight.getId());
-                    val.setValue(toVariable(rb), dvMLeft.getId());
-
-                    DataValue<T> cv = instantiate(
-                            intervalGuard, val, constants, potential);
-                    currentValues.put(pId, cv);
-                    currentSuffixValues.put(sv, cv);
-
-                    SDT oracleSdt = oracle.treeQuery(
-                            prefix, suffix, currentValues, piv,
-                            constants, currentSuffixValues);
-
-                    tempKids.put(intervalGuard, oracleSdt);
-                    regPotential.add(i - 1, rb);
-                    regPotential.add(i, rs);
+        // the regions of the sorted potential: intervals[i] lies between
+        // points[i-1] and points[i]
+        IntervalGuard[] intervals = new IntervalGuard[potSize + 1];
+        EqualityGuard[] points = new EqualityGuard[potSize];
+
+        int pointIdx = 0;
+        int intervalIdx = 1;
+        for (NextValue<T> next : nextValues(prefixValues, currentParam, values, piv, constants, potential)) {
+            Pair<WordValuation, SuffixValuation> nextValues = next.extend(values, suffixValues, pId, sv);
+            SDT oracleSdt = oracle.treeQuery(
+                    prefix, suffix, nextValues.getFirst(), piv, constants, nextValues.getSecond());
+
+            SDTGuard guard = next.getGuard();
+            tempKids.put(guard, oracleSdt);
+            if (guard instanceof EqualityGuard) {
+                points[pointIdx++] = (EqualityGuard) guard;
+            } else if (guard instanceof IntervalGuard) {
+                IntervalGuard intervalGuard = (IntervalGuard) guard;
+                if (intervalGuard.isSmallerGuard()) {
+                    intervals[0] = intervalGuard;
+                } else if (intervalGuard.isBiggerGuard()) {
+                    intervals[potSize] = intervalGuard;
+                } else {
+                    intervals[intervalIdx] = intervalGuard;
+                    regPotential.add(intervalIdx - 1, intervalGuard.getLeftReg());
+                    regPotential.add(intervalIdx, intervalGuard.getRightReg());
+                    intervalIdx++;
                 }
             }
-//            System.out.println("eq potential is: " + potential);
-            for (DataValue<T> newDv : potential) {
-//                LOGGER.trace(newDv.toString());
-
-                // this is the valuation of the suffixvalues in the suffix
-                SuffixValuation ifSuffixValues = new SuffixValuation();
-                ifSuffixValues.putAll(suffixValues);  // copy the suffix valuation
-
-                EqualityGuard eqGuard = pickupDataValue(newDv, prefixValues,
-                        currentParam, values, constants);
-//                LOGGER.trace("eqGuard is: " + eqGuard.toString());
-                //construct the equality guard
-                // find the data value in the prefix
-                // this is the valuation of the positions in the suffix
-                WordValuation ifValues = new WordValuation();
-                ifValues.putAll(values);
-                ifValues.put(pId, newDv);
-                SDT eqOracleSdt = oracle.treeQuery(
-                        prefix, suffix, ifValues, piv, constants, ifSuffixValues);
-
-                tempKids.put(eqGuard, eqOracleSdt);
-            }
+        }
 
+        if (!potential.isEmpty()) {
+            tempKids = mergeAdjacentRegions(tempKids, intervals, points, currentParam);
         }
 
 //        System.out.println("TEMPKIDS for " + prefix + " + " + suffix + " = " + tempKids);
@@ -1043,10 +938,148 @@ public abstract class InequalityTheoryWithEq<T> implements Theory<T> {
             }
         }
 //        System.out.println("MERGED = " + merged);
-        SDT returnSDT = new SDT(merged);
+        SDT returnSDT = SDT.create(merged);
         return returnSDT;
     }
 
+    @Override
+    public Optional<List<Pair<WordValuation, SuffixValuation>>> nextValuations(
+            Word<PSymbolInstance> prefix,
+            SymbolicSuffix suffix,
+            WordValuation values,
+            Constants constants,
+            SuffixValuation suffixValues) {
+
+        int pId = values.size() + 1;
+        SuffixValue sv = suffix.getDataValue(pId);
+        DataType type = sv.getType();
+
+        List<DataValue> prefixValues = Arrays.asList(DataWords.valsOf(prefix));
+        SuffixValue currentParam = new SuffixValue(type, pId);
+        List<DataValue<T>> potential = potential(prefix, type, constants, suffixValues);
+
+        // the guards only name the bounds of the regions, the register
+        // names do not influence the instantiated values
+        List<NextValue<T>> next = nextValues(prefixValues, currentParam, values, new PIV(), constants, potential);
+        return Optional.of(NextValue.extendAll(next, values, suffixValues, pId, sv));
+    }
+
+    private List<DataValue<T>> potential(Word<PSymbolInstance> prefix, DataType type,
+            Constants constants, SuffixValuation suffixValues) {
+        Collection<DataValue<T>> potSet = DataWords.<T>joinValsToSet(
+                constants.<T>values(type),
+                DataWords.<T>valSet(prefix, type),
+                suffixValues.<T>values(type));
+        return getPotential(new ArrayList<>(potSet));
+    }
+
+    /*
+     * The values a tree query continues with, one per region of the sorted
+     * potential: the smallest, the biggest and the middle intervals, then
+     * the points of the potential. An empty potential is a single region.
+     */
+    private List<NextValue<T>> nextValues(List<DataValue> prefixValues, SuffixValue currentParam,
+            WordValuation values, PIV piv, Constants constants, List<DataValue<T>> potential) {
+
+        List<NextValue<T>> next = new ArrayList<>();
+        int potSize = potential.size();
+        if (potential.isEmpty()) {
+            next.add(new NextValue<>(new SDTTrueGuard(currentParam), getFreshValue(potential), true));
+            return next;
+        }
+
+        // smallest case
+        Valuation smVal = new Valuation();
+        DataValue<T> dvRight = potential.get(0);
+        IntervalGuard sguard = makeSmallerGuard(
+                dvRight, prefixValues, currentParam, values, piv);
+        smVal.setValue(toVariable(sguard.getRightReg()), dvRight.getId());
+        next.add(new NextValue<>(sguard, instantiate(sguard, smVal, constants, potential), true));
+
+        // biggest case
+        Valuation bgVal = new Valuation();
+        DataValue<T> dvLeft = potential.get(potSize - 1);
+        IntervalGuard bguard = makeBiggerGuard(
+                dvLeft, prefixValues, currentParam, values, piv);
+        bgVal.setValue(toVariable(bguard.getLeftReg()), dvLeft.getId());
+        next.add(new NextValue<>(bguard, instantiate(bguard, bgVal, constants, potential), true));
+
+        // middle cases
+        for (int i = 1; i < potSize; i++) {
+            Valuation val = new Valuation();
+            DataValue<T> dvMRight = potential.get(i);
+            DataValue<T> dvMLeft = potential.get(i - 1);
+            IntervalGuard intervalGuard = makeIntervalGuard(
+                    dvMLeft, dvMRight, prefixValues, currentParam, values, piv);
+            val.setValue(toVariable(intervalGuard.getRightReg()), dvMRight.getId());
+            val.setValue(toVariable(intervalGuard.getLeftReg()), dvMLeft.getId());
+            next.add(new NextValue<>(intervalGuard, instantiate(intervalGuard, val, constants, potential), true));
+        }
+
+        for (DataValue<T> newDv : potential) {
+            EqualityGuard eqGuard = pickupDataValue(newDv, prefixValues,
+                    currentParam, values, constants);
+            next.add(new NextValue<>(eqGuard, newDv, false));
+        }
+        return next;
+    }
+
+    /**
+     * Merges runs of adjacent regions of the sorted potential that lead to
+     * the same SDT in one pass: an interval, the points and intervals that
+     * follow it and have the same SDT are replaced by a single interval
+     * guard (or a true guard if the run covers everything). The remaining
+     * guards keep their order and are merged by {@link #mgGuards}.
+     *
+     * @param kids the SDTs of all regions
+     * @param intervals the intervals in ascending order
+     * @param points the points between the intervals
+     * @param currentParam
+     * @return kids with runs of equal SDTs merged
+     */
+    static Map<SDTGuard, SDT> mergeAdjacentRegions(Map<SDTGuard, SDT> kids,
+            IntervalGuard[] intervals, EqualityGuard[] points, SuffixValue currentParam) {
+
+        int n = points.length;
+        Map<SDTGuard, SDTGuard> replace = new LinkedHashMap<>();
+        for (int i = 0; i < n;) {
+            SDT sdt = kids.get(intervals[i]);
+            int j = i;
+            while (j < n && sdt.equals(kids.get(points[j])) && sdt.equals(kids.get(intervals[j + 1]))) {
+                j++;
+            }
+            if (j > i) {
+                SDTGuard run;
+                if (i == 0 && j == n) {
+                    run = new SDTTrueGuard(currentParam);
+                } else {
+                    run = new IntervalGuard(currentParam,
+                            i == 0 ? null : intervals[i].getLeftReg(),
+                            j == n ? null : intervals[j].getRightReg());
+                }
+                replace.put(intervals[i], run);
+                for (int k = i; k < j; k++) {
+                    replace.put(points[k], null);
+                    replace.put(intervals[k + 1], null);
+                }
+            }
+            i = j + 1;
+        }
+
+        if (replace.isEmpty()) {
+            return kids;
+        }
+        Map<SDTGuard, SDT> merged = new LinkedHashMap<>();
+        for (Map.Entry<SDTGuard, SDT> e : kids.entrySet()) {
+            if (!replace.containsKey(e.getKey())) {
+                merged.put(e.getKey(), e.getValue());
+            } else if (replace.get(e.getKey()) != null) {
+                merged.put(replace.get(e.getKey()), e.getValue());
+            }
+        }
+        return merged;
+    }
+
     private EqualityGuard pickupDataValue(DataValue<T> newDv,
             List<DataValue> prefixValues, SuffixValue currentParam,
             WordValuation ifValues, Constants constants) {
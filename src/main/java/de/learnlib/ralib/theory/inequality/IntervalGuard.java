@@ -117,6 +117,45 @@ public class IntervalGuard extends SDTGuard {
         return "(" + leftLimit.toString() + "<" + this.getParameter().toString() + "<" + this.rightLimit.toString() + ")";
     }
 
+    /**
+     * Checks structurally if this guard contains other: every limit
+     * of this guard is the same limit of other. A false result does not
+     * imply that other is not contained, as this may depend on the order
+     * of the limits.
+     *
+     * @param other
+     * @return true if other is contained in this guard
+     */
+    public boolean contains(IntervalGuard other) {
+        return parameter.equals(other.parameter)
+                && (leftLimit == null || leftLimit.equals(other.leftLimit))
+                && (rightLimit == null || rightLimit.equals(other.rightLimit));
+    }
+
+    /**
+     * Checks structurally if this guard and other cannot both be satisfied,
+     * i.e., if one lies below and the other above or on a common limit. A
+     * false result does not imply that the guards overlap.
+     *
+     * @param other
+     * @return true if the guards are mutually exclusive
+     */
+    public boolean excludes(SDTGuard other) {
+        if (!parameter.equals(other.getParameter())) {
+            return false;
+        }
+        if (other instanceof IntervalGuard) {
+            IntervalGuard i = (IntervalGuard) other;
+            return (rightLimit != null && rightLimit.equals(i.leftLimit))
+                    || (leftLimit != null && leftLimit.equals(i.rightLimit));
+        }
+        if (other instanceof EqualityGuard) {
+            SymbolicDataValue r = ((EqualityGuard) other).getRegister();
+            return r.equals(leftLimit) || r.equals(rightLimit);
+        }
+        return false;
+    }
+
     public Set<SymbolicDataValue> getAllRegs() {
         Set<SymbolicDataValue> regs = new LinkedHashSet<>();
         if (leftLimit != null) {
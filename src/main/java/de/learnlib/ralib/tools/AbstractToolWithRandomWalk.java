@@ -17,17 +17,40 @@
 package de.learnlib.ralib.tools;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.logging.Level;
 
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.oracles.ParallelTreeOracle;
+import de.learnlib.ralib.oracles.TreeOracle;
+import de.learnlib.ralib.oracles.io.ConcurrentIOCache;
+import de.learnlib.ralib.oracles.io.IOCache;
+import de.learnlib.ralib.oracles.io.IOFilter;
+import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.solver.CachingConstraintSolver;
 import de.learnlib.ralib.solver.ConstraintSolver;
 import de.learnlib.ralib.solver.ConstraintSolverFactory;
+import de.learnlib.ralib.sul.DataWordSUL;
+import de.learnlib.ralib.sul.PooledSULOracle;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.theory.equality.EqualityTheory;
+import de.learnlib.ralib.theory.equality.UniqueEqualityTheory;
 import de.learnlib.ralib.tools.classanalyzer.TypedTheory;
 import de.learnlib.ralib.tools.config.Configuration;
 import de.learnlib.ralib.tools.config.ConfigurationException;
 import de.learnlib.ralib.tools.config.ConfigurationOption;
+import de.learnlib.ralib.words.ParameterizedSymbol;
 import net.automatalib.common.util.Pair;
 
 /**
@@ -96,6 +119,34 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
     = new ConfigurationOption.BooleanOption("cache.tests",
             "Cache test queries executed during CE analysis", false, true);
 
+    protected static final ConfigurationOption.BooleanOption OPTION_BATCH_QUERIES
+            = new ConfigurationOption.BooleanOption("use.batchqueries",
+                    "Submit the leaf queries of a tree query and the resulting SUL queries as batches", Boolean.FALSE, true);
+
+    protected static final ConfigurationOption.BooleanOption OPTION_CACHE_TREE_QUERIES
+            = new ConfigurationOption.BooleanOption("cache.treequeries",
+                    "Reuse tree query results for prefixes equal up to renaming of data values", Boolean.FALSE, true);
+
+    protected static final ConfigurationOption.BooleanOption OPTION_CACHE_SYMMETRIC
+            = new ConfigurationOption.BooleanOption("cache.symmetric",
+                    "Answer IO queries from the cache up to renaming of data values with equality theories", Boolean.FALSE, true);
+
+    protected static final ConfigurationOption.StringOption OPTION_CACHE_FILE
+            = new ConfigurationOption.StringOption("cache.file",
+                    "Persist the IO cache in this file and reuse it in later runs", null, true);
+
+    protected static final ConfigurationOption.StringOption OPTION_CHECKPOINT_FILE
+            = new ConfigurationOption.StringOption("checkpoint.file",
+                    "Save the learner state in this file after every round and resume from it (requires cache.file and random.seed)", null, true);
+
+    protected static final ConfigurationOption.IntegerOption OPTION_TREE_QUERY_WORKERS
+            = new ConfigurationOption.IntegerOption("treequery.workers",
+                    "Number of workers answering independent tree queries in parallel, each with its own SUL", 1, true);
+
+    protected static final ConfigurationOption.IntegerOption OPTION_SUL_POOL
+            = new ConfigurationOption.IntegerOption("sul.pool",
+                    "Number of SUL instances answering batches of IO queries in parallel", 1, true);
+
     protected static final ConfigurationOption.BooleanOption OPTION_RWALK_DRAW
             = new ConfigurationOption.BooleanOption("rwalk.draw.uniform",
                     "Draw next input uniformly", null, false);
@@ -131,11 +182,18 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
     protected static final ConfigurationOption.StringOption OPTION_SOLVER
             = new  ConfigurationOption.StringOption("solver",
                     "Constraints Solver. Options: " + ConstraintSolverFactory.ID_SIMPLE +
-                            ", " + ConstraintSolverFactory.ID_Z3 + ".",
+                            ", " + ConstraintSolverFactory.ID_Z3 +
+                            ", " + ConstraintSolverFactory.ID_UNION_FIND + " (equalities only).",
                             ConstraintSolverFactory.ID_SIMPLE, true);
 
+    protected static final ConfigurationOption.IntegerOption OPTION_SOLVER_CACHE
+            = new ConfigurationOption.IntegerOption("solver.cache",
+                    "Number of constraint solver results to memoize (0 to disable)", 0, true);
+
     protected Random random = null;
 
+    protected long seed;
+
     protected boolean useCeOptimizers;
 
     protected boolean findCounterexamples;
@@ -150,6 +208,26 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
 
     protected boolean useFresh = false;
 
+    protected boolean batchQueries = false;
+
+    protected boolean cacheTreeQueries = false;
+
+    protected String cacheFile = null;
+
+    protected String checkpointFile = null;
+
+    protected boolean cacheSymmetric = false;
+
+    protected int treeQueryWorkers = 1;
+
+    protected final List<DataWordSUL> workerSuls = new ArrayList<>();
+
+    protected ParallelTreeOracle parallelTreeOracle = null;
+
+    protected int sulPoolSize = 1;
+
+    protected PooledSULOracle sulPool = null;
+
     protected final Map<String, TypedTheory> teacherClasses = new HashMap<>();
 
     protected ConstraintSolver solver;
@@ -164,9 +242,9 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
         config.list(System.out);
 
         // random
-        Long seed = RANDOM.nextLong();
+        this.seed = RANDOM.nextLong();
         if (config.containsKey(OPTION_RANDOM_SEED.getKey())) {
-            seed = OPTION_RANDOM_SEED.parse(config);
+            this.seed = OPTION_RANDOM_SEED.parse(config);
         }
         System.out.println("RANDOM SEED=" + seed);
         this.random = new Random(seed);
@@ -179,6 +257,33 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
         this.timeoutMillis = OPTION_TIMEOUT.parse(config);
         this.exportModel = OPTION_EXPORT_MODEL.parse(config);
         this.useFresh = OPTION_USE_FRESH_VALUES.parse(config);
+        this.batchQueries = OPTION_BATCH_QUERIES.parse(config);
+        this.cacheTreeQueries = OPTION_CACHE_TREE_QUERIES.parse(config);
+        this.cacheFile = OPTION_CACHE_FILE.parse(config);
+        this.checkpointFile = OPTION_CHECKPOINT_FILE.parse(config);
+        this.cacheSymmetric = OPTION_CACHE_SYMMETRIC.parse(config);
+        this.treeQueryWorkers = OPTION_TREE_QUERY_WORKERS.parse(config);
+        if (treeQueryWorkers < 1) {
+            throw new ConfigurationException("At least one tree query worker needed");
+        }
+        this.sulPoolSize = OPTION_SUL_POOL.parse(config);
+        if (sulPoolSize < 1) {
+            throw new ConfigurationException("At least one SUL needed");
+        }
+        if (treeQueryWorkers > 1 && (cacheFile != null || useFresh)) {
+            throw new ConfigurationException("Parallel tree queries cannot be combined with "
+                    + OPTION_CACHE_FILE.getKey() + " or " + OPTION_USE_FRESH_VALUES.getKey());
+        }
+        if (checkpointFile != null && cacheFile == null) {
+            // resuming replays the saved rounds, which must not query the system again
+            throw new ConfigurationException(OPTION_CHECKPOINT_FILE.getKey()
+                    + " requires " + OPTION_CACHE_FILE.getKey());
+        }
+        if (checkpointFile != null && !config.containsKey(OPTION_RANDOM_SEED.getKey())) {
+            // the seed is part of the checkpoint, a random one would never match
+            throw new ConfigurationException(OPTION_CHECKPOINT_FILE.getKey()
+                    + " requires " + OPTION_RANDOM_SEED.getKey());
+        }
 
         this.learner = OPTION_LEARNER.parse(config);
 
@@ -190,6 +295,162 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
 
         this.solver = ConstraintSolverFactory.createSolver(
                 OPTION_SOLVER.parse(config));
+        int solverCache = OPTION_SOLVER_CACHE.parse(config);
+        if (solverCache > 0) {
+            this.solver = new CachingConstraintSolver(this.solver, solverCache);
+        }
+    }
+
+    /**
+     * Creates a tree oracle that answers independent tree queries on
+     * {@link #treeQueryWorkers} workers. Every worker owns a complete chain
+     * with new instances of the theories, a new SUL from the factory and
+     * a cache that shares its traces (and symmetric types) with the given
+     * cache. The workers are stopped by {@link #shutdownTreeQueryWorkers()}.
+     */
+    protected TreeOracle createParallelTreeOracle(Function<Map<DataType, Theory>, DataWordSUL> sulFactory,
+            ParameterizedSymbol error, ConcurrentIOCache cache, ParameterizedSymbol[] inputs,
+            Map<DataType, Theory> teachers, Constants consts) throws ConfigurationException {
+
+        // theories are not thread-safe
+        Deque<Map<DataType, Theory>> workerTeachers = new ArrayDeque<>();
+        for (int i = 0; i < treeQueryWorkers; i++) {
+            workerTeachers.add(newTeachers(teachers));
+        }
+
+        parallelTreeOracle = new ParallelTreeOracle(() -> {
+            Map<DataType, Theory> theories = workerTeachers.remove();
+            DataWordSUL sul = sulFactory.apply(theories);
+            synchronized (workerSuls) {
+                workerSuls.add(sul);
+            }
+            IOCache workerCache = new ConcurrentIOCache(new SULOracle(sul, error), cache);
+            workerCache.setBatchQueries(batchQueries);
+            MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(
+                    new IOFilter(workerCache, inputs), theories, consts, solver);
+            mto.setBatchLeafQueries(batchQueries);
+            return mto;
+        }, treeQueryWorkers);
+        return parallelTreeOracle;
+    }
+
+    /**
+     * Creates the IO oracle for the SUL. If more than one SUL instance is
+     * configured, queries are answered by a pool of new SULs from the
+     * factory, each with its own instances of the theories. The pool is
+     * stopped by {@link #shutdownSULPool()}.
+     *
+     * @param sulFactory creates a SUL for the given theories
+     * @param sul the SUL that is used without a pool
+     * @param error
+     * @param teachers
+     * @return
+     * @throws ConfigurationException
+     */
+    protected IOOracle createSULOracle(Function<Map<DataType, Theory>, DataWordSUL> sulFactory,
+            DataWordSUL sul, ParameterizedSymbol error, Map<DataType, Theory> teachers)
+            throws ConfigurationException {
+
+        if (sulPoolSize < 2) {
+            return new SULOracle(sul, error);
+        }
+
+        Deque<Map<DataType, Theory>> poolTeachers = new ArrayDeque<>();
+        for (int i = 0; i < sulPoolSize; i++) {
+            poolTeachers.add(newTeachers(teachers));
+        }
+        sulPool = new PooledSULOracle(() -> sulFactory.apply(poolTeachers.remove()), sulPoolSize, error);
+        return sulPool;
+    }
+
+    /**
+     * stops the SUL pool (if any).
+     */
+    protected void shutdownSULPool() {
+        if (sulPool != null) {
+            sulPool.shutdown();
+        }
+    }
+
+    /**
+     * @return resets and inputs of the SULs in the pool
+     */
+    protected String sulPoolStatistics() {
+        return "SUL pool: " + sulPoolSize + ", resets: " + sulPool.getResets() + ", inputs: " + sulPool.getInputs();
+    }
+
+    /**
+     * stops the tree query workers (if any).
+     */
+    protected void shutdownTreeQueryWorkers() {
+        if (parallelTreeOracle != null) {
+            parallelTreeOracle.shutdown();
+        }
+    }
+
+    /**
+     * @return new instances of the theories for the same types
+     */
+    protected Map<DataType, Theory> newTeachers(Map<DataType, Theory> teachers)
+            throws ConfigurationException {
+        Map<DataType, Theory> ret = new LinkedHashMap<>();
+        for (Map.Entry<DataType, Theory> e : teachers.entrySet()) {
+            TypedTheory theory = newTheory(e.getValue().getClass());
+            theory.setType(e.getKey());
+            ret.put(e.getKey(), theory);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the settings that influence a learning run, stored in the
+     * header of a checkpoint
+     */
+    protected String learnerSettings() {
+        return getClass().getSimpleName() + ';'
+                + OPTION_USE_SUFFIXOPT.getKey() + '=' + useSuffixOpt + ';'
+                + OPTION_USE_CEOPT.getKey() + '=' + useCeOptimizers + ';'
+                + OPTION_RANDOM_SEED.getKey() + '=' + seed + ';'
+                + OPTION_USE_FRESH_VALUES.getKey() + '=' + useFresh + ';'
+                + OPTION_TREE_QUERY_WORKERS.getKey() + '=' + treeQueryWorkers + ';';
+    }
+
+    /**
+     * @return resets and inputs of the SULs of the tree query workers
+     */
+    protected String workerStatistics() {
+        long resets = 0;
+        long inputs = 0;
+        for (DataWordSUL sul : workerSuls) {
+            resets += sul.getResets();
+            inputs += sul.getInputs();
+        }
+        return "Tree query workers: " + workerSuls.size() + ", resets: " + resets + ", inputs: " + inputs;
+    }
+
+    /**
+     * @return hits and misses of the solver cache or null if the solver
+     * results are not cached
+     */
+    protected String solverCacheStatistics() {
+        if (!(solver instanceof CachingConstraintSolver)) {
+            return null;
+        }
+        CachingConstraintSolver cache = (CachingConstraintSolver) solver;
+        return "Solver cache hits: " + cache.getHits() + ", misses: " + cache.getMisses();
+    }
+
+    /**
+     * @return the types that are handled by equality theories
+     */
+    protected static List<DataType> equalityTypes(Map<DataType, Theory> teachers) {
+        List<DataType> types = new ArrayList<>();
+        for (Map.Entry<DataType, Theory> e : teachers.entrySet()) {
+            if (e.getValue() instanceof EqualityTheory || e.getValue() instanceof UniqueEqualityTheory) {
+                types.add(e.getKey());
+            }
+        }
+        return types;
     }
 
     private Pair<String, TypedTheory> parseTeacherConfig(String config)
@@ -198,15 +459,24 @@ public abstract class AbstractToolWithRandomWalk implements RaLibTool {
             String[] parts = config.trim().split(":");
             Class<?> cl = Class.forName(parts[1].trim());
 
-            TypedTheory th = (TypedTheory) cl.getDeclaredConstructor().newInstance();
+            TypedTheory th = newTheory(cl);
             String t = parts[0].trim();
             // Do this later !!!
             // th.setType(t);
-            th.setUseSuffixOpt(this.useSuffixOpt);
 
             return Pair.of(t, th);
 
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException ex) {
+        } catch (ClassNotFoundException ex) {
+            throw new ConfigurationException(ex.getMessage());
+        }
+    }
+
+    private TypedTheory newTheory(Class<?> cl) throws ConfigurationException {
+        try {
+            TypedTheory th = (TypedTheory) cl.getDeclaredConstructor().newInstance();
+            th.setUseSuffixOpt(this.useSuffixOpt);
+            return th;
+        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException ex) {
             throw new ConfigurationException(ex.getMessage());
         }
     }
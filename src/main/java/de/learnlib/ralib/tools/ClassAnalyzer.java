@@ -18,14 +18,21 @@ package de.learnlib.ralib.tools;
 
 import static de.learnlib.ralib.tools.AbstractToolWithRandomWalk.OPTION_LOGGING_LEVEL;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
 import de.learnlib.query.DefaultQuery;
 import de.learnlib.ralib.automata.RegisterAutomaton;
 import de.learnlib.ralib.automata.xml.RegisterAutomatonExporter;
@@ -35,18 +42,22 @@ import de.learnlib.ralib.equivalence.IOCounterExamplePrefixFinder;
 import de.learnlib.ralib.equivalence.IOCounterExamplePrefixReplacer;
 import de.learnlib.ralib.equivalence.IOCounterexampleLoopRemover;
 import de.learnlib.ralib.equivalence.IORandomWalk;
+import de.learnlib.ralib.learning.CheckpointingLearner;
 import de.learnlib.ralib.learning.Hypothesis;
 import de.learnlib.ralib.learning.RaLearningAlgorithm;
 import de.learnlib.ralib.learning.ralambda.RaDT;
 import de.learnlib.ralib.learning.ralambda.RaLambda;
 import de.learnlib.ralib.learning.rastar.RaStar;
+import de.learnlib.ralib.oracles.CachingTreeOracle;
 import de.learnlib.ralib.oracles.DataWordOracle;
 import de.learnlib.ralib.oracles.SimulatorOracle;
 import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeOracleFactory;
+import de.learnlib.ralib.oracles.io.ConcurrentIOCache;
 import de.learnlib.ralib.oracles.io.IOCache;
 import de.learnlib.ralib.oracles.io.IOFilter;
 import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.oracles.io.PersistentIOCache;
 import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
 import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
 import de.learnlib.ralib.sul.CachingSUL;
@@ -93,6 +104,13 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
         OPTION_RANDOM_SEED,
         OPTION_USE_CEOPT,
         OPTION_USE_SUFFIXOPT,
+        OPTION_BATCH_QUERIES,
+        OPTION_CACHE_TREE_QUERIES,
+        OPTION_TREE_QUERY_WORKERS,
+        OPTION_CACHE_FILE,
+        OPTION_CHECKPOINT_FILE,
+        OPTION_CACHE_SYMMETRIC,
+        OPTION_SOLVER_CACHE,
         OPTION_EXPORT_MODEL,
         OPTION_USE_RWALK,
         OPTION_MAX_ROUNDS,
@@ -106,8 +124,12 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
         OPTION_RWALK_SEED_TRANSITIONS
     };
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassAnalyzer.class);
+
     private DataWordSUL sulLearn;
 
+    private PersistentIOCache persistentCache = null;
+
     private DataWordSUL sulTest;
 
     private DataWordSUL trackingSulTest;
@@ -196,8 +218,26 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
                 teachers.put(t, theory);
             }
 
-            back = new SULOracle(sulLearn, SpecialSymbols.ERROR);
-            IOCache ioCache = new IOCache(back);
+            Function<Map<DataType, Theory>, DataWordSUL> sulFactory = theories -> {
+                DataWordSUL sul = new ClasssAnalyzerDataWordSUL(target, methods, md);
+                return (timeoutMillis > 0L) ? new TimeOutSUL(sul, timeoutMillis) : sul;
+            };
+
+            back = createSULOracle(sulFactory, sulLearn, SpecialSymbols.ERROR, teachers);
+            IOCache ioCache;
+            if (cacheFile != null) {
+                persistentCache = new PersistentIOCache(back, new File(cacheFile),
+                        Arrays.asList(actions), teachers);
+                ioCache = persistentCache;
+            } else if (treeQueryWorkers > 1) {
+                ioCache = new ConcurrentIOCache(back);
+            } else {
+                ioCache = new IOCache(back);
+            }
+            ioCache.setBatchQueries(batchQueries);
+            if (cacheSymmetric) {
+                ioCache.setSymmetricTypes(equalityTypes(teachers), consts);
+            }
             IOFilter ioOracle = new IOFilter(ioCache, inputSymbols);
 
             sulTest = new ClasssAnalyzerDataWordSUL(target, methods, md);
@@ -220,7 +260,17 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
                 }
             }
 
-            MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(ioOracle, teachers, consts, solver);
+            TreeOracle sulTreeOracle;
+            if (treeQueryWorkers > 1) {
+                sulTreeOracle = createParallelTreeOracle(sulFactory,
+                        SpecialSymbols.ERROR, (ConcurrentIOCache) ioCache, inputSymbols, teachers, consts);
+            } else {
+                MultiTheoryTreeOracle multiTheoryOracle = new MultiTheoryTreeOracle(ioOracle, teachers, consts, solver);
+                multiTheoryOracle.setBatchLeafQueries(batchQueries);
+                sulTreeOracle = multiTheoryOracle;
+            }
+            TreeOracle mto = cacheTreeQueries ?
+                    new CachingTreeOracle(sulTreeOracle, teachers, consts) : sulTreeOracle;
             MultiTheorySDTLogicOracle mlo = new MultiTheorySDTLogicOracle(consts, solver);
 
             final long timeout = this.timeoutMillis;
@@ -252,6 +302,11 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
                     throw new ConfigurationException("Unknown Learning algorithm: " + this.learner);
             }
 
+            if (checkpointFile != null) {
+                this.rastar = new CheckpointingLearner(this.rastar, new File(checkpointFile),
+                        Arrays.asList(actions), teachers, consts, learnerSettings());
+            }
+
             if (findCounterexamples) {
 
                 boolean drawUniformly = OPTION_RWALK_DRAW.parse(config);
@@ -363,6 +418,8 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
             assert !hypTrace.equals(sysTrace);
             rastar.refineHypothesis(ce);
         }
+        shutdownTreeQueryWorkers();
+        shutdownSULPool();
 
         System.out.println("=============================== STOP ===============================");
         SimpleProfiler.logResults();
@@ -408,6 +465,24 @@ public class ClassAnalyzer extends AbstractToolWithRandomWalk {
         // + sums
         System.out.println("Resets: " + (resets + sulLearn.getResets()));
         System.out.println("Inputs: " + (inputs + sulLearn.getInputs()));
+        if (treeQueryWorkers > 1) {
+            System.out.println(workerStatistics());
+        }
+        if (sulPool != null) {
+            System.out.println(sulPoolStatistics());
+        }
+        String solverStats = solverCacheStatistics();
+        if (solverStats != null) {
+            System.out.println(solverStats);
+        }
+
+        if (persistentCache != null) {
+            try {
+                persistentCache.close();
+            } catch (IOException ex) {
+                LOGGER.error(Category.EVENT, "Closing cache file {} failed", cacheFile, ex);
+            }
+        }
 
     }
 
@@ -17,14 +17,22 @@
 package de.learnlib.ralib.tools;
 
 import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
 import de.learnlib.query.DefaultQuery;
 import de.learnlib.ralib.automata.RegisterAutomaton;
 import de.learnlib.ralib.automata.xml.RegisterAutomatonExporter;
@@ -32,6 +40,7 @@ import de.learnlib.ralib.automata.xml.RegisterAutomatonImporter;
 import de.learnlib.ralib.data.Constants;
 import de.learnlib.ralib.data.DataType;
 import de.learnlib.ralib.equivalence.*;
+import de.learnlib.ralib.learning.CheckpointingLearner;
 import de.learnlib.ralib.learning.Hypothesis;
 import de.learnlib.ralib.learning.Measurements;
 import de.learnlib.ralib.learning.MeasuringOracle;
@@ -40,13 +49,16 @@ import de.learnlib.ralib.learning.RaLearningAlgorithm;
 import de.learnlib.ralib.learning.ralambda.RaDT;
 import de.learnlib.ralib.learning.ralambda.RaLambda;
 import de.learnlib.ralib.learning.rastar.RaStar;
+import de.learnlib.ralib.oracles.CachingTreeOracle;
 import de.learnlib.ralib.oracles.DataWordOracle;
 import de.learnlib.ralib.oracles.SimulatorOracle;
 import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeOracleFactory;
+import de.learnlib.ralib.oracles.io.ConcurrentIOCache;
 import de.learnlib.ralib.oracles.io.IOCache;
 import de.learnlib.ralib.oracles.io.IOFilter;
 import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.oracles.io.PersistentIOCache;
 import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
 import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
 import de.learnlib.ralib.sul.CachingSUL;
@@ -86,6 +98,13 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
         OPTION_USE_CEOPT,
         OPTION_USE_SUFFIXOPT,
         OPTION_USE_FRESH_VALUES,
+        OPTION_BATCH_QUERIES,
+        OPTION_CACHE_TREE_QUERIES,
+        OPTION_TREE_QUERY_WORKERS,
+        OPTION_CACHE_FILE,
+        OPTION_CHECKPOINT_FILE,
+        OPTION_CACHE_SYMMETRIC,
+        OPTION_SOLVER_CACHE,
         OPTION_EXPORT_MODEL,
         OPTION_USE_EQTEST,
         OPTION_USE_RWALK,
@@ -99,10 +118,14 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
         OPTION_RWALK_SEED_TRANSITIONS
         };
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(IOSimulator.class);
+
     private RegisterAutomaton model;
 
     private DataWordSUL sulLearn;
 
+    private PersistentIOCache persistentCache = null;
+
     private DataWordSUL sulTest;
 
     private IORandomWalk randomWalk = null;
@@ -175,8 +198,27 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
         final ParameterizedSymbol ERROR
                 = new OutputSymbol("_io_err", new DataType[]{});
 
-       IOOracle back = new SULOracle(sulLearn, ERROR);
-       IOCache ioCache = new IOCache(back);
+       Function<Map<DataType, Theory>, DataWordSUL> sulFactory = theories -> {
+           DataWordSUL sul = new SimulatorSUL(model, theories, consts);
+           return (timeoutMillis > 0L) ? new TimeOutSUL(sul, timeoutMillis) : sul;
+       };
+
+       IOOracle back = createSULOracle(sulFactory, sulLearn, ERROR, teachers);
+       IOCache ioCache;
+       if (cacheFile != null) {
+           List<ParameterizedSymbol> alphabet = new ArrayList<>(Arrays.asList(actions));
+           alphabet.add(ERROR);
+           persistentCache = new PersistentIOCache(back, new File(cacheFile), alphabet, teachers);
+           ioCache = persistentCache;
+       } else if (treeQueryWorkers > 1) {
+           ioCache = new ConcurrentIOCache(back);
+       } else {
+           ioCache = new IOCache(back);
+       }
+       ioCache.setBatchQueries(batchQueries);
+       if (cacheSymmetric) {
+           ioCache.setSymmetricTypes(equalityTypes(teachers), consts);
+       }
        IOFilter ioOracle = new IOFilter(ioCache, inputSymbols);
 
        this.sulTest = new SimulatorSUL(model, teachers, consts);
@@ -199,7 +241,18 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
        }
 
         Measurements measurements = new Measurements();
-        MeasuringOracle mto = new MeasuringOracle(new MultiTheoryTreeOracle(ioOracle, teachers, consts, solver), measurements);
+        TreeOracle sulTreeOracle;
+        if (treeQueryWorkers > 1) {
+            sulTreeOracle = createParallelTreeOracle(sulFactory,
+                    ERROR, (ConcurrentIOCache) ioCache, inputSymbols, teachers, consts);
+        } else {
+            MultiTheoryTreeOracle multiTheoryOracle = new MultiTheoryTreeOracle(ioOracle, teachers, consts, solver);
+            multiTheoryOracle.setBatchLeafQueries(batchQueries);
+            sulTreeOracle = multiTheoryOracle;
+        }
+        TreeOracle sulOracle = cacheTreeQueries ?
+                new CachingTreeOracle(sulTreeOracle, teachers, consts) : sulTreeOracle;
+        MeasuringOracle mto = new MeasuringOracle(sulOracle, measurements);
         MultiTheorySDTLogicOracle mlo = new MultiTheorySDTLogicOracle(consts, solver);
 
         final long timeout = this.timeoutMillis;
@@ -231,6 +284,13 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
         QueryStatistics queryStats = new QueryStatistics(measurements, sulLearn, trackingSulTest);
         this.rastar.setStatisticCounter(queryStats);
 
+        if (checkpointFile != null) {
+            List<ParameterizedSymbol> alphabet = new ArrayList<>(Arrays.asList(actions));
+            alphabet.add(ERROR);
+            this.rastar = new CheckpointingLearner(this.rastar, new File(checkpointFile), alphabet,
+                    teachers, consts, learnerSettings());
+        }
+
         this.eqTest = new IOEquivalenceTest(model, teachers, consts, true, actions);
 
         this.useEqTest = OPTION_USE_EQTEST.parse(config);
@@ -369,11 +429,15 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
 
             rastar.refineHypothesis(ce);
         }
+        shutdownTreeQueryWorkers();
+        shutdownSULPool();
 
         System.out.println("=============================== STOP ===============================");
         SimpleProfiler.logResults();
 
-        System.out.println("Learner: " + rastar.getClass().getSimpleName());
+        RaLearningAlgorithm learnerImpl = (rastar instanceof CheckpointingLearner) ?
+                ((CheckpointingLearner) rastar).getLearner() : rastar;
+        System.out.println("Learner: " + learnerImpl.getClass().getSimpleName());
 
         for (Entry<DataType, Theory> e : teachers.entrySet()) {
             System.out.println("Theory: " + e.getKey() + " -> " + e.getValue().getClass().getName());
@@ -416,6 +480,24 @@ public class IOSimulator extends AbstractToolWithRandomWalk {
 
         // statistics
         System.out.println(queryStats.toString());
+        if (treeQueryWorkers > 1) {
+            System.out.println(workerStatistics());
+        }
+        if (sulPool != null) {
+            System.out.println(sulPoolStatistics());
+        }
+        String solverStats = solverCacheStatistics();
+        if (solverStats != null) {
+            System.out.println(solverStats);
+        }
+
+        if (persistentCache != null) {
+            try {
+                persistentCache.close();
+            } catch (IOException ex) {
+                LOGGER.error(Category.EVENT, "Closing cache file {} failed", cacheFile, ex);
+            }
+        }
 
     }
 
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.tools.theories;
+
+import static de.learnlib.ralib.solver.jconstraints.JContraintsUtil.toVariable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.learnlib.logging.Category;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.LongDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.theory.SDTAndGuard;
+import de.learnlib.ralib.theory.SDTGuard;
+import de.learnlib.ralib.theory.SDTOrGuard;
+import de.learnlib.ralib.theory.SDTTrueGuard;
+import de.learnlib.ralib.theory.equality.DisequalityGuard;
+import de.learnlib.ralib.theory.equality.EqualityGuard;
+import de.learnlib.ralib.theory.inequality.InequalityTheoryWithEq;
+import de.learnlib.ralib.theory.inequality.IntervalGuard;
+import de.learnlib.ralib.tools.classanalyzer.TypedTheory;
+import gov.nasa.jpf.constraints.api.Valuation;
+
+/**
+ * Inequality theory over longs. Unlike {@link DoubleInequalityTheory}, guards
+ * are instantiated in closed form (values below, above or in the middle of
+ * an interval) instead of by a constraint solver.
+ *
+ * Values below or above all known values are chosen {@link #STEP} apart,
+ * so that the intervals between generated values stay non-empty when tree
+ * queries nest further interval instantiations. Near the bounds of long,
+ * the step shrinks so that values never overflow.
+ */
+public class LongInequalityTheory extends InequalityTheoryWithEq<Long> implements TypedTheory<Long> {
+
+    /**
+     * distance between generated values and the values below or above them
+     */
+    public static final long STEP = 1L << 16;
+
+    private static final class Cpr implements Comparator<DataValue<Long>> {
+
+        @Override
+        public int compare(DataValue<Long> one, DataValue<Long> other) {
+            return Long.compare(LongDataValue.longValue(one), LongDataValue.longValue(other));
+        }
+    }
+
+    /**
+     * Constraints on the suffix value collected from a conjunction of guards:
+     * exclusive bounds, an optional equality and excluded values.
+     */
+    private static final class Bounds {
+
+        private long lower = Long.MIN_VALUE;
+        private long upper = Long.MAX_VALUE;
+        private Long equal = null;
+        private final Set<Long> excluded = new HashSet<>();
+        private boolean unsat = false;
+
+        private void add(SDTGuard g, Valuation val) {
+            if (g instanceof EqualityGuard) {
+                Long r = valueOf(((EqualityGuard) g).getRegister(), val);
+                if (r != null) {
+                    unsat |= (equal != null && !equal.equals(r));
+                    equal = r;
+                }
+            } else if (g instanceof DisequalityGuard) {
+                Long r = valueOf(((DisequalityGuard) g).getRegister(), val);
+                if (r != null) {
+                    excluded.add(r);
+                }
+            } else if (g instanceof IntervalGuard) {
+                IntervalGuard iGuard = (IntervalGuard) g;
+                Long l = iGuard.isSmallerGuard() ? null : valueOf(iGuard.getLeftReg(), val);
+                Long r = iGuard.isBiggerGuard() ? null : valueOf(iGuard.getRightReg(), val);
+                if (l != null) {
+                    lower = Math.max(lower, l);
+                }
+                if (r != null) {
+                    upper = Math.min(upper, r);
+                }
+            } else if (g instanceof SDTAndGuard) {
+                for (SDTGuard sub : ((SDTAndGuard) g).getGuards()) {
+                    add(sub, val);
+                }
+            } else if (!(g instanceof SDTTrueGuard)) {
+                throw new IllegalStateException("only =, != or interval allowed. Got " + g);
+            }
+        }
+
+        private boolean admits(long v, Set<Long> used) {
+            return !unsat && v > lower && v < upper
+                    && (equal == null || equal == v)
+                    && !excluded.contains(v) && !used.contains(v);
+        }
+
+        private boolean bounded() {
+            return lower != Long.MIN_VALUE || upper != Long.MAX_VALUE;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LongInequalityTheory.class);
+
+    private DataType type = null;
+
+    public LongInequalityTheory() {
+    }
+
+    public LongInequalityTheory(DataType t) {
+        this.type = t;
+    }
+
+    @Override
+    public List<DataValue<Long>> getPotential(List<DataValue<Long>> dvs) {
+        List<DataValue<Long>> sortedList = new ArrayList<>(dvs);
+        Collections.sort(sortedList, new Cpr());
+        return sortedList;
+    }
+
+    @Override
+    public LongDataValue instantiate(SDTGuard g, Valuation val, Constants c,
+            Collection<DataValue<Long>> alreadyUsedValues) {
+
+        if (g instanceof SDTOrGuard) {
+            for (SDTGuard sub : ((SDTOrGuard) g).getGuards()) {
+                LongDataValue ret = instantiate(sub, val, c, alreadyUsedValues);
+                if (ret != null) {
+                    return ret;
+                }
+            }
+            return null;
+        }
+
+        Bounds bounds = new Bounds();
+        bounds.add(g, val);
+
+        // an equality may pick an already used value
+        Set<Long> used = new HashSet<>();
+        if (!(g instanceof EqualityGuard)) {
+            for (DataValue<Long> au : alreadyUsedValues) {
+                used.add(LongDataValue.longValue(au));
+            }
+        }
+
+        Long fixed = valueOf(g.getParameter(), val);
+        if (fixed == null) {
+            fixed = bounds.equal;
+        }
+        if (fixed != null) {
+            return bounds.admits(fixed, used) ? new LongDataValue(type, fixed) : null;
+        }
+        if (bounds.unsat || bounds.upper == Long.MIN_VALUE || bounds.upper - 1 <= bounds.lower) {
+            return null;
+        }
+
+        long lo = bounds.lower + 1;
+        long hi = bounds.upper - 1;
+        long start;
+        if (!bounds.bounded()) {
+            Long max = null;
+            for (long v : bounds.excluded) {
+                max = (max == null) ? v : Math.max(max, v);
+            }
+            for (long v : used) {
+                max = (max == null) ? v : Math.max(max, v);
+            }
+            start = (max == null) ? 1 : above(max);
+        } else if (bounds.lower == Long.MIN_VALUE) {
+            start = below(bounds.upper);
+        } else if (bounds.upper == Long.MAX_VALUE) {
+            start = above(bounds.lower);
+        } else {
+            start = middle(lo, hi);
+        }
+
+        // search outwards from start, at most |excluded| + |used| steps;
+        // a value that wrapped around is outside of [lo, hi]
+        for (long d = 0; ; d++) {
+            long up = start + d;
+            long down = start - d;
+            boolean upDone = up < start || up > hi;
+            boolean downDone = down > start || down < lo;
+            if (upDone && downDone) {
+                return null;
+            }
+            if (!upDone && bounds.admits(up, used)) {
+                return new LongDataValue(type, up);
+            }
+            if (d > 0 && !downDone && bounds.admits(down, used)) {
+                return new LongDataValue(type, down);
+            }
+        }
+    }
+
+    @Override
+    public LongDataValue getFreshValue(List<DataValue<Long>> vals) {
+        if (vals.isEmpty()) {
+            return new LongDataValue(type, 1L);
+        }
+        List<DataValue<Long>> sorted = getPotential(vals);
+        long min = LongDataValue.longValue(sorted.get(0));
+        long max = LongDataValue.longValue(sorted.get(sorted.size() - 1));
+        if (max < Long.MAX_VALUE) {
+            return new LongDataValue(type, above(max));
+        }
+        if (min > Long.MIN_VALUE) {
+            return new LongDataValue(type, below(min));
+        }
+        // both bounds are taken: use a gap between the values
+        for (int i = 0; i < (sorted.size() - 1); i++) {
+            long d1 = LongDataValue.longValue(sorted.get(i));
+            long d2 = LongDataValue.longValue(sorted.get(i + 1));
+            if (d1 + 1 < d2) {
+                return new LongDataValue(type, middle(d1, d2));
+            }
+        }
+        throw new IllegalStateException("No fresh value left for " + vals);
+    }
+
+    @Override
+    public void setType(DataType type) {
+        this.type = type;
+    }
+
+    @Override
+    public void setUseSuffixOpt(boolean useit) {
+        LOGGER.info(Category.SYSTEM,
+                    "Optimized suffixes are currently not supported for theory {}",
+                    LongInequalityTheory.class.getName());
+    }
+
+    @Override
+    public void setCheckForFreshOutputs(boolean doit, IOOracle oracle) {
+        LOGGER.info(Category.SYSTEM,
+                    "Fresh values are currently not supported for theory {}",
+                    LongInequalityTheory.class.getName());
+    }
+
+    @Override
+    public Collection<DataValue<Long>> getAllNextValues(
+            List<DataValue<Long>> vals) {
+        Set<DataValue<Long>> nextValues = new LinkedHashSet<>();
+        nextValues.addAll(vals);
+        if (vals.isEmpty()) {
+            nextValues.add(new LongDataValue(type, 1L));
+        } else {
+            List<DataValue<Long>> sorted = getPotential(vals);
+            for (int i = 0; i < (sorted.size() - 1); i++) {
+                long d1 = LongDataValue.longValue(sorted.get(i));
+                long d2 = LongDataValue.longValue(sorted.get(i + 1));
+                long mid = middle(d1, d2);
+                if (mid > d1 && mid < d2) {
+                    nextValues.add(new LongDataValue(type, mid));
+                }
+            }
+            long min = LongDataValue.longValue(sorted.get(0));
+            long max = LongDataValue.longValue(sorted.get(sorted.size() - 1));
+            if (min > Long.MIN_VALUE) {
+                nextValues.add(new LongDataValue(type, below(min)));
+            }
+            if (max < Long.MAX_VALUE) {
+                nextValues.add(new LongDataValue(type, above(max)));
+            }
+        }
+        return nextValues;
+    }
+
+    /**
+     * @return a value above v, at most {@link #STEP} away; v if v is the
+     *         largest long
+     */
+    private static long above(long v) {
+        if (v <= Long.MAX_VALUE - 2 * STEP) {
+            return v + STEP;
+        }
+        long room = Long.MAX_VALUE - v;
+        return v + (room + 1) / 2;
+    }
+
+    /**
+     * @return a value below v, at most {@link #STEP} away; v if v is the
+     *         smallest long
+     */
+    private static long below(long v) {
+        if (v >= Long.MIN_VALUE + 2 * STEP) {
+            return v - STEP;
+        }
+        long room = v - Long.MIN_VALUE;
+        return v - (room + 1) / 2;
+    }
+
+    /**
+     * @return floor of (lo + hi) / 2, without overflow
+     */
+    private static long middle(long lo, long hi) {
+        return (lo >> 1) + (hi >> 1) + (lo & hi & 1);
+    }
+
+    private static Long valueOf(SymbolicDataValue sdv, Valuation val) {
+        if (sdv == null || !val.containsValueFor(toVariable(sdv))) {
+            return null;
+        }
+        return ((Number) val.getValue(toVariable(sdv))).longValue();
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.words;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.FreshValue;
+import de.learnlib.ralib.data.LongDataValue;
+import net.automatalib.word.Word;
+
+/**
+ * Binary encoding of data words over a fixed alphabet.
+ *
+ * Symbols are stored by name. Data values can be stored if their ids are
+ * numbers, booleans, or strings. Each data value is preceded by its kind,
+ * so that fresh values and long values are read back as instances of the
+ * same class.
+ */
+public class DataWordCodec {
+
+    // kinds of data values; plain and fresh match the former boolean flag
+    private static final byte PLAIN = 0;
+
+    private static final byte FRESH = 1;
+
+    private static final byte LONG = 2;
+
+    private final Map<String, ParameterizedSymbol> symbols = new LinkedHashMap<>();
+
+    public DataWordCodec(Collection<ParameterizedSymbol> alphabet) {
+        for (ParameterizedSymbol ps : alphabet) {
+            symbols.put(ps.getName(), ps);
+        }
+    }
+
+    /**
+     * @param alphabet
+     * @return a description of the alphabet for checking that stored words
+     * can be read with another codec
+     */
+    public static String describe(Collection<ParameterizedSymbol> alphabet) {
+        StringBuilder sb = new StringBuilder();
+        for (ParameterizedSymbol ps : alphabet) {
+            sb.append(ps.getClass().getSimpleName()).append(' ').append(ps.getName());
+            for (DataType t : ps.getPtypes()) {
+                sb.append(' ').append(t.getName());
+            }
+            sb.append(';');
+        }
+        return sb.toString();
+    }
+
+    public void write(DataOutput out, Word<PSymbolInstance> word) throws IOException {
+        out.writeInt(word.length());
+        for (PSymbolInstance psi : word) {
+            ParameterizedSymbol ps = psi.getBaseSymbol();
+            if (symbols.get(ps.getName()) == null) {
+                throw new IllegalArgumentException("Unknown symbol: " + ps);
+            }
+            out.writeUTF(ps.getName());
+            for (DataValue d : psi.getParameterValues()) {
+                out.writeByte(kindOf(d));
+                writeId(out, d.getId());
+            }
+        }
+    }
+
+    public Word<PSymbolInstance> read(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid word length: " + length);
+        }
+        // the length may be corrupt, so the array grows while reading
+        List<PSymbolInstance> word = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            String name = in.readUTF();
+            ParameterizedSymbol ps = symbols.get(name);
+            if (ps == null) {
+                throw new IOException("Unknown symbol: " + name);
+            }
+            DataValue[] vals = new DataValue[ps.getArity()];
+            for (int j = 0; j < vals.length; j++) {
+                byte kind = in.readByte();
+                DataType t = ps.getPtypes()[j];
+                Object id = readId(in);
+                vals[j] = toDataValue(kind, t, id);
+            }
+            word.add(new PSymbolInstance(ps, vals));
+        }
+        return Word.fromList(word);
+    }
+
+    private static byte kindOf(DataValue<?> d) {
+        if (d instanceof FreshValue) {
+            return FRESH;
+        }
+        return (d instanceof LongDataValue) ? LONG : PLAIN;
+    }
+
+    private static DataValue<?> toDataValue(byte kind, DataType t, Object id) throws IOException {
+        switch (kind) {
+            case PLAIN:
+                return new DataValue<>(t, id);
+            case FRESH:
+                return new FreshValue<>(t, id);
+            case LONG:
+                if (!(id instanceof Long)) {
+                    throw new IOException("Invalid long data value: " + id);
+                }
+                return new LongDataValue(t, (Long) id);
+            default:
+                throw new IOException("Unknown data value kind: " + kind);
+        }
+    }
+
+    private static void writeId(DataOutput out, Object id) throws IOException {
+        if (id instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt((Integer) id);
+        } else if (id instanceof Long) {
+            out.writeByte('J');
+            out.writeLong((Long) id);
+        } else if (id instanceof Double) {
+            out.writeByte('D');
+            out.writeDouble((Double) id);
+        } else if (id instanceof Boolean) {
+            out.writeByte('Z');
+            out.writeBoolean((Boolean) id);
+        } else if (id instanceof BigDecimal) {
+            out.writeByte('B');
+            out.writeUTF(id.toString());
+        } else if (id instanceof BigInteger) {
+            out.writeByte('N');
+            out.writeUTF(id.toString());
+        } else if (id instanceof String) {
+            out.writeByte('S');
+            out.writeUTF((String) id);
+        } else {
+            throw new IllegalArgumentException("Cannot persist data value id: " + id);
+        }
+    }
+
+    private static Object readId(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case 'I':
+                return in.readInt();
+            case 'J':
+                return in.readLong();
+            case 'D':
+                return in.readDouble();
+            case 'Z':
+                return in.readBoolean();
+            case 'B':
+                return parse(in.readUTF(), BigDecimal::new);
+            case 'N':
+                return parse(in.readUTF(), BigInteger::new);
+            case 'S':
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown data value tag: " + tag);
+        }
+    }
+
+    private static Object parse(String number, Function<String, Object> parser) throws IOException {
+        try {
+            return parser.apply(number);
+        } catch (NumberFormatException ex) {
+            throw new IOException("Invalid number: " + number, ex);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
 
 import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.dt.DT;
 import de.learnlib.ralib.words.OutputSymbol;
 import de.learnlib.ralib.words.ParameterizedSymbol;
 
@@ -41,6 +42,8 @@ public abstract class RaLibTestSuite {
     @BeforeSuite
     public void beforeSuite() {
         TestUtil.configureLogging(Level.WARNING);
+        // check the prefix index of every discrimination tree
+        System.setProperty(DT.CHECK_INDEX_PROPERTY, "true");
     }
 
     @BeforeMethod
@@ -0,0 +1,57 @@
+package de.learnlib.ralib.automata;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.ArrayParValuation;
+import de.learnlib.ralib.data.ArrayVarValuation;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.ParValuation;
+import de.learnlib.ralib.data.RegisterSlots;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.VarMapping;
+import de.learnlib.ralib.data.VarValuation;
+import de.learnlib.ralib.words.InputSymbol;
+import de.learnlib.ralib.words.PSymbolInstance;
+
+public class AssignmentTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    @Test
+    public void testArrayValuations() {
+        Register r1 = new Register(T_INT, 1);
+        Register r2 = new Register(T_INT, 2);
+        Register r3 = new Register(T_INT, 3);
+        Parameter p1 = new Parameter(T_INT, 1);
+
+        VarMapping<Register, SymbolicDataValue> swap = new VarMapping<>();
+        swap.put(r1, r2);
+        swap.put(r2, r1);
+        swap.put(r3, p1);
+        Assignment assignment = new Assignment(swap);
+
+        VarValuation registers = new VarValuation();
+        registers.put(r1, new DataValue<>(T_INT, 1));
+        registers.put(r2, new DataValue<>(T_INT, 2));
+        PSymbolInstance psi = new PSymbolInstance(new InputSymbol("a", T_INT),
+                new DataValue<>(T_INT, 3));
+        Constants consts = new Constants();
+
+        ArrayVarValuation before = new ArrayVarValuation(new RegisterSlots(), registers);
+        ArrayVarValuation after = assignment.compute(before, new ArrayParValuation(psi), consts);
+
+        Assert.assertEquals(after.toVarValuation(),
+                assignment.compute(registers, new ParValuation(psi), consts));
+        Assert.assertEquals(before.toVarValuation(), registers);
+
+        // valuations are shared if nothing is assigned
+        Assignment empty = new Assignment(new VarMapping<>());
+        Assert.assertSame(empty.compute(after, new ArrayParValuation(psi), consts), after);
+    }
+}
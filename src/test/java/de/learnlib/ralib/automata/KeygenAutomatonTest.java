@@ -117,6 +117,31 @@ public class KeygenAutomatonTest extends RaLibTestSuite {
         Assert.assertTrue(!ra.accepts(test7));
     }
 
+    @Test
+    public void testCursor() {
+
+        RegisterAutomaton ra = AUTOMATON;
+
+        Word<PSymbolInstance> test = Word.epsilon();
+        test = test.append(new PSymbolInstance(I_PUT, new DataValue[] { new DataValue(T_VAL, 1)} ));
+        test = test.append(new PSymbolInstance(O_PUT, new DataValue[] { new DataValue(T_KEY, 1) }));
+        test = test.append(new PSymbolInstance(I_PUT, new DataValue[] { new DataValue(T_VAL, 2)} ));
+        test = test.append(new PSymbolInstance(O_PUT, new DataValue[] { new DataValue(T_KEY, 2) }));
+        test = test.append(new PSymbolInstance(I_GET, new DataValue[] { new DataValue(T_KEY, 1)} ));
+        test = test.append(new PSymbolInstance(O_GET, new DataValue[] { new DataValue(T_VAL, 2) }));
+        test = test.append(new PSymbolInstance(I_GET, new DataValue[] { new DataValue(T_KEY, 2)} ));
+
+        RACursor cursor = ra.cursor();
+        Assert.assertEquals(cursor.isAccepting(), ra.accepts(Word.epsilon()));
+        for (int i = 0; i < test.length(); i++) {
+            cursor.step(test.getSymbol(i));
+            Word<PSymbolInstance> prefix = test.prefix(i + 1);
+            Assert.assertEquals(cursor.isAccepting(), ra.accepts(prefix));
+            Assert.assertEquals(cursor.getLocation(), ra.getLocation(prefix));
+        }
+        Assert.assertNull(cursor.getLocation());
+    }
+
     @BeforeClass
     public static void setUpClass() throws Exception {
     }
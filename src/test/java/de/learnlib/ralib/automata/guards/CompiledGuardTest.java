@@ -0,0 +1,84 @@
+package de.learnlib.ralib.automata.guards;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.ParValuation;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Constant;
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.VarMapping;
+import de.learnlib.ralib.data.VarValuation;
+
+public class CompiledGuardTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    private final Register[] regs = { new Register(T_INT, 1), new Register(T_INT, 2) };
+    private final Parameter[] pars = { new Parameter(T_INT, 1), new Parameter(T_INT, 2) };
+    private final Constant c1 = new Constant(T_INT, 1);
+
+    private final SymbolicDataValue[] sdvs = { regs[0], regs[1], pars[0], pars[1], c1 };
+
+    @Test
+    public void testAgreesWithGuardExpression() {
+        Random r = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            VarValuation registers = new VarValuation();
+            ParValuation parameters = new ParValuation();
+            Constants consts = new Constants();
+            for (Register reg : regs) {
+                registers.put(reg, new DataValue<>(T_INT, r.nextInt(3)));
+            }
+            for (Parameter par : pars) {
+                parameters.put(par, new DataValue<>(T_INT, r.nextInt(3)));
+            }
+            consts.put(c1, new DataValue<>(T_INT, r.nextInt(3)));
+
+            VarMapping val = new VarMapping();
+            val.putAll(registers);
+            val.putAll(parameters);
+            val.putAll(consts);
+
+            GuardExpression expr = randomGuard(r, 3);
+            Assert.assertEquals(CompiledGuard.compile(expr).isSatisfied(registers, parameters, consts),
+                    expr.isSatisfied(val), expr + " with " + val);
+        }
+    }
+
+    @Test
+    public void testFolding() {
+        GuardExpression atom = new AtomicGuardExpression<>(regs[0], Relation.EQUALS, pars[0]);
+        Assert.assertSame(CompiledGuard.compile(new Conjunction(
+                TrueGuardExpression.TRUE, new Negation(TrueGuardExpression.TRUE), atom)),
+                CompiledGuard.FALSE);
+        Assert.assertSame(CompiledGuard.compile(new Disjunction(
+                atom, new Negation(FalseGuardExpression.FALSE))),
+                CompiledGuard.TRUE);
+    }
+
+    private GuardExpression randomGuard(Random r, int depth) {
+        int kind = depth == 0 ? 0 : r.nextInt(7);
+        switch (kind) {
+            case 1:
+                return new Negation(randomGuard(r, depth - 1));
+            case 2:
+                return new Conjunction(randomGuard(r, depth - 1), randomGuard(r, depth - 1));
+            case 3:
+                return new Disjunction(randomGuard(r, depth - 1), randomGuard(r, depth - 1));
+            case 4:
+                return r.nextBoolean() ? TrueGuardExpression.TRUE : FalseGuardExpression.FALSE;
+            default:
+                Relation[] relations = Relation.values();
+                return new AtomicGuardExpression<>(sdvs[r.nextInt(sdvs.length)],
+                        relations[r.nextInt(relations.length)], sdvs[r.nextInt(sdvs.length)]);
+        }
+    }
+}
@@ -16,10 +16,14 @@
  */
 package de.learnlib.ralib.data;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.SymbolicDataValue.Parameter;
 import de.learnlib.ralib.data.util.PIVRemappingIterator;
 import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.ParameterGenerator;
 import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.RegisterGenerator;
@@ -80,4 +84,30 @@ public class PIVRemappingIteratorTest extends RaLibTestSuite {
 
         Assert.assertEquals(count, 4);
     }
+
+    @Test
+    public void testColors() {
+
+        DataType type1 = new DataType("type1", Integer.class);
+
+        PIV piv1 = generatePIV(new PIV(), type1, 3);
+        PIV piv2 = generatePIV(new PIV(), type1, 3);
+        Parameter[] params = piv1.keySet().toArray(new Parameter[0]);
+
+        Map<Parameter, Object> colors = new LinkedHashMap<>();
+        colors.put(params[0], "a");
+        colors.put(params[1], "b");
+        colors.put(params[2], "b");
+
+        int count = 0;
+        for (VarMapping m : new PIVRemappingIterator(piv1, piv2, colors, colors)) {
+            Assert.assertEquals(m.get(params[0]), params[0]);
+            count++;
+        }
+        Assert.assertEquals(count, 2);
+
+        Map<Parameter, Object> other = new LinkedHashMap<>(colors);
+        other.put(params[2], "a");
+        Assert.assertFalse(new PIVRemappingIterator(piv1, piv2, colors, other).hasNext());
+    }
 }
@@ -70,8 +70,8 @@ public class DTInnerNodeTest {
         node.addBranch(new DTBranch(child1, r1));
         node.addBranch(new DTBranch(child2, r2));
 
-        DTNode test1 = node.sift(new MappedPrefix(p1, new PIV()), mto, false).getKey();
-        DTNode test2 = node.sift(new MappedPrefix(p2, new PIV()), mto, false).getKey();
+        DTNode test1 = node.sift(PathResult.computePathResult(mto, new MappedPrefix(p1, new PIV()), node.getSuffixes(), false));
+        DTNode test2 = node.sift(PathResult.computePathResult(mto, new MappedPrefix(p2, new PIV()), node.getSuffixes(), false));
 
         Assert.assertEquals(test1, child1);
         Assert.assertEquals(test2, child2);
@@ -24,6 +24,7 @@ import de.learnlib.ralib.oracles.TreeOracle;
 import de.learnlib.ralib.oracles.TreeQueryResult;
 import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
 import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.oracles.mto.OptimizedSymbolicSuffixBuilder;
 import de.learnlib.ralib.solver.ConstraintSolver;
 import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
 import de.learnlib.ralib.theory.Theory;
@@ -55,6 +56,8 @@ public class DTTest {
 		DTInnerNode nodeEps = new DTInnerNode(suffEps);
 		DTInnerNode nodePop = new DTInnerNode(suffPop);
 		DTInnerNode nodePush = new DTInnerNode(suffPush);
+		nodePop.setParent(nodeEps);
+		nodePush.setParent(nodePop);
 
 		PathResult rPop = PathResult.computePathResult(oracle, new MappedPrefix(prePop, new PIV()), nodeEps.getSuffixes(), false);
 		PathResult rEps = PathResult.computePathResult(oracle, new MappedPrefix(epsilon, new PIV()), nodePop.getSuffixes(), false);
@@ -105,6 +108,7 @@ public class DTTest {
 
 		DTInnerNode nodeEps = new DTInnerNode(suffEps);
 		DTInnerNode nodePop = new DTInnerNode(suffPop);
+		nodePop.setParent(nodeEps);
 
 		PathResult rPop = PathResult.computePathResult(oracle, new MappedPrefix(prePop, new PIV()), nodeEps.getSuffixes(), false);
 		PathResult rEps = PathResult.computePathResult(oracle, new MappedPrefix(epsilon, new PIV()), nodePop.getSuffixes(), false);
@@ -209,6 +213,7 @@ public class DTTest {
 	      SDTLogicOracle slo = new MultiTheorySDTLogicOracle(consts, solver);
 
 	      DT dt = new DT(mto, false, consts, I_PUSH, I_POP);
+	      dt.setCheckIndex(true);
 	      dt.initialize();
 
 	      DTHyp hyp = new DTHyp(consts, dt);
@@ -220,6 +225,12 @@ public class DTTest {
 	      Word<PSymbolInstance> eps = Word.epsilon();
 	      SymbolicSuffix suffPop = new SymbolicSuffix(eps, prePop);
 
+	      long stamp = dt.currentChange();
+	      for (DTLeaf leaf : dt.getLeaves()) {
+	    	  Assert.assertFalse(leaf.changedSince(stamp));
+	    	  Assert.assertFalse(leaf.getPrimePrefix().changedSince(stamp));
+	      }
+
 	      DTLeaf leafEps = dt.getLeaf(eps);
 	      leafEps.elevatePrefix(dt, prePush, hyp, slo);
 
@@ -232,5 +243,94 @@ public class DTTest {
 	      // assert epsilon and push(0) are both children of inner node pop
 	      Assert.assertTrue(leafEps.getParent().getSuffix().equals(suffPop));
 	      Assert.assertTrue(leafPush.getParent().getSuffix().equals(suffPop));
+
+	      // both leaves are changed by the split
+	      Assert.assertTrue(leafEps.changedSince(stamp));
+	      Assert.assertTrue(leafPush.changedSince(stamp));
+	      Assert.assertTrue(leafEps.getPrimePrefix().changedSince(stamp));
+
+	      // the prefix index agrees with the tree, also for copies
+	      DT copy = new DT(dt);
+	      for (DTLeaf leaf : dt.getLeaves()) {
+	    	  for (Word<PSymbolInstance> p : leaf.getAllPrefixes()) {
+	    		  Assert.assertSame(dt.getLeaf(p), leaf);
+	    		  Assert.assertEquals(copy.getLeaf(p).getAccessSequence(), leaf.getAccessSequence());
+	    	  }
+	      }
+	      Word<PSymbolInstance> other = leafEps.getPrefixes().getWords().iterator().next();
+	      leafEps.clear();
+	      Assert.assertNull(dt.getLeaf(other));
+	      Assert.assertSame(dt.getLeaf(eps), leafEps);
+	}
+
+	@Test
+	public void incrementalCheckTest() {
+
+	      Constants consts = new Constants();
+	      RegisterAutomaton sul = AUTOMATON;
+	      DataWordOracle dwOracle = new SimulatorOracle(sul);
+
+	      final Map<DataType, Theory> teachers = new LinkedHashMap<>();
+	      teachers.put(T_INT, new IntegerEqualityTheory(T_INT));
+
+	      ConstraintSolver solver = new SimpleConstraintSolver();
+
+	      MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(
+	              dwOracle, teachers, new Constants(), solver);
+	      SDTLogicOracle slo = new MultiTheorySDTLogicOracle(consts, solver);
+	      OptimizedSymbolicSuffixBuilder builder = new OptimizedSymbolicSuffixBuilder(consts);
+
+	      DT dt = new DT(mto, false, consts, I_PUSH, I_POP);
+	      dt.initialize();
+
+	      DTHyp hyp = new DTHyp(consts, dt);
+
+	      Word<PSymbolInstance> prePush = Word.fromSymbols(
+	    		  new PSymbolInstance(I_PUSH, new DataValue(T_INT, 0)));
+	      Word<PSymbolInstance> prePop = Word.fromSymbols(
+	    		  new PSymbolInstance(I_POP, new DataValue(T_INT, 0)));
+	      Word<PSymbolInstance> eps = Word.epsilon();
+
+	      DTLeaf leafEps = dt.getLeaf(eps);
+	      leafEps.elevatePrefix(dt, prePush, hyp, slo);
+	      dt.split(prePush, new SymbolicSuffix(eps, prePop), leafEps);
+	      DTLeaf leafPush = dt.getLeaf(prePush);
+
+	      // a full pass, after which nothing has to be checked again
+	      long checked = dt.currentChange();
+	      Assert.assertTrue(dt.checkVariableConsistency(builder));
+	      for (DTLeaf leaf : dt.getLeaves()) {
+	    	  for (Word<PSymbolInstance> p : leaf.getAllPrefixes()) {
+	    		  MappedPrefix mp = leaf.getMappedPrefix(p);
+	    		  Assert.assertFalse(leaf.needsVariableCheck(mp, dt, checked), mp.toString());
+	    	  }
+	      }
+
+	      // a new TQR changes a single prefix of length two
+	      MappedPrefix changed = null;
+	      for (Word<PSymbolInstance> p : leafPush.getAllPrefixes()) {
+	    	  if (p.length() == 2) {
+	    		  changed = leafPush.getMappedPrefix(p);
+	    		  break;
+	    	  }
+	      }
+	      Assert.assertNotNull(changed);
+	      changed.computeTQR(new SymbolicSuffix(changed.getPrefix(), prePop), mto);
+
+	      // the next pass checks the changed prefix only
+	      int checks = 0;
+	      for (DTLeaf leaf : dt.getLeaves()) {
+	    	  for (Word<PSymbolInstance> p : leaf.getAllPrefixes()) {
+	    		  MappedPrefix mp = leaf.getMappedPrefix(p);
+	    		  boolean due = leaf.needsVariableCheck(mp, dt, checked);
+	    		  Assert.assertEquals(due, mp == changed, mp.toString());
+	    		  checks += due ? 1 : 0;
+	    	  }
+	      }
+	      Assert.assertEquals(checks, 1);
+
+	      long next = dt.currentChange();
+	      Assert.assertTrue(dt.checkVariableConsistency(builder, checked));
+	      Assert.assertFalse(leafPush.needsVariableCheck(changed, dt, next));
 	}
 }
@@ -0,0 +1,224 @@
+package de.learnlib.ralib.learning;
+
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.IPUT;
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.OECHO;
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.TINT;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.RegisterAutomaton;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.example.repeater.RepeaterSUL;
+import de.learnlib.ralib.learning.ralambda.RaDT;
+import de.learnlib.ralib.learning.ralambda.RaLambda;
+import de.learnlib.ralib.learning.rastar.RaStar;
+import de.learnlib.ralib.oracles.SimulatorOracle;
+import de.learnlib.ralib.oracles.TreeOracleFactory;
+import de.learnlib.ralib.oracles.io.IOFilter;
+import de.learnlib.ralib.oracles.io.PersistentIOCache;
+import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
+import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.IntegerEqualityTheory;
+import de.learnlib.ralib.words.DataWordCodec;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+public class CheckpointingLearnerTest extends RaLibTestSuite {
+
+    private final Constants consts = new Constants();
+
+    private final Map<DataType, Theory> teachers = new LinkedHashMap<>();
+
+    private final ConstraintSolver solver = new SimpleConstraintSolver();
+
+    private RepeaterSUL sul;
+
+    private PersistentIOCache cache;
+
+    public CheckpointingLearnerTest() {
+        teachers.put(TINT, new IntegerEqualityTheory(TINT));
+    }
+
+    private static List<ParameterizedSymbol> alphabet(RepeaterSUL sul) {
+        List<ParameterizedSymbol> alphabet = new ArrayList<>(Arrays.asList(sul.getActionSymbols()));
+        alphabet.add(RepeaterSUL.ERROR);
+        return alphabet;
+    }
+
+    private static final String SETTINGS = "random.seed=1;";
+
+    private CheckpointingLearner learner(File cacheFile, File checkpoint, RaLearningAlgorithmName alg) {
+        return learner(cacheFile, checkpoint, alg, consts, SETTINGS);
+    }
+
+    private CheckpointingLearner learner(File cacheFile, File checkpoint, RaLearningAlgorithmName alg,
+            Constants consts, String settings) {
+        sul = new RepeaterSUL();
+        cache = new PersistentIOCache(new SULOracle(sul, RepeaterSUL.ERROR), cacheFile, alphabet(sul), teachers);
+        IOFilter oracle = new IOFilter(cache, sul.getInputSymbols());
+
+        MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(oracle, teachers, consts, solver);
+        MultiTheorySDTLogicOracle mlo = new MultiTheorySDTLogicOracle(consts, solver);
+        TreeOracleFactory hypFactory = (RegisterAutomaton hyp) ->
+                new MultiTheoryTreeOracle(new SimulatorOracle(hyp), teachers, consts, solver);
+
+        RaLearningAlgorithm learner;
+        switch (alg) {
+            case RASTAR:
+                learner = new RaStar(mto, hypFactory, mlo, consts, true, sul.getActionSymbols());
+                break;
+            case RALAMBDA:
+                learner = new RaLambda(mto, hypFactory, mlo, consts, true, sul.getActionSymbols());
+                ((RaLambda) learner).setSolver(solver);
+                break;
+            default:
+                learner = new RaDT(mto, hypFactory, mlo, consts, true, sul.getActionSymbols());
+        }
+        learner.setStatisticCounter(new QueryStatistics(new Measurements(), sul));
+        return new CheckpointingLearner(learner, checkpoint, alphabet(sul), teachers, consts, settings);
+    }
+
+    private static File tempFile(String prefix, String suffix) throws IOException {
+        File file = File.createTempFile(prefix, suffix);
+        file.deleteOnExit();
+        file.delete();
+        return file;
+    }
+
+    private static final Word<PSymbolInstance> CE = Word.fromSymbols(
+            new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+            new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)),
+            new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+            new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)),
+            new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+            new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)));
+
+    private void resume(RaLearningAlgorithmName alg, RaLearningAlgorithmName other) throws IOException {
+        File cacheFile = tempFile("iocache", ".log");
+        File checkpoint = tempFile("learner", ".ckpt");
+
+        CheckpointingLearner learner = learner(cacheFile, checkpoint, alg);
+        learner.startLearning();
+        Assert.assertTrue(checkpoint.exists());
+        learner.refineHypothesis(new DefaultQuery<>(CE, false));
+        String hyp = learner.getHypothesisModel().toString();
+        String stats = learner.getQueryStatistics().toString();
+        cache.close();
+
+        // a fresh learner continues where the first one stopped without querying the system
+        learner = learner(cacheFile, checkpoint, alg);
+        learner.startLearning();
+        Assert.assertEquals(sul.getResets(), 0);
+        Assert.assertEquals(learner.getCounterexamples().size(), 1);
+        Assert.assertEquals(learner.getCounterexamples().get(0).getInput(), CE);
+        Assert.assertEquals(learner.getHypothesisModel().toString(), hyp);
+        Assert.assertEquals(learner.getQueryStatistics().toString(), stats);
+        cache.close();
+
+        // the checkpoint of another learner is discarded
+        learner = learner(cacheFile, checkpoint, other);
+        learner.startLearning();
+        Assert.assertTrue(learner.getCounterexamples().isEmpty());
+        cache.close();
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        resume(RaLearningAlgorithmName.RALAMBDA, RaLearningAlgorithmName.RADT);
+    }
+
+    @Test
+    public void testResumeRaStar() throws IOException {
+        resume(RaLearningAlgorithmName.RASTAR, RaLearningAlgorithmName.RALAMBDA);
+    }
+
+    @Test
+    public void testOtherConstantsAreDiscarded() throws IOException {
+        File cacheFile = tempFile("iocache", ".log");
+        File checkpoint = tempFile("learner", ".ckpt");
+
+        CheckpointingLearner learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA);
+        learner.startLearning();
+        learner.refineHypothesis(new DefaultQuery<>(CE, false));
+        cache.close();
+
+        Constants other = new Constants();
+        other.put(new SymbolicDataValue.Constant(TINT, 1), new DataValue<>(TINT, 5));
+        learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA, other, SETTINGS);
+        learner.startLearning();
+        Assert.assertTrue(learner.getCounterexamples().isEmpty());
+        cache.close();
+    }
+
+    @Test
+    public void testOtherSettingsAreDiscarded() throws IOException {
+        File cacheFile = tempFile("iocache", ".log");
+        File checkpoint = tempFile("learner", ".ckpt");
+
+        CheckpointingLearner learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA);
+        learner.startLearning();
+        learner.refineHypothesis(new DefaultQuery<>(CE, false));
+        cache.close();
+
+        learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA, consts, "random.seed=2;");
+        learner.startLearning();
+        Assert.assertTrue(learner.getCounterexamples().isEmpty());
+        cache.close();
+    }
+
+    @Test
+    public void testCorruptTailIsTruncated() throws IOException {
+        File cacheFile = tempFile("iocache", ".log");
+        File checkpoint = tempFile("learner", ".ckpt");
+
+        CheckpointingLearner learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA);
+        learner.startLearning();
+        learner.refineHypothesis(new DefaultQuery<>(CE, false));
+        String hyp = learner.getHypothesisModel().toString();
+        cache.close();
+
+        // the checkpoint ends with the counterexamples of the statistics
+        Assert.assertEquals(learner.getQueryStatistics().getCEs().size(), 1);
+        ByteArrayOutputStream last = new ByteArrayOutputStream();
+        new DataWordCodec(alphabet(sul)).write(new DataOutputStream(last),
+                learner.getQueryStatistics().getCEs().iterator().next());
+        byte[] saved = Files.readAllBytes(checkpoint.toPath());
+
+        // an invalid word length and a cut-off file both keep the counterexamples
+        byte[] invalid = saved.clone();
+        ByteBuffer.wrap(invalid).putInt(saved.length - last.size(), -1);
+        byte[] cutOff = Arrays.copyOf(saved, saved.length - 1);
+        for (byte[] corrupt : Arrays.asList(invalid, cutOff)) {
+            Files.write(checkpoint.toPath(), corrupt);
+            learner = learner(cacheFile, checkpoint, RaLearningAlgorithmName.RALAMBDA);
+            learner.startLearning();
+            Assert.assertEquals(sul.getResets(), 0);
+            Assert.assertEquals(learner.getCounterexamples().size(), 1);
+            Assert.assertEquals(learner.getHypothesisModel().toString(), hyp);
+            cache.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.learnlib.ralib.learning;
+
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.IPUT;
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.OECHO;
+import static de.learnlib.ralib.example.repeater.RepeaterSUL.TINT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.RALocation;
+import de.learnlib.ralib.automata.RegisterAutomaton;
+import de.learnlib.ralib.automata.Transition;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.dt.DT;
+import de.learnlib.ralib.dt.DTHyp;
+import de.learnlib.ralib.example.repeater.RepeaterSUL;
+import de.learnlib.ralib.learning.ralambda.RaLambda;
+import de.learnlib.ralib.oracles.SimulatorOracle;
+import de.learnlib.ralib.oracles.TreeOracleFactory;
+import de.learnlib.ralib.oracles.io.IOCache;
+import de.learnlib.ralib.oracles.io.IOFilter;
+import de.learnlib.ralib.oracles.io.IOOracle;
+import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
+import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.IntegerEqualityTheory;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class IncrementalAutomatonBuilderTest extends RaLibTestSuite {
+
+    @Test
+    public void testUpdateHypothesis() {
+        Constants consts = new Constants();
+        final Map<DataType, Theory> teachers = new LinkedHashMap<>();
+        teachers.put(TINT, new IntegerEqualityTheory(TINT));
+
+        RepeaterSUL sul = new RepeaterSUL();
+        IOOracle ioOracle = new SULOracle(sul, RepeaterSUL.ERROR);
+        IOFilter oracle = new IOFilter(new IOCache(ioOracle), sul.getInputSymbols());
+        ConstraintSolver solver = new SimpleConstraintSolver();
+
+        MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(oracle, teachers, consts, solver);
+        MultiTheorySDTLogicOracle mlo = new MultiTheorySDTLogicOracle(consts, solver);
+        TreeOracleFactory hypFactory = (RegisterAutomaton hyp) ->
+                new MultiTheoryTreeOracle(new SimulatorOracle(hyp), teachers, consts, solver);
+
+        RaLambda learner = new RaLambda(mto, hypFactory, mlo, consts, true, sul.getActionSymbols());
+        learner.setSolver(solver);
+        learner.startLearning();
+
+        DT dt = learner.getDT();
+        DTHyp hyp = learner.getDTHyp();
+        IncrementalAutomatonBuilder builder = new IncrementalAutomatonBuilder(dt, consts);
+        DTHyp first = builder.toRegisterAutomaton();
+        Assert.assertEquals(transitions(first), transitions(fullBuild(dt, consts)));
+        RALocation initial = first.getInitialState();
+        int locations = first.getStates().size();
+
+        Word<PSymbolInstance> ce = Word.fromSymbols(
+                new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+                new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)),
+                new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+                new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)),
+                new PSymbolInstance(IPUT, new DataValue<>(TINT, 0)),
+                new PSymbolInstance(OECHO, new DataValue<>(TINT, 0)));
+        learner.refineHypothesis(new DefaultQuery<>(ce, false));
+
+        // the learner patches its hypothesis
+        Assert.assertSame(learner.getDTHyp(), hyp);
+
+        DTHyp second = builder.toRegisterAutomaton();
+        Assert.assertSame(second, first);
+        Assert.assertSame(second.getInitialState(), initial);
+        Assert.assertTrue(second.getStates().size() > locations);
+        Assert.assertEquals(transitions(second), transitions(fullBuild(dt, consts)));
+        Assert.assertEquals(transitions(learner.getDTHyp()), transitions(second));
+    }
+
+    private static DTHyp fullBuild(DT dt, Constants consts) {
+        return (DTHyp) new AutomatonBuilder(new LinkedHashMap<>(dt.getComponents()), consts, dt).toRegisterAutomaton();
+    }
+
+    private static List<String> transitions(Hypothesis hyp) {
+        List<String> ret = new ArrayList<>();
+        for (RALocation l : hyp.getStates()) {
+            for (Transition t : l.getOut()) {
+                ret.add(hyp.getAccessSequences().get(l) + " " + t.getLabel() + " " + t.getGuard() + " " +
+                        t.getAssignment() + " " + hyp.getAccessSequences().get(t.getDestination()) + " " +
+                        hyp.getTransitionSequences().get(t));
+            }
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+}
@@ -8,6 +8,7 @@ import static de.learnlib.ralib.example.stack.StackAutomatonExample.T_INT;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -213,6 +214,64 @@ public class LearnStackTest extends RaLibTestSuite {
         Assert.assertTrue(hyp.accepts(ce));
     }
 
+    @Test
+    public void learnStackExampleIncrementalChecks() {
+        Word<PSymbolInstance> ce1 = Word.fromSymbols(
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 0)),
+        		new PSymbolInstance(I_POP, new DataValue(T_INT, 0)));
+        Word<PSymbolInstance> ce2 = Word.fromSymbols(
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 0)),
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 1)),
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 2)));
+        Word<PSymbolInstance> ce3 = Word.fromSymbols(
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 0)),
+        		new PSymbolInstance(I_PUSH, new DataValue(T_INT, 1)),
+        		new PSymbolInstance(I_POP, new DataValue(T_INT, 1)));
+
+        // skipping unchanged prefixes in the consistency checks does not change the models
+        for (List<Word<PSymbolInstance>> ces : Arrays.asList(
+                Arrays.asList(ce1, ce2), Arrays.asList(ce2, ce1, ce3))) {
+            RaLambda incremental = learnStack(true, ces);
+            RaLambda full = learnStack(false, ces);
+
+            RegisterAutomaton hyp = incremental.getHypothesisModel();
+            Assert.assertEquals(hyp.toString(), full.getHypothesisModel().toString());
+            Assert.assertEquals(incremental.getDT().getSuffixes(), full.getDT().getSuffixes());
+            Assert.assertEquals(hyp.getStates().size(), 4);
+            Assert.assertEquals(hyp.getTransitions().size(), 10);
+        }
+    }
+
+    private RaLambda learnStack(boolean incrementalChecks, List<Word<PSymbolInstance>> ces) {
+        Constants consts = new Constants();
+        RegisterAutomaton sul = AUTOMATON;
+        DataWordOracle dwOracle = new SimulatorOracle(sul);
+
+        final Map<DataType, Theory> teachers = new LinkedHashMap<>();
+        teachers.put(T_INT, new IntegerEqualityTheory(T_INT));
+
+        ConstraintSolver solver = new SimpleConstraintSolver();
+
+        MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(
+              dwOracle, teachers, new Constants(), solver);
+
+        SDTLogicOracle slo = new MultiTheorySDTLogicOracle(consts, solver);
+
+        TreeOracleFactory hypFactory = (RegisterAutomaton hyp) ->
+                new MultiTheoryTreeOracle(new SimulatorOracle(hyp), teachers,
+                        new Constants(), solver);
+
+        RaLambda ralambda = new RaLambda(mto, hypFactory, slo, consts, false, false, I_PUSH, I_POP);
+        ralambda.setSolver(solver);
+        ralambda.setIncrementalChecks(incrementalChecks);
+
+        ralambda.startLearning();
+        for (Word<PSymbolInstance> ce : ces) {
+            ralambda.refineHypothesis(new DefaultQuery<>(ce, sul.accepts(ce)));
+        }
+        return ralambda;
+    }
+
     @Test
     public void learnStackExampleRandom() {
 	final int SEEDS = 10;
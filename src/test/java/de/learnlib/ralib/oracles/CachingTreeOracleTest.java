@@ -0,0 +1,147 @@
+package de.learnlib.ralib.oracles;
+
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.AUTOMATON;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGIN;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGOUT;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_REGISTER;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_PWD;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_UID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.learning.SymbolicSuffix;
+import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.IntegerEqualityTheory;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class CachingTreeOracleTest extends RaLibTestSuite {
+
+    @Test
+    public void testIsomorphicPrefixes() {
+
+        Map<DataType, Theory> theories = new LinkedHashMap<>();
+        theories.put(T_UID, new IntegerEqualityTheory(T_UID));
+        theories.put(T_PWD, new IntegerEqualityTheory(T_PWD));
+
+        MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(new SimulatorOracle(AUTOMATON),
+                theories, new Constants(), new SimpleConstraintSolver());
+        CachingTreeOracle cache = new CachingTreeOracle(mto, theories, new Constants());
+
+        Word<PSymbolInstance> suffix = Word.fromSymbols(
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)),
+                new PSymbolInstance(I_LOGOUT));
+
+        Word<PSymbolInstance> prefix1 = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)),
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)));
+
+        // isomorphic to prefix1
+        Word<PSymbolInstance> prefix2 = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 5),
+                    new DataValue(T_PWD, 7)),
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 5),
+                    new DataValue(T_PWD, 7)));
+
+        // not isomorphic to prefix1
+        Word<PSymbolInstance> prefix3 = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)),
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 2),
+                    new DataValue(T_PWD, 1)));
+
+        SymbolicSuffix symSuffix = new SymbolicSuffix(prefix1, suffix);
+
+        TreeQueryResult tqr1 = cache.treeQuery(prefix1, symSuffix);
+        TreeQueryResult tqr2 = cache.treeQuery(prefix2, symSuffix);
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 1);
+
+        TreeQueryResult expected = mto.treeQuery(prefix2, symSuffix);
+        Assert.assertEquals(tqr2.getPiv(), expected.getPiv());
+        Assert.assertEquals(tqr2.getSdt().toString(), expected.getSdt().toString());
+        Assert.assertEquals(tqr2.getSdt().toString(), tqr1.getSdt().toString());
+
+        TreeQueryResult tqr3 = cache.treeQuery(prefix3, symSuffix);
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 2);
+        Assert.assertEquals(tqr3.getSdt().toString(), mto.treeQuery(prefix3, symSuffix).getSdt().toString());
+    }
+
+    @Test
+    public void testBatchedMisses() {
+
+        Map<DataType, Theory> theories = new LinkedHashMap<>();
+        theories.put(T_UID, new IntegerEqualityTheory(T_UID));
+        theories.put(T_PWD, new IntegerEqualityTheory(T_PWD));
+
+        List<Integer> batches = new ArrayList<>();
+        MultiTheoryTreeOracle mto = new MultiTheoryTreeOracle(new SimulatorOracle(AUTOMATON),
+                theories, new Constants(), new SimpleConstraintSolver()) {
+            @Override
+            public Map<SymbolicSuffix, TreeQueryResult> treeQueries(
+                    Word<PSymbolInstance> prefix, Collection<SymbolicSuffix> suffixes) {
+                batches.add(suffixes.size());
+                return super.treeQueries(prefix, suffixes);
+            }
+        };
+        CachingTreeOracle cache = new CachingTreeOracle(mto, theories, new Constants());
+
+        Word<PSymbolInstance> prefix = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)));
+
+        SymbolicSuffix login = new SymbolicSuffix(prefix, Word.fromSymbols(
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1))));
+        SymbolicSuffix logout = new SymbolicSuffix(prefix, Word.fromSymbols(
+                new PSymbolInstance(I_LOGOUT)));
+        SymbolicSuffix register = new SymbolicSuffix(prefix, Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 2),
+                    new DataValue(T_PWD, 2))));
+
+        TreeQueryResult cached = cache.treeQuery(prefix, logout);
+        Map<SymbolicSuffix, TreeQueryResult> results =
+                cache.treeQueries(prefix, Arrays.asList(login, logout, register));
+
+        // the two misses are forwarded in one batch, in suffix order
+        Assert.assertEquals(batches, Arrays.asList(2));
+        Assert.assertEquals(new ArrayList<>(results.keySet()), Arrays.asList(login, logout, register));
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 3);
+        Assert.assertEquals(results.get(logout).getSdt().toString(), cached.getSdt().toString());
+        Assert.assertEquals(results.get(login).getSdt().toString(),
+                mto.treeQuery(prefix, login).getSdt().toString());
+
+        cache.treeQueries(prefix, Arrays.asList(login, register));
+        Assert.assertEquals(batches, Arrays.asList(2));
+        Assert.assertEquals(cache.getHits(), 3);
+    }
+}
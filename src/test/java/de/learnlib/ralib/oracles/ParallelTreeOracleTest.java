@@ -0,0 +1,154 @@
+package de.learnlib.ralib.oracles;
+
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.AUTOMATON;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGIN;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGOUT;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_REGISTER;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_PWD;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_UID;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.RegisterAutomaton;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.learning.SymbolicSuffix;
+import de.learnlib.ralib.learning.ralambda.RaLambda;
+import de.learnlib.ralib.oracles.mto.MultiTheorySDTLogicOracle;
+import de.learnlib.ralib.oracles.mto.MultiTheoryTreeOracle;
+import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.IntegerEqualityTheory;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class ParallelTreeOracleTest extends RaLibTestSuite {
+
+    private static Map<DataType, Theory> createTeachers() {
+        Map<DataType, Theory> teachers = new LinkedHashMap<>();
+        teachers.put(T_UID, new IntegerEqualityTheory(T_UID));
+        teachers.put(T_PWD, new IntegerEqualityTheory(T_PWD));
+        return teachers;
+    }
+
+    private static RegisterAutomaton learn(TreeOracle mto, ConstraintSolver solver) {
+        Constants consts = new Constants();
+        Map<DataType, Theory> teachers = createTeachers();
+        SDTLogicOracle slo = new MultiTheorySDTLogicOracle(consts, solver);
+        TreeOracleFactory hypFactory = (RegisterAutomaton hyp) ->
+                new MultiTheoryTreeOracle(new SimulatorOracle(hyp), teachers, consts, solver);
+
+        RaLambda ralambda = new RaLambda(mto, hypFactory, slo,
+                consts, I_LOGIN, I_LOGOUT, I_REGISTER);
+        ralambda.setSolver(solver);
+        ralambda.startLearning();
+
+        Word<PSymbolInstance> ce = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                        new DataValue(T_UID, 0), new DataValue(T_PWD, 0)),
+                new PSymbolInstance(I_LOGIN,
+                        new DataValue(T_UID, 0), new DataValue(T_PWD, 0)));
+
+        ralambda.refineHypothesis(new DefaultQuery<>(ce, AUTOMATON.accepts(ce)));
+        return ralambda.getHypothesisModel();
+    }
+
+    @Test
+    public void testParallelSifting() {
+        ConstraintSolver solver = new SimpleConstraintSolver();
+
+        TreeOracle sequential = new MultiTheoryTreeOracle(
+                new SimulatorOracle(AUTOMATON), createTeachers(), new Constants(), solver);
+
+        ParallelTreeOracle parallel = new ParallelTreeOracle(() -> new MultiTheoryTreeOracle(
+                new SimulatorOracle(AUTOMATON), createTeachers(), new Constants(), solver), 4);
+
+        RegisterAutomaton expected = learn(sequential, solver);
+        RegisterAutomaton actual = learn(parallel, solver);
+        parallel.shutdown();
+
+        Assert.assertEquals(actual.getStates().size(), 3);
+        Assert.assertEquals(actual.getTransitions().size(), 11);
+        Assert.assertEquals(actual.toString(), expected.toString());
+    }
+
+    /**
+     * Blocks every membership query until two queries are running at
+     * the same time (or a timeout has passed).
+     */
+    private static class RendezvousOracle implements DataWordOracle {
+
+        private final DataWordOracle back;
+
+        private final CountDownLatch rendezvous;
+
+        private final AtomicInteger running;
+
+        private final AtomicInteger maxRunning;
+
+        RendezvousOracle(DataWordOracle back, CountDownLatch rendezvous,
+                AtomicInteger running, AtomicInteger maxRunning) {
+            this.back = back;
+            this.rendezvous = rendezvous;
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<PSymbolInstance, Boolean>> clctn) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                rendezvous.countDown();
+                rendezvous.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            back.processQueries(clctn);
+        }
+    }
+
+    @Test
+    public void testQueriesRunConcurrently() {
+        ConstraintSolver solver = new SimpleConstraintSolver();
+        CountDownLatch rendezvous = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ParallelTreeOracle parallel = new ParallelTreeOracle(() -> new MultiTheoryTreeOracle(
+                new RendezvousOracle(new SimulatorOracle(AUTOMATON), rendezvous, running, maxRunning),
+                createTeachers(), new Constants(), solver), 2);
+
+        Word<PSymbolInstance> prefix = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                        new DataValue(T_UID, 0), new DataValue(T_PWD, 0)));
+        SymbolicSuffix login = new SymbolicSuffix(prefix, Word.fromSymbols(
+                new PSymbolInstance(I_LOGIN,
+                        new DataValue(T_UID, 0), new DataValue(T_PWD, 0))));
+        SymbolicSuffix logout = new SymbolicSuffix(prefix, Word.fromSymbols(
+                new PSymbolInstance(I_LOGOUT)));
+
+        Map<SymbolicSuffix, TreeQueryResult> results =
+                parallel.treeQueries(prefix, Arrays.asList(login, logout));
+        parallel.shutdown();
+
+        Assert.assertEquals(results.keySet().size(), 2);
+        Assert.assertEquals(rendezvous.getCount(), 0);
+        Assert.assertEquals(maxRunning.get(), 2);
+    }
+}
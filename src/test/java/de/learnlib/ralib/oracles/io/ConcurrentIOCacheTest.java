@@ -0,0 +1,95 @@
+package de.learnlib.ralib.oracles.io;
+
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.DOUBLE_TYPE;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OFFER;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OUTPUT;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.POLL;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.example.priority.PriorityQueueSUL;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class ConcurrentIOCacheTest extends RaLibTestSuite {
+
+    /**
+     * Thread-safe oracle that uses a new SUL for every query.
+     */
+    private static class FreshSULOracle extends IOOracle {
+
+        private final AtomicInteger executed = new AtomicInteger();
+
+        @Override
+        public Word<PSymbolInstance> trace(Word<PSymbolInstance> query) {
+            executed.incrementAndGet();
+            return new SULOracle(new PriorityQueueSUL(), PriorityQueueSUL.ERROR).trace(query);
+        }
+    }
+
+    private static PSymbolInstance offer(int d) {
+        return new PSymbolInstance(OFFER,
+                new DataValue<BigDecimal>(DOUBLE_TYPE, new BigDecimal(d)));
+    }
+
+    private static Word<PSymbolInstance> query(int i) {
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        return Word.fromSymbols(offer(i % 7), ok, offer(i % 5), ok,
+                new PSymbolInstance(POLL), ok);
+    }
+
+    @Test
+    public void testParallelAccess() throws Exception {
+        FreshSULOracle sul = new FreshSULOracle();
+        ConcurrentIOCache cache = new ConcurrentIOCache(sul);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Word<PSymbolInstance>>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            final Word<PSymbolInstance> q = query(i);
+            futures.add(executor.submit(() -> cache.trace(q)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Word<PSymbolInstance> expected = new SULOracle(
+                    new PriorityQueueSUL(), PriorityQueueSUL.ERROR).trace(query(i));
+            Assert.assertEquals(futures.get(i).get(), expected);
+        }
+        executor.shutdown();
+
+        int executed = sul.executed.get();
+        for (int i = 0; i < 35; i++) {
+            Assert.assertNotNull(cache.traceFromCache(query(i)));
+            Assert.assertTrue(cache.traceBoolean(cache.trace(query(i))));
+        }
+        Assert.assertEquals(sul.executed.get(), executed);
+    }
+
+    @Test
+    public void testConflictingOutputs() {
+        ConcurrentIOCache cache = new ConcurrentIOCache(new FreshSULOracle());
+        PSymbolInstance poll = new PSymbolInstance(POLL);
+        cache.addToCache(Word.fromSymbols(offer(1), new PSymbolInstance(OK)));
+        cache.addToCache(Word.fromSymbols(offer(1), new PSymbolInstance(OK), poll,
+                new PSymbolInstance(OUTPUT, offer(1).getParameterValues())));
+        try {
+            cache.addToCache(Word.fromSymbols(offer(1), new PSymbolInstance(OK), poll,
+                    new PSymbolInstance(OK)));
+            Assert.fail("conflict not detected");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+}
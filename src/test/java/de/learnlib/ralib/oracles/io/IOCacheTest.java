@@ -0,0 +1,159 @@
+package de.learnlib.ralib.oracles.io;
+
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.DOUBLE_TYPE;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OFFER;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.POLL;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.util.SymbolicDataValueGenerator.ConstantGenerator;
+import de.learnlib.ralib.example.priority.PriorityQueueSUL;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.words.InputSymbol;
+import de.learnlib.ralib.words.OutputSymbol;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+public class IOCacheTest extends RaLibTestSuite {
+
+    private static PSymbolInstance offer(int d) {
+        return new PSymbolInstance(OFFER,
+                new DataValue<BigDecimal>(DOUBLE_TYPE, new BigDecimal(d)));
+    }
+
+    @Test
+    public void testManyChildren() {
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        IOCache ioCache = new IOCache(new SULOracle(sul, PriorityQueueSUL.ERROR));
+
+        // many siblings below the root, inserted in a scrambled order
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        PSymbolInstance poll = new PSymbolInstance(POLL);
+        List<Word<PSymbolInstance>> queries = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int d = (i * 17) % 40;
+            queries.add(Word.fromSymbols(offer(d), ok, offer(d + 1), ok, poll));
+        }
+
+        List<Word<PSymbolInstance>> traces = new ArrayList<>();
+        for (Word<PSymbolInstance> q : queries) {
+            traces.add(ioCache.trace(q));
+        }
+        long inputs = sul.getInputs();
+        long resets = sul.getResets();
+
+        for (int i = 0; i < queries.size(); i++) {
+            Word<PSymbolInstance> q = queries.get(i);
+            Word<PSymbolInstance> t = traces.get(i);
+            Assert.assertEquals(ioCache.trace(q), t);
+            Assert.assertTrue(ioCache.traceBoolean(t));
+            Assert.assertEquals(t.length(), 6);
+        }
+
+        // all answers must come from the cache
+        Assert.assertEquals(sul.getInputs(), inputs);
+        Assert.assertEquals(sul.getResets(), resets);
+    }
+
+    @Test
+    public void testBatchQueries() {
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        PSymbolInstance poll = new PSymbolInstance(POLL);
+        List<DefaultQuery<PSymbolInstance, Boolean>> queries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            queries.add(new DefaultQuery<>(Word.fromSymbols(offer(i % 3), ok)));
+            queries.add(new DefaultQuery<>(Word.fromSymbols(offer(i % 3), ok, poll, ok)));
+            queries.add(new DefaultQuery<>(Word.fromSymbols(offer(i % 4), ok, poll)));
+        }
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        IOCache sequential = new IOCache(new SULOracle(sul, PriorityQueueSUL.ERROR));
+        List<Boolean> expected = new ArrayList<>();
+        for (DefaultQuery<PSymbolInstance, Boolean> q : queries) {
+            expected.add(sequential.traceBoolean(q.getInput()));
+        }
+
+        PriorityQueueSUL batchSul = new PriorityQueueSUL();
+        IOCache batched = new IOCache(new SULOracle(batchSul, PriorityQueueSUL.ERROR));
+        batched.setBatchQueries(true);
+        batched.processQueries(queries);
+        for (int i = 0; i < queries.size(); i++) {
+            Assert.assertEquals(queries.get(i).getOutput(), expected.get(i));
+        }
+        Assert.assertTrue(batchSul.getResets() <= sul.getResets());
+    }
+
+    @Test
+    public void testSymmetricLookup() {
+        final DataType intType = new DataType("int", Integer.class);
+        final ParameterizedSymbol in = new InputSymbol("in", intType);
+        final ParameterizedSymbol out = new OutputSymbol("out", intType);
+
+        // echoes the data value of every input
+        final AtomicInteger executed = new AtomicInteger();
+        IOOracle echo = new IOOracle() {
+            @Override
+            public Word<PSymbolInstance> trace(Word<PSymbolInstance> query) {
+                executed.incrementAndGet();
+                Word<PSymbolInstance> trace = Word.epsilon();
+                for (int i = 0; i < query.length(); i += 2) {
+                    PSymbolInstance psi = query.getSymbol(i);
+                    trace = trace.append(psi).append(
+                            new PSymbolInstance(out, psi.getParameterValues()));
+                }
+                return trace;
+            }
+        };
+
+        Constants consts = new Constants();
+        consts.put(new ConstantGenerator().next(intType), dv(intType, 0));
+
+        IOCache ioCache = new IOCache(echo);
+        ioCache.setSymmetricTypes(Collections.singleton(intType), consts);
+
+        Assert.assertTrue(ioCache.traceBoolean(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 1)), new PSymbolInstance(out, dv(intType, 1)),
+                new PSymbolInstance(in, dv(intType, 2)), new PSymbolInstance(out, dv(intType, 2)))));
+        Assert.assertEquals(executed.get(), 1);
+
+        // isomorphic traces are answered from the cache
+        Assert.assertTrue(ioCache.traceBoolean(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 7)), new PSymbolInstance(out, dv(intType, 7)),
+                new PSymbolInstance(in, dv(intType, 5)), new PSymbolInstance(out, dv(intType, 5)))));
+        Assert.assertFalse(ioCache.traceBoolean(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 7)), new PSymbolInstance(out, dv(intType, 5)))));
+        Word<PSymbolInstance> trace = ioCache.trace(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 9)), new PSymbolInstance(out),
+                new PSymbolInstance(in, dv(intType, 3))));
+        Assert.assertEquals(trace, Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 9)), new PSymbolInstance(out, dv(intType, 9)),
+                new PSymbolInstance(in, dv(intType, 3)), new PSymbolInstance(out, dv(intType, 3))));
+        Assert.assertEquals(executed.get(), 1);
+
+        // constants are not renamed
+        Assert.assertTrue(ioCache.traceBoolean(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 0)), new PSymbolInstance(out, dv(intType, 0)))));
+        Assert.assertEquals(executed.get(), 2);
+        Assert.assertFalse(ioCache.traceBoolean(Word.fromSymbols(
+                new PSymbolInstance(in, dv(intType, 0)), new PSymbolInstance(out, dv(intType, 4)))));
+        Assert.assertEquals(executed.get(), 2);
+    }
+
+    private static DataValue<Integer> dv(DataType t, int id) {
+        return new DataValue<>(t, id);
+    }
+}
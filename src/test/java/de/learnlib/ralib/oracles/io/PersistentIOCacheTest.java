@@ -0,0 +1,190 @@
+package de.learnlib.ralib.oracles.io;
+
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.DOUBLE_TYPE;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.NOK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OFFER;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OUTPUT;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.POLL;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.example.priority.PriorityQueueSUL;
+import de.learnlib.ralib.sul.SULOracle;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.DoubleInequalityTheory;
+import de.learnlib.ralib.words.DataWordCodec;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import net.automatalib.word.Word;
+
+public class PersistentIOCacheTest extends RaLibTestSuite {
+
+    private static final List<ParameterizedSymbol> ALPHABET =
+            Arrays.asList(OFFER, POLL, OK, NOK, OUTPUT, PriorityQueueSUL.ERROR);
+
+    private static PSymbolInstance offer(int d) {
+        return new PSymbolInstance(OFFER,
+                new DataValue<BigDecimal>(DOUBLE_TYPE, new BigDecimal(d)));
+    }
+
+    private static Word<PSymbolInstance> query(int d) {
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        return Word.fromSymbols(offer(d), ok, offer(d + 1), ok,
+                new PSymbolInstance(POLL), ok);
+    }
+
+    private static Map<DataType, Theory> teachers() {
+        Map<DataType, Theory> teachers = new LinkedHashMap<>();
+        teachers.put(DOUBLE_TYPE, new DoubleInequalityTheory(DOUBLE_TYPE));
+        return teachers;
+    }
+
+    @Test
+    public void testReuseAcrossRuns() throws IOException {
+        File file = File.createTempFile("iocache", ".log");
+        file.deleteOnExit();
+        file.delete();
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        PersistentIOCache cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers(), 2);
+        Word<PSymbolInstance> t1 = cache.trace(query(1));
+        Word<PSymbolInstance> t2 = cache.trace(query(5));
+        cache.close();
+        Assert.assertEquals(sul.getResets(), 2);
+
+        // a second run answers everything from the file
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers(), 2);
+        Assert.assertEquals(cache.trace(query(1)), t1);
+        Assert.assertEquals(cache.trace(query(5)), t2);
+        Assert.assertTrue(cache.traceBoolean(t2));
+        Assert.assertEquals(sul.getResets(), 0);
+
+        // new traces are appended to the existing log
+        Word<PSymbolInstance> t3 = cache.trace(query(9));
+        cache.close();
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers(), 2);
+        Assert.assertEquals(cache.trace(query(9)), t3);
+        Assert.assertEquals(sul.getResets(), 0);
+        cache.close();
+
+        // an incomplete last record is dropped
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers(), 2);
+        Assert.assertEquals(cache.trace(query(1)), t1);
+        Assert.assertEquals(cache.trace(query(9)), t3);
+        Assert.assertEquals(sul.getResets(), 1);
+        cache.close();
+    }
+
+    @Test
+    public void testStaleCacheIsRejected() throws IOException {
+        File file = File.createTempFile("iocache", ".log");
+        file.deleteOnExit();
+        file.delete();
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        PersistentIOCache cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        cache.trace(query(1));
+        cache.close();
+
+        // different alphabet
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(new SULOracle(sul, PriorityQueueSUL.ERROR), file,
+                Arrays.asList(OFFER, POLL, OK, OUTPUT, PriorityQueueSUL.ERROR), teachers());
+        cache.trace(query(1));
+        cache.close();
+        Assert.assertEquals(sul.getResets(), 1);
+    }
+
+    @Test
+    public void testCorruptTailIsTruncated() throws IOException {
+        File file = File.createTempFile("iocache", ".log");
+        file.deleteOnExit();
+        file.delete();
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        PersistentIOCache cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        Word<PSymbolInstance> t1 = cache.trace(query(1));
+        cache.close();
+        long length = file.length();
+
+        // a record with an unknown symbol at the end of the log
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+            out.writeInt(1);
+            out.writeUTF("no such symbol");
+        }
+
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        Assert.assertEquals(cache.trace(query(1)), t1);
+        Assert.assertEquals(sul.getResets(), 0);
+        Assert.assertEquals(file.length(), length);
+
+        // new traces are appended after the valid part
+        Word<PSymbolInstance> t2 = cache.trace(query(5));
+        cache.close();
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        Assert.assertEquals(cache.trace(query(5)), t2);
+        Assert.assertEquals(sul.getResets(), 0);
+        cache.close();
+    }
+
+    @Test
+    public void testConflictingRecordIsTruncated() throws IOException {
+        File file = File.createTempFile("iocache", ".log");
+        file.deleteOnExit();
+        file.delete();
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        PersistentIOCache cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        Word<PSymbolInstance> t1 = cache.trace(query(1));
+        cache.close();
+        long length = file.length();
+
+        // the same inputs with a different first output
+        PSymbolInstance nok = new PSymbolInstance(NOK);
+        Word<PSymbolInstance> conflict = Word.fromSymbols(offer(1), nok);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+            new DataWordCodec(ALPHABET).write(out, conflict);
+        }
+
+        sul = new PriorityQueueSUL();
+        cache = new PersistentIOCache(
+                new SULOracle(sul, PriorityQueueSUL.ERROR), file, ALPHABET, teachers());
+        Assert.assertEquals(cache.trace(query(1)), t1);
+        Assert.assertEquals(sul.getResets(), 0);
+        Assert.assertEquals(file.length(), length);
+        cache.close();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014-2015 The LearnLib Contributors
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.ralib.oracles.mto;
+
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.AUTOMATON;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGIN;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_LOGOUT;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.I_REGISTER;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_PWD;
+import static de.learnlib.ralib.example.login.LoginAutomatonExample.T_UID;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.Query;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.learning.SymbolicSuffix;
+import de.learnlib.ralib.oracles.DataWordOracle;
+import de.learnlib.ralib.oracles.SimulatorOracle;
+import de.learnlib.ralib.oracles.TreeQueryResult;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.tools.theories.DoubleInequalityTheory;
+import de.learnlib.ralib.tools.theories.IntegerEqualityTheory;
+import de.learnlib.ralib.words.DataWords;
+import de.learnlib.ralib.words.InputSymbol;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class BatchedTreeQueryTest extends RaLibTestSuite {
+
+    private static class BatchCountingOracle implements DataWordOracle {
+
+        private final DataWordOracle back;
+
+        private int batches = 0;
+
+        private int queries = 0;
+
+        BatchCountingOracle(DataWordOracle back) {
+            this.back = back;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<PSymbolInstance, Boolean>> clctn) {
+            batches++;
+            queries += clctn.size();
+            back.processQueries(clctn);
+        }
+    }
+
+    @Test
+    public void testBatchedTreeQuery() {
+
+        Map<DataType, Theory> theories = new LinkedHashMap<>();
+        theories.put(T_UID, new IntegerEqualityTheory(T_UID));
+        theories.put(T_PWD, new IntegerEqualityTheory(T_PWD));
+
+        BatchCountingOracle single = new BatchCountingOracle(new SimulatorOracle(AUTOMATON));
+        MultiTheoryTreeOracle singleOracle = new MultiTheoryTreeOracle(
+                single, theories, new Constants(), new SimpleConstraintSolver());
+
+        BatchCountingOracle batched = new BatchCountingOracle(new SimulatorOracle(AUTOMATON));
+        MultiTheoryTreeOracle batchedOracle = new MultiTheoryTreeOracle(
+                batched, theories, new Constants(), new SimpleConstraintSolver());
+        batchedOracle.setBatchLeafQueries(true);
+
+        Word<PSymbolInstance> prefix = Word.fromSymbols(
+                new PSymbolInstance(I_REGISTER,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)));
+
+        Word<PSymbolInstance> suffix = Word.fromSymbols(
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)),
+                new PSymbolInstance(I_LOGOUT),
+                new PSymbolInstance(I_LOGIN,
+                    new DataValue(T_UID, 1),
+                    new DataValue(T_PWD, 1)));
+
+        SymbolicSuffix symSuffix = new SymbolicSuffix(prefix, suffix);
+
+        TreeQueryResult expected = singleOracle.treeQuery(prefix, symSuffix);
+        TreeQueryResult actual = batchedOracle.treeQuery(prefix, symSuffix);
+
+        Assert.assertEquals(actual.getSdt().toString(), expected.getSdt().toString());
+        Assert.assertEquals(actual.getPiv(), expected.getPiv());
+
+        Assert.assertEquals(batched.batches, 1);
+        Assert.assertTrue(single.batches > 1);
+        Assert.assertTrue(batched.queries <= single.queries);
+    }
+
+    @Test
+    public void testBatchedInequalityTreeQuery() {
+
+        final DataType T_DBL = new DataType("double", BigDecimal.class);
+        final InputSymbol I_PUT = new InputSymbol("put", T_DBL);
+
+        Map<DataType, Theory> theories = new LinkedHashMap<>();
+        theories.put(T_DBL, new DoubleInequalityTheory(T_DBL));
+
+        // accepts increasing sequences of values
+        DataWordOracle increasing = new DataWordOracle() {
+            @Override
+            public void processQueries(Collection<? extends Query<PSymbolInstance, Boolean>> clctn) {
+                for (Query<PSymbolInstance, Boolean> q : clctn) {
+                    DataValue[] vals = DataWords.valsOf(q.getInput());
+                    boolean inLang = true;
+                    for (int i = 1; i < vals.length; i++) {
+                        inLang &= ((BigDecimal) vals[i - 1].getId()).compareTo((BigDecimal) vals[i].getId()) < 0;
+                    }
+                    q.answer(inLang);
+                }
+            }
+        };
+
+        BatchCountingOracle single = new BatchCountingOracle(increasing);
+        MultiTheoryTreeOracle singleOracle = new MultiTheoryTreeOracle(
+                single, theories, new Constants(), new SimpleConstraintSolver());
+
+        BatchCountingOracle batched = new BatchCountingOracle(increasing);
+        MultiTheoryTreeOracle batchedOracle = new MultiTheoryTreeOracle(
+                batched, theories, new Constants(), new SimpleConstraintSolver());
+        batchedOracle.setBatchLeafQueries(true);
+
+        Word<PSymbolInstance> prefix = Word.epsilon();
+
+        Word<PSymbolInstance> suffix = Word.fromSymbols(
+                new PSymbolInstance(I_PUT, new DataValue(T_DBL, BigDecimal.ONE)),
+                new PSymbolInstance(I_PUT, new DataValue(T_DBL, BigDecimal.valueOf(2))));
+
+        SymbolicSuffix symSuffix = new SymbolicSuffix(prefix, suffix);
+
+        TreeQueryResult expected = singleOracle.treeQuery(prefix, symSuffix);
+        TreeQueryResult actual = batchedOracle.treeQuery(prefix, symSuffix);
+
+        Assert.assertEquals(actual.getSdt().toString(), expected.getSdt().toString());
+        Assert.assertEquals(actual.getPiv(), expected.getPiv());
+
+        // every leaf was enumerated in advance
+        Assert.assertEquals(batched.batches, 1);
+        Assert.assertEquals(batched.queries, single.queries);
+    }
+}
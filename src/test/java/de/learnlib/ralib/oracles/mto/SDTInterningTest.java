@@ -0,0 +1,93 @@
+package de.learnlib.ralib.oracles.mto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.data.VarMapping;
+import de.learnlib.ralib.theory.SDTGuard;
+import de.learnlib.ralib.theory.SDTTrueGuard;
+import de.learnlib.ralib.theory.equality.DisequalityGuard;
+import de.learnlib.ralib.theory.equality.EqualityGuard;
+
+public class SDTInterningTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    private final Register r1 = new Register(T_INT, 1);
+    private final Register r2 = new Register(T_INT, 2);
+    private final SuffixValue s1 = new SuffixValue(T_INT, 1);
+    private final SuffixValue s2 = new SuffixValue(T_INT, 2);
+
+    private SDT sdt(Register r) {
+        Map<SDTGuard, SDT> children = new LinkedHashMap<>();
+        children.put(new EqualityGuard(s1, r), SDTLeaf.ACCEPTING);
+        children.put(new DisequalityGuard(s1, r), SDTLeaf.REJECTING);
+        return SDT.create(children);
+    }
+
+    @Test
+    public void testSharing() {
+        SDT sdt1 = sdt(r1);
+        Assert.assertSame(sdt(r1), sdt1);
+        Assert.assertNotEquals(sdt(r2), sdt1);
+
+        // relabeling yields the shared instance and is memoized
+        VarMapping<Register, Register> map = new VarMapping<>();
+        map.put(r1, r2);
+        Assert.assertSame(sdt1.relabel(map), sdt(r2));
+        Assert.assertSame(sdt1.relabel(map), sdt1.relabel(map));
+
+        // later changes to the mapping do not affect the memo
+        map.put(r1, r1);
+        Assert.assertSame(sdt1.relabel(map), sdt1);
+
+        // trees without children are only equal to themselves
+        SDT empty = new SDT(null);
+        Assert.assertFalse(empty.equals(sdt1));
+        Assert.assertFalse(sdt1.equals(empty));
+        Assert.assertFalse(empty.equals(new SDT(null)));
+
+        // the children are copied and cannot be changed
+        Map<SDTGuard, SDT> children = new LinkedHashMap<>();
+        children.put(new SDTTrueGuard(s1), sdt1);
+        SDT parent = SDT.create(children);
+        children.clear();
+        Assert.assertEquals(parent.getChildren().size(), 1);
+        Assert.assertThrows(UnsupportedOperationException.class, () -> parent.getChildren().clear());
+    }
+
+    @Test
+    public void testMemoizedPaths() {
+        Map<SDTGuard, SDT> children = new LinkedHashMap<>();
+        children.put(new SDTTrueGuard(s1), sdt(r1));
+        SDT parent = SDT.create(children);
+
+        Assert.assertSame(parent.getAllPaths(), parent.getAllPaths());
+        Assert.assertEquals(parent.getAllPaths().size(), 2);
+        Assert.assertEquals(parent.getPaths(true).size(), 1);
+        Assert.assertEquals(parent.getPaths(new ArrayList<>()), parent.getPaths(true));
+        Assert.assertSame(parent.getAcceptingPaths(new Constants()),
+                parent.getAcceptingPaths(new Constants()));
+        Assert.assertSame(parent.getGuardExpressions(new Constants()),
+                parent.getGuardExpressions(new Constants()));
+    }
+
+    @Test
+    public void testTrueGuardsOnDifferentParameters() {
+        Map<SDTGuard, SDT> c1 = new LinkedHashMap<>();
+        c1.put(new SDTTrueGuard(s1), SDTLeaf.ACCEPTING);
+        Map<SDTGuard, SDT> c2 = new LinkedHashMap<>();
+        c2.put(new SDTTrueGuard(s2), SDTLeaf.ACCEPTING);
+        Assert.assertNotSame(SDT.create(c1), SDT.create(c2));
+        Assert.assertNotEquals(SDT.create(c1), SDT.create(c2));
+    }
+}
@@ -0,0 +1,82 @@
+package de.learnlib.ralib.solver;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
+import de.learnlib.ralib.automata.guards.Conjunction;
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.automata.guards.Negation;
+import de.learnlib.ralib.automata.guards.Relation;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+
+public class CachingConstraintSolverTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    private final Register r1 = new Register(T_INT, 1);
+    private final Register r2 = new Register(T_INT, 2);
+    private final SuffixValue s1 = new SuffixValue(T_INT, 1);
+
+    @Test
+    public void testNormalizedLookups() {
+        CachingConstraintSolver solver = new CachingConstraintSolver(new SimpleConstraintSolver(), 10);
+        Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+
+        GuardExpression eq1 = new AtomicGuardExpression<>(r1, Relation.EQUALS, s1);
+        GuardExpression eq2 = new AtomicGuardExpression<>(r2, Relation.EQUALS, s1);
+        GuardExpression neq1 = new AtomicGuardExpression<>(s1, Relation.NOT_EQUALS, r1);
+
+        Assert.assertTrue(solver.isSatisfiable(new Conjunction(eq1, eq2), val));
+        Assert.assertTrue(solver.isSatisfiable(new Conjunction(eq2,
+                new AtomicGuardExpression<>(s1, Relation.EQUALS, r1)), val));
+        Assert.assertEquals(solver.getHits(), 1);
+
+        Assert.assertFalse(solver.isSatisfiable(new Conjunction(eq1, neq1), val));
+        Assert.assertFalse(solver.isSatisfiable(new Conjunction(new Negation(new Negation(neq1)),
+                new Conjunction(eq1)), val));
+        Assert.assertEquals(solver.getHits(), 2);
+        Assert.assertEquals(solver.getMisses(), 2);
+
+        // values of the expression's symbolic data values are part of the key
+        val.put(r1, new DataValue<>(T_INT, 1));
+        val.put(r2, new DataValue<>(T_INT, 2));
+        Assert.assertFalse(solver.isSatisfiable(new Conjunction(eq1, eq2), val));
+        Assert.assertEquals(solver.getMisses(), 3);
+    }
+
+    @Test
+    public void testEviction() {
+        CachingConstraintSolver solver = new CachingConstraintSolver(new SimpleConstraintSolver(), 1);
+        Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+
+        GuardExpression eq = new AtomicGuardExpression<>(r1, Relation.EQUALS, s1);
+        GuardExpression neq = new AtomicGuardExpression<>(r1, Relation.NOT_EQUALS, s1);
+
+        solver.isSatisfiable(eq, val);
+        solver.isSatisfiable(neq, val);
+        solver.isSatisfiable(eq, val);
+        Assert.assertEquals(solver.getHits(), 0);
+        Assert.assertEquals(solver.getMisses(), 3);
+    }
+
+    @Test
+    public void testSessionsArePassedThrough() {
+        SolverSession session = new StackedSolverSession(new SimpleConstraintSolver());
+        ConstraintSolver inner = new SimpleConstraintSolver() {
+            @Override
+            public SolverSession createSession() {
+                return session;
+            }
+        };
+        CachingConstraintSolver solver = new CachingConstraintSolver(inner, 10);
+        Assert.assertSame(solver.createSession(), session);
+    }
+}
@@ -0,0 +1,49 @@
+package de.learnlib.ralib.solver;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
+import de.learnlib.ralib.automata.guards.Relation;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.solver.simple.SimpleConstraintSolver;
+
+public class StackedSolverSessionTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    @Test
+    public void testScopes() {
+        Register r1 = new Register(T_INT, 1);
+        Register r2 = new Register(T_INT, 2);
+        SuffixValue s1 = new SuffixValue(T_INT, 1);
+
+        Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+        val.put(r1, new DataValue<>(T_INT, 1));
+        val.put(r2, new DataValue<>(T_INT, 2));
+
+        try (SolverSession session = new SimpleConstraintSolver().createSession()) {
+            session.add(val);
+            session.add(new AtomicGuardExpression<>(s1, Relation.EQUALS, r1));
+            Assert.assertTrue(session.isSatisfiable());
+
+            session.push();
+            session.add(new AtomicGuardExpression<>(s1, Relation.EQUALS, r2));
+            Assert.assertFalse(session.isSatisfiable());
+            session.pop();
+
+            session.push();
+            session.add(new AtomicGuardExpression<>(s1, Relation.NOT_EQUALS, r2));
+            Assert.assertTrue(session.isSatisfiable());
+            session.pop();
+
+            Assert.assertTrue(session.isSatisfiable());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.learnlib.ralib.solver.simple;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.automata.guards.AtomicGuardExpression;
+import de.learnlib.ralib.automata.guards.Conjunction;
+import de.learnlib.ralib.automata.guards.Disjunction;
+import de.learnlib.ralib.automata.guards.GuardExpression;
+import de.learnlib.ralib.automata.guards.Negation;
+import de.learnlib.ralib.automata.guards.Relation;
+import de.learnlib.ralib.automata.guards.TrueGuardExpression;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.Mapping;
+import de.learnlib.ralib.data.SymbolicDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+
+public class UnionFindConstraintSolverTest extends RaLibTestSuite {
+
+    private static final DataType T_INT = new DataType("int", Integer.class);
+
+    private final SymbolicDataValue[] sdvs = {
+        new Register(T_INT, 1), new Register(T_INT, 2),
+        new SuffixValue(T_INT, 1), new SuffixValue(T_INT, 2)
+    };
+
+    @Test
+    public void testEqualityChains() {
+        UnionFindConstraintSolver solver = new UnionFindConstraintSolver();
+        Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+        val.put(sdvs[0], new DataValue<>(T_INT, 1));
+        val.put(sdvs[1], new DataValue<>(T_INT, 2));
+
+        // s1 == r1 && s1 == r2 with r1 != r2
+        Assert.assertFalse(solver.isSatisfiable(new Conjunction(
+                eq(sdvs[2], sdvs[0]), eq(sdvs[2], sdvs[1])), val));
+        // (s1 == r1 || s1 == r2) && !(s1 == r1)
+        Assert.assertTrue(solver.isSatisfiable(new Conjunction(
+                new Disjunction(eq(sdvs[2], sdvs[0]), eq(sdvs[2], sdvs[1])),
+                new Negation(eq(sdvs[2], sdvs[0]))), val));
+        // s1 == s2 && s2 == r1 && s1 != r1
+        Assert.assertFalse(solver.isSatisfiable(new Conjunction(
+                eq(sdvs[2], sdvs[3]), eq(sdvs[3], sdvs[0]),
+                new AtomicGuardExpression<>(sdvs[2], Relation.NOT_EQUALS, sdvs[0])), val));
+        Assert.assertFalse(solver.isSatisfiable(new Negation(TrueGuardExpression.TRUE), val));
+    }
+
+    @Test
+    public void testAgreesWithSimpleSolver() {
+        UnionFindConstraintSolver solver = new UnionFindConstraintSolver();
+        SimpleConstraintSolver reference = new SimpleConstraintSolver();
+        Random r = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            Mapping<SymbolicDataValue, DataValue<?>> val = new Mapping<>();
+            for (SymbolicDataValue sv : sdvs) {
+                if (r.nextBoolean()) {
+                    val.put(sv, new DataValue<>(T_INT, r.nextInt(3)));
+                }
+            }
+            GuardExpression expr = randomGuard(r, 3);
+            Assert.assertEquals(solver.isSatisfiable(expr, val),
+                    reference.isSatisfiable(expr, val), expr + " with " + val);
+        }
+    }
+
+    private GuardExpression randomGuard(Random r, int depth) {
+        int kind = depth == 0 ? 0 : r.nextInt(5);
+        switch (kind) {
+            case 1:
+                return new Negation(randomGuard(r, depth - 1));
+            case 2:
+                return new Conjunction(randomGuard(r, depth - 1), randomGuard(r, depth - 1));
+            case 3:
+                return new Disjunction(randomGuard(r, depth - 1), randomGuard(r, depth - 1),
+                        randomGuard(r, depth - 1));
+            default:
+                // the simple solver does not support atoms like r1 == r1
+                int left = r.nextInt(sdvs.length);
+                int right = (left + 1 + r.nextInt(sdvs.length - 1)) % sdvs.length;
+                return new AtomicGuardExpression<>(sdvs[left],
+                        r.nextBoolean() ? Relation.EQUALS : Relation.NOT_EQUALS, sdvs[right]);
+        }
+    }
+
+    private static GuardExpression eq(SymbolicDataValue l, SymbolicDataValue r) {
+        return new AtomicGuardExpression<>(l, Relation.EQUALS, r);
+    }
+}
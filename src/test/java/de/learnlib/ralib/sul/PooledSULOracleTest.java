@@ -0,0 +1,55 @@
+package de.learnlib.ralib.sul;
+
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.DOUBLE_TYPE;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OFFER;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.POLL;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.example.priority.PriorityQueueSUL;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class PooledSULOracleTest extends RaLibTestSuite {
+
+    private static PSymbolInstance offer(int d) {
+        return new PSymbolInstance(OFFER,
+                new DataValue<BigDecimal>(DOUBLE_TYPE, new BigDecimal(d)));
+    }
+
+    @Test
+    public void testBatchMatchesSequential() {
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        PSymbolInstance poll = new PSymbolInstance(POLL);
+        List<Word<PSymbolInstance>> queries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Word<PSymbolInstance> q = Word.epsilon();
+            for (int j = 0; j <= i % 4; j++) {
+                q = q.append(offer((i + j) % 6)).append(ok);
+            }
+            queries.add(q.append(poll).append(ok).append(poll).append(ok));
+        }
+
+        PriorityQueueSUL single = new PriorityQueueSUL();
+        SULOracle sequential = new SULOracle(single, PriorityQueueSUL.ERROR);
+        List<Word<PSymbolInstance>> expected = sequential.traces(queries);
+
+        PooledSULOracle pool = new PooledSULOracle(
+                PriorityQueueSUL::new, 4, PriorityQueueSUL.ERROR);
+        List<Word<PSymbolInstance>> traces = pool.traces(queries);
+        pool.shutdown();
+
+        Assert.assertEquals(traces, expected);
+        Assert.assertEquals(pool.getQueryCount(), sequential.getQueryCount());
+        Assert.assertEquals(pool.getResets(), single.getResets());
+        Assert.assertEquals(pool.getInputs(), single.getInputs());
+    }
+}
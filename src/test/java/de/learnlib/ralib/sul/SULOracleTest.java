@@ -0,0 +1,53 @@
+package de.learnlib.ralib.sul;
+
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.DOUBLE_TYPE;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OFFER;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.OK;
+import static de.learnlib.ralib.example.priority.PriorityQueueSUL.POLL;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.example.priority.PriorityQueueSUL;
+import de.learnlib.ralib.words.PSymbolInstance;
+import net.automatalib.word.Word;
+
+public class SULOracleTest extends RaLibTestSuite {
+
+    private static PSymbolInstance offer(int d) {
+        return new PSymbolInstance(OFFER,
+                new DataValue<BigDecimal>(DOUBLE_TYPE, new BigDecimal(d)));
+    }
+
+    @Test
+    public void testBatchSharesPrefixes() {
+        PSymbolInstance ok = new PSymbolInstance(OK);
+        PSymbolInstance poll = new PSymbolInstance(POLL);
+        List<Word<PSymbolInstance>> queries = Arrays.asList(
+                Word.fromSymbols(offer(1), ok),
+                Word.fromSymbols(offer(1), ok, poll, ok),
+                Word.fromSymbols(offer(2), ok, poll),
+                Word.fromSymbols(offer(1), ok, offer(3)),
+                Word.fromSymbols(offer(1)));
+
+        PriorityQueueSUL sul = new PriorityQueueSUL();
+        List<Word<PSymbolInstance>> traces =
+                new SULOracle(sul, PriorityQueueSUL.ERROR).traces(queries);
+
+        for (int i = 0; i < queries.size(); i++) {
+            Word<PSymbolInstance> expected = new SULOracle(
+                    new PriorityQueueSUL(), PriorityQueueSUL.ERROR).trace(queries.get(i));
+            Assert.assertEquals(traces.get(i), expected);
+        }
+
+        // one reset per leaf of the prefix tree
+        Assert.assertEquals(sul.getResets(), 3);
+        Assert.assertEquals(sul.getInputs(), 6);
+    }
+}
@@ -0,0 +1,119 @@
+package de.learnlib.ralib.theory.inequality;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.ralib.RaLibLearningExperimentRunner;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.TestUtil;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.example.priority.PriorityQueueOracle;
+import de.learnlib.ralib.learning.Hypothesis;
+import de.learnlib.ralib.learning.RaLearningAlgorithmName;
+import de.learnlib.ralib.oracles.mto.SDT;
+import de.learnlib.ralib.oracles.mto.SDTLeaf;
+import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.theory.SDTGuard;
+import de.learnlib.ralib.theory.SDTTrueGuard;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.theory.equality.EqualityGuard;
+import de.learnlib.ralib.tools.theories.DoubleInequalityTheory;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+
+public class IntervalRegionsTest extends RaLibTestSuite {
+
+    private static final DataType T_DBL = new DataType("double", Double.class);
+
+    private final SuffixValue s1 = new SuffixValue(T_DBL, 1);
+    private final Register r1 = new Register(T_DBL, 1);
+    private final Register r2 = new Register(T_DBL, 2);
+    private final Register r3 = new Register(T_DBL, 3);
+
+    private final IntervalGuard[] intervals = {
+        new IntervalGuard(s1, null, r1),
+        new IntervalGuard(s1, r1, r2),
+        new IntervalGuard(s1, r2, r3),
+        new IntervalGuard(s1, r3, null)
+    };
+
+    private final EqualityGuard[] points = {
+        new EqualityGuard(s1, r1),
+        new EqualityGuard(s1, r2),
+        new EqualityGuard(s1, r3)
+    };
+
+    private Map<SDTGuard, SDT> regions(SDT... sdts) {
+        // same order as in treeQuery: intervals first, then points
+        Map<SDTGuard, SDT> kids = new LinkedHashMap<>();
+        for (int i = 0; i < intervals.length; i++) {
+            kids.put(intervals[i], sdts[2 * i]);
+        }
+        for (int i = 0; i < points.length; i++) {
+            kids.put(points[i], sdts[2 * i + 1]);
+        }
+        return kids;
+    }
+
+    @Test
+    public void testMergeAdjacentRegions() {
+        SDT a = SDTLeaf.ACCEPTING;
+        SDT r = SDTLeaf.REJECTING;
+
+        // r1 < s1 < r3 is accepting, s1 == r3 separates the last run
+        Map<SDTGuard, SDT> merged = InequalityTheoryWithEq.mergeAdjacentRegions(
+                regions(r, a, a, a, a, r, a), intervals, points, s1);
+        Map<SDTGuard, SDT> expected = new LinkedHashMap<>();
+        expected.put(intervals[0], r);
+        expected.put(new IntervalGuard(s1, r1, r3), a);
+        expected.put(intervals[3], a);
+        expected.put(points[0], a);
+        expected.put(points[2], r);
+        Assert.assertEquals(merged, expected);
+        Assert.assertEquals(merged.keySet().toString(), expected.keySet().toString());
+
+        merged = InequalityTheoryWithEq.mergeAdjacentRegions(
+                regions(a, a, a, a, a, a, a), intervals, points, s1);
+        Assert.assertEquals(merged.size(), 1);
+        Assert.assertTrue(merged.keySet().iterator().next() instanceof SDTTrueGuard);
+
+        Map<SDTGuard, SDT> alternating = regions(a, r, a, r, a, r, a);
+        Assert.assertSame(InequalityTheoryWithEq.mergeAdjacentRegions(
+                alternating, intervals, points, s1), alternating);
+    }
+
+    @Test
+    public void testStructuralChecks() {
+        Assert.assertTrue(intervals[3].contains(new IntervalGuard(s1, r3, r1)));
+        Assert.assertTrue(intervals[0].contains(intervals[0]));
+        Assert.assertFalse(intervals[0].contains(intervals[1]));
+
+        Assert.assertTrue(intervals[0].excludes(intervals[1]));
+        Assert.assertTrue(intervals[1].excludes(points[1]));
+        Assert.assertFalse(intervals[0].excludes(intervals[2]));
+        Assert.assertFalse(intervals[0].excludes(points[2]));
+    }
+
+    @Test
+    public void testLearnedPriorityQueue() {
+        // merging adjacent regions must not change the learned models
+        ConstraintSolver solver = TestUtil.getZ3Solver();
+        for (RaLearningAlgorithmName alg : RaLearningAlgorithmName.values()) {
+            Map<DataType, Theory> teachers = new LinkedHashMap<>();
+            teachers.put(PriorityQueueOracle.doubleType,
+                    new DoubleInequalityTheory(PriorityQueueOracle.doubleType));
+            RaLibLearningExperimentRunner runner = new RaLibLearningExperimentRunner(logger);
+            runner.setMaxDepth(6);
+            Hypothesis hyp = runner.run(alg, new PriorityQueueOracle(2), teachers,
+                    new Constants(), solver, new ParameterizedSymbol[] {
+                        PriorityQueueOracle.OFFER, PriorityQueueOracle.POLL});
+            Assert.assertEquals(hyp.getStates().size(), 5, alg.toString());
+            Assert.assertEquals(hyp.getTransitions().size(), 15, alg.toString());
+        }
+    }
+}
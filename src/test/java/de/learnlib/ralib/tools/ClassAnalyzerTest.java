@@ -102,6 +102,81 @@ public class ClassAnalyzerTest extends RaLibTestSuite {
         }
     }
 
+    @Test
+    public void testClassAnalyzerWithParallelTreeQueries() {
+
+        final String[] options = new String[] {
+            "class-analyzer",
+            "target=de.learnlib.ralib.example.list.BoundedList;" +
+            "methods=push(java.lang.Integer:int)void+" +
+            "pop()java.lang.Integer:int+" +
+            "contains(java.lang.Integer:int)boolean:boolean;" +
+            "random.seed=6521023071547789;" +
+            "logging.level=WARNING;" +
+            "max.time.millis=600000;" +
+            "use.ceopt=false;" +
+            "use.suffixopt=false;" +
+            "use.fresh=false;" +
+            "use.rwalk=true;" +
+            "export.model=false;" +
+            "treequery.workers=2;" +
+            "rwalk.prob.fresh=0.3;" +
+            "rwalk.prob.reset=0.1;" +
+            "rwalk.max.depth=6;" +
+            "rwalk.max.runs=1000;" +
+            "rwalk.reset.count=false;" +
+            "rwalk.draw.uniform=false;" +
+            "teachers=int:de.learnlib.ralib.tools.theories.IntegerEqualityTheory;"};
+
+        try {
+            ConsoleClient cl = new ConsoleClient(options);
+            int ret = cl.run();
+            Assert.assertEquals(ret, 0);
+
+        } catch (Throwable t) {
+            t.printStackTrace();
+            Assert.fail(t.getClass().getName());
+        }
+    }
+
+    @Test
+    public void testClassAnalyzerWithSULPool() {
+
+        final String[] options = new String[] {
+            "class-analyzer",
+            "target=de.learnlib.ralib.example.list.BoundedList;" +
+            "methods=push(java.lang.Integer:int)void+" +
+            "pop()java.lang.Integer:int+" +
+            "contains(java.lang.Integer:int)boolean:boolean;" +
+            "random.seed=6521023071547789;" +
+            "logging.level=WARNING;" +
+            "max.time.millis=600000;" +
+            "use.ceopt=false;" +
+            "use.suffixopt=false;" +
+            "use.fresh=false;" +
+            "use.rwalk=true;" +
+            "export.model=false;" +
+            "use.batchqueries=true;" +
+            "sul.pool=2;" +
+            "rwalk.prob.fresh=0.3;" +
+            "rwalk.prob.reset=0.1;" +
+            "rwalk.max.depth=6;" +
+            "rwalk.max.runs=1000;" +
+            "rwalk.reset.count=false;" +
+            "rwalk.draw.uniform=false;" +
+            "teachers=int:de.learnlib.ralib.tools.theories.IntegerEqualityTheory;"};
+
+        try {
+            ConsoleClient cl = new ConsoleClient(options);
+            int ret = cl.run();
+            Assert.assertEquals(ret, 0);
+
+        } catch (Throwable t) {
+            t.printStackTrace();
+            Assert.fail(t.getClass().getName());
+        }
+    }
+
     @Test
     public void testClassAnalyzerInequalities() {
 
@@ -0,0 +1,220 @@
+package de.learnlib.ralib.tools.theories;
+
+import static de.learnlib.ralib.solver.jconstraints.JContraintsUtil.toVariable;
+import static de.learnlib.ralib.tools.theories.LongInequalityTheory.STEP;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.learnlib.query.Query;
+import de.learnlib.ralib.RaLibLearningExperimentRunner;
+import de.learnlib.ralib.RaLibTestSuite;
+import de.learnlib.ralib.TestUtil;
+import de.learnlib.ralib.data.Constants;
+import de.learnlib.ralib.data.DataType;
+import de.learnlib.ralib.data.DataValue;
+import de.learnlib.ralib.data.FreshValue;
+import de.learnlib.ralib.data.LongDataValue;
+import de.learnlib.ralib.data.SymbolicDataValue.Register;
+import de.learnlib.ralib.data.SymbolicDataValue.SuffixValue;
+import de.learnlib.ralib.learning.Hypothesis;
+import de.learnlib.ralib.learning.RaLearningAlgorithmName;
+import de.learnlib.ralib.oracles.DataWordOracle;
+import de.learnlib.ralib.solver.ConstraintSolver;
+import de.learnlib.ralib.theory.SDTOrGuard;
+import de.learnlib.ralib.theory.Theory;
+import de.learnlib.ralib.theory.equality.EqualityGuard;
+import de.learnlib.ralib.theory.inequality.IntervalGuard;
+import de.learnlib.ralib.words.DataWordCodec;
+import de.learnlib.ralib.words.InputSymbol;
+import de.learnlib.ralib.words.PSymbolInstance;
+import de.learnlib.ralib.words.ParameterizedSymbol;
+import gov.nasa.jpf.constraints.api.Valuation;
+import net.automatalib.word.Word;
+
+public class LongInequalityTheoryTest extends RaLibTestSuite {
+
+    private static final DataType T_LONG = new DataType("long", Long.class);
+
+    private final LongInequalityTheory theory = new LongInequalityTheory(T_LONG);
+
+    private final SuffixValue s1 = new SuffixValue(T_LONG, 1);
+    private final Register r1 = new Register(T_LONG, 1);
+    private final Register r2 = new Register(T_LONG, 2);
+
+    private Valuation valuation(long v1, long v2) {
+        Valuation val = new Valuation();
+        val.setValue(toVariable(r1), v1);
+        val.setValue(toVariable(r2), v2);
+        return val;
+    }
+
+    private List<DataValue<Long>> values(long... vals) {
+        List<DataValue<Long>> ret = new ArrayList<>();
+        for (long v : vals) {
+            ret.add(new DataValue<>(T_LONG, v));
+        }
+        return ret;
+    }
+
+    private Long instantiate(IntervalGuard g, Valuation val, Collection<DataValue<Long>> used) {
+        DataValue<Long> dv = theory.instantiate(g, val, new Constants(), used);
+        return dv == null ? null : dv.getId();
+    }
+
+    @Test
+    public void testInstantiateIntervals() {
+        Valuation val = valuation(2, 10);
+        List<DataValue<Long>> used = values(2, 10);
+
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, null, r1), val, used), Long.valueOf(2 - STEP));
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, r2, null), val, used), Long.valueOf(10 + STEP));
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, r1, r2), val, used), Long.valueOf(6));
+
+        // used values are skipped, empty intervals have no instance
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, r1, r2), val, values(2, 6, 10)), Long.valueOf(7));
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, null, r1), val, values(2 - STEP, 2)),
+                Long.valueOf(2 - STEP + 1));
+        Assert.assertNull(instantiate(new IntervalGuard(s1, r1, r2), valuation(2, 3), used));
+        Assert.assertNull(instantiate(new IntervalGuard(s1, r1, r2), valuation(2, 4), values(2, 3, 4)));
+
+        // a fixed suffix value is only checked
+        Valuation fixed = valuation(2, 10);
+        fixed.setValue(toVariable(s1), 4L);
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, r1, r2), fixed, used), Long.valueOf(4));
+        Assert.assertNull(instantiate(new IntervalGuard(s1, r2, null), fixed, used));
+    }
+
+    @Test
+    public void testInstantiateEqualities() {
+        Valuation val = valuation(2, 10);
+        SDTOrGuard or = new SDTOrGuard(s1, new EqualityGuard(s1, r2), new IntervalGuard(s1, null, r1));
+        Assert.assertEquals(theory.instantiate(new EqualityGuard(s1, r2), val, new Constants(),
+                values(2, 10)).getId(), Long.valueOf(10));
+        Assert.assertEquals(theory.instantiate(or, val, new Constants(), values(2, 10)).getId(),
+                Long.valueOf(10));
+    }
+
+    @Test
+    public void testInstantiateNearBounds() {
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, r1, null),
+                valuation(Long.MAX_VALUE - 10, 0), values()), Long.valueOf(Long.MAX_VALUE - 5));
+        Assert.assertEquals(instantiate(new IntervalGuard(s1, null, r1),
+                valuation(Long.MIN_VALUE + 10, 0), values()), Long.valueOf(Long.MIN_VALUE + 5));
+        Assert.assertNull(instantiate(new IntervalGuard(s1, null, r1),
+                valuation(Long.MIN_VALUE, 0), values()));
+        Assert.assertNull(instantiate(new IntervalGuard(s1, r1, null),
+                valuation(Long.MAX_VALUE - 1, 0), values()));
+    }
+
+    @Test
+    public void testFreshAndNextValues() {
+        Assert.assertEquals(theory.getFreshValue(values()).getId(), Long.valueOf(1));
+        Assert.assertEquals(theory.getFreshValue(values(7, 3)).getId(), Long.valueOf(7 + STEP));
+        Assert.assertEquals(new ArrayList<>(theory.getAllNextValues(values(7, 3, 4))),
+                values(7, 3, 4, 5, 3 - STEP, 7 + STEP));
+        Assert.assertEquals(theory.getPotential(values(7, 3, 4)), values(3, 4, 7));
+        Assert.assertEquals(Arrays.asList(new LongDataValue(T_LONG, 3)), values(3));
+        Assert.assertEquals(values(3), Arrays.asList(new LongDataValue(T_LONG, 3)));
+    }
+
+    @Test
+    public void testNoOverflow() {
+        Assert.assertEquals(theory.getFreshValue(values(Long.MAX_VALUE - 1)).getId(),
+                Long.valueOf(Long.MAX_VALUE));
+        Assert.assertEquals(theory.getFreshValue(values(Long.MAX_VALUE)).getId(),
+                Long.valueOf(Long.MAX_VALUE - STEP));
+        Assert.assertEquals(theory.getFreshValue(values(Long.MIN_VALUE, Long.MAX_VALUE)).getId(),
+                Long.valueOf(-1));
+        Assert.assertEquals(new ArrayList<>(theory.getAllNextValues(values(Long.MAX_VALUE - 1, Long.MAX_VALUE))),
+                values(Long.MAX_VALUE - 1, Long.MAX_VALUE, Long.MAX_VALUE - 1 - STEP));
+        Assert.assertEquals(new ArrayList<>(theory.getAllNextValues(values(Long.MIN_VALUE))),
+                values(Long.MIN_VALUE, Long.MIN_VALUE + STEP));
+    }
+
+    @Test
+    public void testCodecKeepsLongValues() throws IOException {
+        InputSymbol offer = new InputSymbol("offer", new DataType[] {T_LONG});
+        DataWordCodec codec = new DataWordCodec(Arrays.asList(offer));
+        Word<PSymbolInstance> word = Word.fromSymbols(
+                new PSymbolInstance(offer, new LongDataValue(T_LONG, 5)),
+                new PSymbolInstance(offer, new DataValue<>(T_LONG, 6L)),
+                new PSymbolInstance(offer, new FreshValue<>(T_LONG, 7L)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(new DataOutputStream(bytes), word);
+        Word<PSymbolInstance> read = codec.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(read, word);
+        Assert.assertSame(read.getSymbol(0).getParameterValues()[0].getClass(), LongDataValue.class);
+        Assert.assertSame(read.getSymbol(1).getParameterValues()[0].getClass(), DataValue.class);
+        Assert.assertSame(read.getSymbol(2).getParameterValues()[0].getClass(), FreshValue.class);
+    }
+
+    @Test
+    public void testLearnPriorityQueue() {
+        // the learned models match those learned with DoubleInequalityTheory
+        ConstraintSolver solver = TestUtil.getZ3Solver();
+        for (RaLearningAlgorithmName alg : RaLearningAlgorithmName.values()) {
+            Map<DataType, Theory> teachers = new LinkedHashMap<>();
+            teachers.put(T_LONG, new LongInequalityTheory(T_LONG));
+            RaLibLearningExperimentRunner runner = new RaLibLearningExperimentRunner(logger);
+            runner.setMaxDepth(6);
+            Hypothesis hyp = runner.run(alg, new LongPriorityQueueOracle(2), teachers,
+                    new Constants(), solver, new ParameterizedSymbol[] {OFFER, POLL});
+            Assert.assertEquals(hyp.getStates().size(), 5, alg.toString());
+            Assert.assertEquals(hyp.getTransitions().size(), 15, alg.toString());
+        }
+    }
+
+    private static final InputSymbol OFFER = new InputSymbol("offer", new DataType[] {T_LONG});
+
+    private static final InputSymbol POLL = new InputSymbol("poll", new DataType[] {T_LONG});
+
+    /**
+     * Bounded priority queue over longs: offer succeeds while the queue is
+     * not full, poll succeeds if it is given the smallest element.
+     */
+    private static final class LongPriorityQueueOracle implements DataWordOracle {
+
+        private final int capacity;
+
+        LongPriorityQueueOracle(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<PSymbolInstance, Boolean>> queries) {
+            for (Query<PSymbolInstance, Boolean> query : queries) {
+                PriorityQueue<Long> queue = new PriorityQueue<>();
+                boolean accepted = true;
+                for (PSymbolInstance psi : query.getInput()) {
+                    Long d = (Long) psi.getParameterValues()[0].getId();
+                    if (psi.getBaseSymbol().equals(OFFER)) {
+                        accepted = queue.size() < capacity && queue.offer(d);
+                    } else {
+                        accepted = d.equals(queue.poll());
+                    }
+                    if (!accepted) {
+                        break;
+                    }
+                }
+                query.answer(accepted);
+            }
+        }
+    }
+}